@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset emelyanov:002_ddl_create_item_hibernate_sequence dbms:postgresql
+CREATE SEQUENCE IF NOT EXISTS items_hibernate_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('items_hibernate_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM items), false);
+
+--changeset emelyanov:002_ddl_create_item_hibernate_sequence_h2 dbms:h2
+CREATE SEQUENCE IF NOT EXISTS items_hibernate_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE items_hibernate_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM items);
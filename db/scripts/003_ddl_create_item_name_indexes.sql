@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset emelyanov:003_ddl_create_item_name_indexes dbms:postgresql
+ALTER TABLE items ADD COLUMN name_lower TEXT GENERATED ALWAYS AS (lower(name)) STORED;
+CREATE INDEX items_name_idx ON items (name text_pattern_ops);
+CREATE INDEX items_name_lower_idx ON items (name_lower);
+COMMENT ON COLUMN items.name_lower IS 'Наименование заявки в нижнем регистре';
+
+--changeset emelyanov:003_ddl_create_item_name_indexes_h2 dbms:h2
+ALTER TABLE items ADD COLUMN name_lower TEXT GENERATED ALWAYS AS (LOWER(name));
+CREATE INDEX items_name_idx ON items (name);
+CREATE INDEX items_name_lower_idx ON items (name_lower);
@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset emelyanov:004_ddl_create_item_search_index dbms:postgresql
+ALTER TABLE items ADD COLUMN IF NOT EXISTS description TEXT;
+ALTER TABLE items ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A')
+    || setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+CREATE INDEX items_search_idx ON items USING GIN (search_vector);
+COMMENT ON COLUMN items.description IS 'Описание заявки';
+COMMENT ON COLUMN items.search_vector IS 'Слова наименования (вес A) и описания (вес B) заявки';
+
+--changeset emelyanov:004_ddl_create_item_search_index_h2 dbms:h2
+ALTER TABLE items ADD COLUMN IF NOT EXISTS description TEXT;
@@ -6,9 +6,12 @@ import ru.job4j.tracker.io.*;
 import ru.job4j.tracker.store.HibernateStore;
 import ru.job4j.tracker.store.Store;
 
+import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
 
 /**
  * Основной класс для запуска приложения
@@ -39,6 +42,58 @@ public class StartUI {
             UserAction action = actions.get(select);
             run = action.execute(input, tracker);
         }
+        out.flush();
+    }
+
+    /**
+     * Выполняет сценарий команд без вывода меню, пока сценарий
+     * не закончится или не будет выбран пункт выход. Команды
+     * выполняются одна за другой, некорректный номер действия
+     * выводится и пропускается. Некорректный числовой ответ внутри
+     * команды останавливает сценарий: сколько строк команды осталось,
+     * неизвестно, и оставшиеся ответы нельзя читать как номера
+     * действий. В конце выводится
+     * количество выполненных команд и их пропускная способность.
+     *
+     * @param input сценарий команд
+     * @param tracker объект работы с хранилищем данных
+     * @param actions список действий приложения
+     * @return количество выполненных команд
+     */
+    public long batch(ScriptInput input, Store tracker, List<UserAction> actions) {
+        long start = System.nanoTime();
+        long commands = 0;
+        boolean run = true;
+        while (run && input.hasNext()) {
+            try {
+                int select;
+                try {
+                    select = input.askInt("Select: ");
+                } catch (NumberFormatException e) {
+                    out.println("Wrong input at line " + input.getLine() + ": " + e.getMessage());
+                    continue;
+                }
+                if (select < 0 || select >= actions.size()) {
+                    out.println("Wrong input at line " + input.getLine()
+                            + ", you can select: 0 .. " + (actions.size() - 1));
+                    continue;
+                }
+                run = actions.get(select).execute(input, tracker);
+                commands++;
+            } catch (NumberFormatException e) {
+                out.println("Wrong input at line " + input.getLine() + ": " + e.getMessage()
+                        + ", batch stopped");
+                run = false;
+            } catch (NoSuchElementException e) {
+                out.println("Unexpected end of script at line " + input.getLine());
+                run = false;
+            }
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        out.println(String.format(Locale.ROOT, "Batch: %d commands in %.3f ms, %.1f commands/s",
+                commands, elapsed / 1e6, commands * 1e9 / elapsed));
+        out.flush();
+        return commands;
     }
 
     /**
@@ -54,13 +109,16 @@ public class StartUI {
     }
 
     /**
-     * Выполняет запуск приложения.
+     * Выполняет запуск приложения. С аргументом --batch команды
+     * читаются из файла, указанного следующим аргументом,
+     * или из стандартного ввода без вывода меню, см.
+     * {@link #batch(ScriptInput, Store, List)}.
      *
      * @param args аргументы командной строки
      */
     public static void main(String[] args) {
         Output output = new ConsoleOutput();
-        Input input = new ValidateInput(output, new ConsoleInput());
+        boolean batch = args.length > 0 && "--batch".equals(args[0]);
         try (Store tracker = new HibernateStore()) {
             tracker.init();
             List<UserAction> actions = new ArrayList<>(Arrays.asList(
@@ -70,11 +128,22 @@ public class StartUI {
                     new DeleteAction(output),
                     new FindByIdAction(output),
                     new FindByNameAction(output),
-                    new Exit()
+                    new SearchAction(output),
+                    new Exit(output)
             ));
-            new StartUI(output).init(input, tracker, actions);
+            if (batch) {
+                try (ScriptInput script = new ScriptInput(
+                        args.length > 1 ? new FileInputStream(args[1]) : System.in)) {
+                    new StartUI(output).batch(script, tracker, actions);
+                }
+            } else {
+                Input input = new ValidateInput(output, new ConsoleInput(output));
+                new StartUI(output).init(input, tracker, actions);
+            }
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            output.flush();
         }
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package ru.job4j.tracker.action;
 
 import ru.job4j.tracker.io.Input;
+import ru.job4j.tracker.io.Output;
 import ru.job4j.tracker.store.Store;
 
 /**
@@ -11,6 +12,27 @@ import ru.job4j.tracker.store.Store;
  */
 public class Exit implements UserAction {
 
+    /**
+     * Объект вывода данных
+     */
+    private final Output out;
+
+    /**
+     * Конструктор. Вывод в System.out.
+     */
+    public Exit() {
+        this(System.out::println);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param out объект вывода данных
+     */
+    public Exit(Output out) {
+        this.out = out;
+    }
+
     /**
      * Возвращает наименование действия.
      *
@@ -31,7 +53,7 @@ public class Exit implements UserAction {
      */
     @Override
     public boolean execute(Input input, Store tracker) {
-                System.out.println(System.lineSeparator() + "=== Exit Program ====");
-                return false;
+        out.println(System.lineSeparator() + "=== Exit Program ====");
+        return false;
     }
 }
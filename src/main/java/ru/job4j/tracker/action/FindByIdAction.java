@@ -44,7 +44,7 @@ public class FindByIdAction implements UserAction {
         int id = input.askInt("Enter id: ");
         Item findItem = tracker.findById(id);
         if (findItem != null) {
-            out.println(findItem);
+            out.printItem(findItem);
         }  else {
             out.println("Item with this id not found");
         }
@@ -47,7 +47,7 @@ public class FindByNameAction implements UserAction {
         List<Item> arrItems = tracker.findByName(name);
         if (arrItems.size() != 0) {
             for (Item arrItem : arrItems) {
-                out.println(arrItem);
+                out.printItem(arrItem);
             }
         } else {
             out.println("No items with this name were found");
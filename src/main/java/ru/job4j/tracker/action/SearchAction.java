@@ -0,0 +1,64 @@
+package ru.job4j.tracker.action;
+
+import lombok.AllArgsConstructor;
+import ru.job4j.tracker.io.Input;
+import ru.job4j.tracker.io.Output;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.Store;
+
+import java.util.List;
+
+/**
+ * Класс реализация действия по полнотекстовому поиску заявок
+ * по словам наименования и описания
+ * @see ru.job4j.tracker.action.UserAction
+ * @see ru.job4j.tracker.store.Store#search(String, int)
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+public class SearchAction implements UserAction {
+
+    /**
+     * Максимальное количество выводимых заявок
+     */
+    private static final int LIMIT = 10;
+
+    /**
+     * Объект вывода данных
+     */
+    private final Output out;
+
+    /**
+     * Возвращает наименование действия.
+     *
+     * @return наименование действия
+     */
+    @Override
+    public String name() {
+        return "Search items by text";
+    }
+
+    /**
+     * Выполняет действие класса,
+     * вывод наиболее релевантных запросу заявок.
+     *
+     * @param input объект ввода
+     * @param tracker объект работы с хранилищем данных
+     * @return true
+     */
+    @Override
+    public boolean execute(Input input, Store tracker) {
+        out.println(System.lineSeparator() + "=== Search Items by text ====");
+        String query = input.askStr("Enter words: ");
+        List<Item> arrItems = tracker.search(query, LIMIT);
+        if (arrItems.size() != 0) {
+            for (Item arrItem : arrItems) {
+                out.printItem(arrItem);
+            }
+        } else {
+            out.println("No items matching the words were found");
+        }
+        return true;
+    }
+}
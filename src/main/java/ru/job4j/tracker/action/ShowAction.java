@@ -17,6 +17,11 @@ import java.util.List;
 @AllArgsConstructor
 public class ShowAction implements UserAction {
 
+    /**
+     * Количество заявок, читаемых из хранилища за один запрос
+     */
+    private static final int PAGE_SIZE = 100;
+
     /**
      * Объект вывода данных
      */
@@ -34,7 +39,9 @@ public class ShowAction implements UserAction {
 
     /**
      * Выполняет действие класса,
-     * отображению заявки.
+     * отображению заявки. Заявки читаются из хранилища
+     * и выводятся страницами по {@link #PAGE_SIZE}, поэтому в памяти
+     * находится не больше одной страницы.
      *
      * @param input объект ввода
      * @param tracker объект работы с хранилищем данных
@@ -43,8 +50,13 @@ public class ShowAction implements UserAction {
     @Override
     public boolean execute(Input input, Store tracker) {
         out.println(System.lineSeparator() + "=== Show Items ====");
-        List<Item> currentItems = tracker.findAll();
-        currentItems.forEach(System.out::println);
+        List<Item> page = tracker.findPage(0, PAGE_SIZE);
+        while (!page.isEmpty()) {
+            page.forEach(out::printItem);
+            page = page.size() < PAGE_SIZE
+                    ? List.of()
+                    : tracker.findPage(page.get(page.size() - 1).getId(), PAGE_SIZE);
+        }
         return true;
     }
 }
@@ -16,13 +16,37 @@ public class ConsoleInput implements Input {
     private final Scanner scanner = new Scanner(System.in);
 
     /**
-     * Выполняет вывод вопроса выбора действия в консоль.
+     * Объект вывода данных, записываемый перед выводом вопроса
+     */
+    private final Output out;
+
+    /**
+     * Конструктор.
+     */
+    public ConsoleInput() {
+        this(System.out::println);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param out объект вывода данных, накопленный вывод которого
+     *            записывается перед выводом вопроса
+     */
+    public ConsoleInput(Output out) {
+        this.out = out;
+    }
+
+    /**
+     * Записывает накопленный вывод и выполняет вывод вопроса
+     * выбора действия в консоль.
      *
      * @param question вопрос
      * @return ответ
      */
     @Override
     public String askStr(String question) {
+        out.flush();
         System.out.print(question);
         return scanner.nextLine();
     }
@@ -1,13 +1,73 @@
 package ru.job4j.tracker.io;
 
+import ru.job4j.tracker.model.Item;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
 /**
- * Класс реализация вывода данных в консоль
+ * Класс реализация вывода данных в консоль.
+ * Вывод накапливается в буфере размером {@link #BUFFER_SIZE} символов
+ * и записывается в консоль при заполнении буфера и при вызове
+ * {@link #flush()}, поэтому вывод большого списка заявок - несколько
+ * крупных записей, а не запись на каждую строку. Заявки форматируются
+ * в повторно используемый буфер строки, см. {@link ItemFormat}.
  * @see ru.job4j.tracker.io.Output
  * @author Alexander Emelyanov
  * @version 1.0
  */
 public class ConsoleOutput implements Output {
 
+    /**
+     * Размер буфера вывода в символах
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Разделитель строк
+     */
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * Буферизованный вывод
+     */
+    private final Writer writer;
+
+    /**
+     * Форматирование заявок
+     */
+    private final ItemFormat format = new ItemFormat();
+
+    /**
+     * Буфер строки заявки
+     */
+    private final StringBuilder row = new StringBuilder(256);
+
+    /**
+     * Символы строки заявки для записи
+     */
+    private char[] chars = new char[256];
+
+    /**
+     * Конструктор. Вывод в System.out.
+     */
+    public ConsoleOutput() {
+        this(new OutputStreamWriter(System.out, Charset.defaultCharset()));
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param writer поток вывода
+     */
+    public ConsoleOutput(Writer writer) {
+        this.writer = new BufferedWriter(writer, BUFFER_SIZE);
+    }
+
     /**
      * Получает и выводит объект в консоль.
      *
@@ -15,6 +75,44 @@ public class ConsoleOutput implements Output {
      */
     @Override
     public void println(Object obj) {
-        System.out.println(obj);
+        try {
+            writer.write(String.valueOf(obj));
+            writer.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Форматирует заявку в буфер строки и выводит его.
+     *
+     * @param item заявка
+     */
+    @Override
+    public void printItem(Item item) {
+        row.setLength(0);
+        format.format(item, row).append(LINE_SEPARATOR);
+        int length = row.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        row.getChars(0, length, chars, 0);
+        try {
+            writer.write(chars, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Записывает накопленный вывод в консоль.
+     */
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package ru.job4j.tracker.io;
+
+import ru.job4j.tracker.model.Item;
+
+import java.sql.Timestamp;
+
+/**
+ * Форматирование заявки в строковый буфер в том же виде, что и
+ * {@link Item#toString()}: Item(id=1, name=..., created=..., description=...).
+ * Поля добавляются в переданный буфер без промежуточных строк.
+ * Дата и время создания с точностью до секунды берутся из
+ * {@link Timestamp#toString()} и запоминаются, пока идут заявки
+ * той же секунды, наносекунды добавляются цифрами, поэтому
+ * подряд идущие заявки одной секунды форматируются без выделения памяти.
+ * Объект не потокобезопасен, у каждого вывода свой объект.
+ * @see ru.job4j.tracker.io.Output#printItem(Item)
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class ItemFormat {
+
+    /**
+     * Секунда последней отформатированной даты создания
+     */
+    private long second = Long.MIN_VALUE;
+
+    /**
+     * Дата и время последней даты создания без долей секунды
+     */
+    private String dateTime;
+
+    /**
+     * Добавляет представление заявки в буфер.
+     *
+     * @param item заявка
+     * @param out буфер
+     * @return буфер
+     */
+    public StringBuilder format(Item item, StringBuilder out) {
+        out.append("Item(id=").append(item.getId())
+                .append(", name=").append(item.getName())
+                .append(", created=");
+        append(item.getCreated(), out);
+        return out.append(", description=").append(item.getDescription()).append(')');
+    }
+
+    /**
+     * Добавляет дату создания в буфер в формате {@link Timestamp#toString()}:
+     * yyyy-mm-dd hh:mm:ss.fffffffff без конечных нулей долей секунды.
+     *
+     * @param created дата создания
+     * @param out буфер
+     */
+    private void append(Timestamp created, StringBuilder out) {
+        if (created == null) {
+            out.append("null");
+            return;
+        }
+        long current = Math.floorDiv(created.getTime(), 1000);
+        if (current != second || dateTime == null) {
+            String text = created.toString();
+            dateTime = text.substring(0, text.lastIndexOf('.'));
+            second = current;
+        }
+        out.append(dateTime).append('.');
+        int nanos = created.getNanos();
+        for (int divisor = 100_000_000; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + nanos / divisor % 10));
+            if (nanos % divisor == 0) {
+                break;
+            }
+        }
+    }
+}
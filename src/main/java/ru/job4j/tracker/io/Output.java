@@ -1,5 +1,7 @@
 package ru.job4j.tracker.io;
 
+import ru.job4j.tracker.model.Item;
+
 /**
  * Интерфейс вывода данных по работе с заявками
  * @author Alexander Emelyanov
@@ -14,4 +16,22 @@ public interface Output {
      * @param obj объект для вывода
      */
     void println(Object obj);
-}
\ No newline at end of file
+
+    /**
+     * Выводит строку списка заявок. По умолчанию выводит
+     * {@link Item#toString()}, реализации могут форматировать
+     * поля заявки без создания строки, см. {@link ItemFormat}.
+     *
+     * @param item заявка
+     */
+    default void printItem(Item item) {
+        println(item);
+    }
+
+    /**
+     * Записывает накопленный вывод, если реализация буферизует вывод.
+     * Вызывается перед ожиданием ввода и по завершении работы.
+     */
+    default void flush() {
+    }
+}
@@ -0,0 +1,226 @@
+package ru.job4j.tracker.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Класс реализация ввода данных из сценария команд: файла или
+ * стандартного ввода, по ответу в строке. Вопросы не выводятся.
+ * Поток читается большими блоками в собственный буфер байтов,
+ * строка собирается в повторно используемый массив, число
+ * разбирается прямо из него, поэтому выбор действия и числовые
+ * ответы не создают объектов. Строки декодируются как UTF-8,
+ * окончание строки \n или \r\n.
+ * @see ru.job4j.tracker.io.Input
+ * @see ru.job4j.tracker.StartUI#batch(ScriptInput, ru.job4j.tracker.store.Store, java.util.List)
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class ScriptInput implements Input, AutoCloseable {
+
+    /**
+     * Размер буфера чтения потока
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Поток сценария
+     */
+    private final InputStream in;
+
+    /**
+     * Буфер чтения потока
+     */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Позиция следующего байта в буфере
+     */
+    private int position;
+
+    /**
+     * Количество прочитанных в буфер байтов, -1 в конце потока
+     */
+    private int limit;
+
+    /**
+     * Байты текущей строки
+     */
+    private byte[] line = new byte[256];
+
+    /**
+     * Длина текущей строки
+     */
+    private int length;
+
+    /**
+     * Количество прочитанных строк
+     */
+    private int lines;
+
+    /**
+     * Конструктор.
+     *
+     * @param in поток сценария
+     */
+    public ScriptInput(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Проверяет, остались ли в сценарии строки.
+     *
+     * @return true, если следующая строка есть
+     */
+    public boolean hasNext() {
+        return fill();
+    }
+
+    /**
+     * Возвращает количество прочитанных строк,
+     * то есть номер последней прочитанной строки.
+     *
+     * @return количество строк
+     */
+    public int getLine() {
+        return lines;
+    }
+
+    /**
+     * Читает следующую строку сценария, вопрос не выводится.
+     *
+     * @param question вопрос
+     * @return ответ
+     * @throws NoSuchElementException если сценарий закончился
+     */
+    @Override
+    public String askStr(String question) {
+        readLine();
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Читает следующую строку сценария как число
+     * без создания строки, вопрос не выводится.
+     *
+     * @param question вопрос с выбором действия
+     * @return числовой ответ
+     * @throws NumberFormatException если строка не является числом int
+     * @throws NoSuchElementException если сценарий закончился
+     */
+    @Override
+    public int askInt(String question) {
+        readLine();
+        int index = 0;
+        boolean negative = length > 0 && line[0] == '-';
+        if (negative || length > 0 && line[0] == '+') {
+            index++;
+        }
+        if (index == length) {
+            throw invalidNumber();
+        }
+        long value = 0;
+        for (; index < length; index++) {
+            int digit = line[index] - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidNumber();
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw invalidNumber();
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw invalidNumber();
+        }
+        return (int) value;
+    }
+
+    /**
+     * Создает исключение для текущей строки, не являющейся числом.
+     *
+     * @return исключение
+     */
+    private NumberFormatException invalidNumber() {
+        return new NumberFormatException("For input string: \""
+                + new String(line, 0, length, StandardCharsets.UTF_8) + "\"");
+    }
+
+    /**
+     * Читает следующую строку в массив строки без символов окончания.
+     *
+     * @throws NoSuchElementException если сценарий закончился
+     */
+    private void readLine() {
+        if (!fill()) {
+            throw new NoSuchElementException("No line found");
+        }
+        length = 0;
+        while (fill()) {
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(start, position - start);
+            if (position < limit) {
+                position++;
+                break;
+            }
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        lines++;
+    }
+
+    /**
+     * Добавляет байты буфера чтения к текущей строке.
+     *
+     * @param start позиция первого байта
+     * @param count количество байтов
+     */
+    private void append(int start, int count) {
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+        }
+        System.arraycopy(buffer, start, line, length, count);
+        length += count;
+    }
+
+    /**
+     * Читает поток в буфер, если непрочитанных байтов в буфере нет.
+     *
+     * @return true, если в буфере есть непрочитанные байты
+     */
+    private boolean fill() {
+        if (position < limit) {
+            return true;
+        }
+        if (limit < 0) {
+            return false;
+        }
+        try {
+            limit = in.read(buffer);
+            while (limit == 0) {
+                limit = in.read(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        position = 0;
+        return limit > 0;
+    }
+
+    /**
+     * Закрывает поток сценария.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
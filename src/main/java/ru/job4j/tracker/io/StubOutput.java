@@ -1,5 +1,7 @@
 package ru.job4j.tracker.io;
 
+import ru.job4j.tracker.model.Item;
+
 /**
  * Класс реализация заглушки вывода данных
  * @see ru.job4j.tracker.io.Output
@@ -13,6 +15,11 @@ public class StubOutput implements Output {
      */
     private final StringBuilder buffer = new StringBuilder();
 
+    /**
+     * Форматирование заявок
+     */
+    private final ItemFormat format = new ItemFormat();
+
     /**
      * Получает и добавляет объект в буффер.
      *
@@ -28,6 +35,16 @@ public class StubOutput implements Output {
         buffer.append(System.lineSeparator());
     }
 
+    /**
+     * Форматирует заявку в буффер, как {@link ConsoleOutput}.
+     *
+     * @param item заявка
+     */
+    @Override
+    public void printItem(Item item) {
+        format.format(item, buffer).append(System.lineSeparator());
+    }
+
     /**
      * Возвращает строковое представление буффера.
      *
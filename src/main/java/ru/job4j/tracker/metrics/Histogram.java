@@ -0,0 +1,196 @@
+package ru.job4j.tracker.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасная гистограмма неотрицательных значений с логарифмическими
+ * корзинами, как в HdrHistogram. Значения до {@link #SUB_BUCKETS} хранятся
+ * точно, каждый следующий диапазон [2^k, 2^(k+1)) делится на
+ * {@link #SUB_BUCKETS} равных корзин, поэтому относительная погрешность
+ * процентилей не превышает 1/{@link #SUB_BUCKETS} при любом порядке
+ * значений от наносекунд до часов. Запись значения - вычисление номера
+ * корзины и увеличение ее счетчика {@link LongAdder}, который при
+ * одновременной записи из нескольких потоков разносит увеличения по
+ * разным ячейкам. Счетчик корзины создается при первой записи в нее,
+ * поэтому память занимают только используемые корзины.
+ * Используется для задержек операций в наносекундах
+ * и размеров результатов.
+ * @see ru.job4j.tracker.metrics.OperationMetrics
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class Histogram {
+
+    /**
+     * Количество бит номера корзины внутри степени двойки
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Количество корзин внутри степени двойки
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Количество корзин для всех значений long
+     */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    /**
+     * Счетчики значений по корзинам, null для корзин без значений
+     */
+    private final AtomicReferenceArray<LongAdder> counts = new AtomicReferenceArray<>(BUCKETS);
+
+    /**
+     * Сумма значений
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Максимальное значение
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Возвращает номер корзины значения.
+     *
+     * @param value неотрицательное значение
+     * @return номер корзины
+     */
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Возвращает наибольшее значение, попадающее в корзину.
+     *
+     * @param index номер корзины
+     * @return наибольшее значение корзины
+     */
+    private static long highest(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Возвращает количество значений в корзине.
+     *
+     * @param index номер корзины
+     * @return количество значений
+     */
+    private long count(int index) {
+        LongAdder count = counts.get(index);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Записывает значение. Отрицательные значения записываются как 0.
+     *
+     * @param value значение
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        int i = index(v);
+        LongAdder count = counts.get(i);
+        if (count == null) {
+            counts.compareAndSet(i, null, new LongAdder());
+            count = counts.get(i);
+        }
+        count.increment();
+        sum.add(v);
+        long current = max.get();
+        while (v > current && !max.compareAndSet(current, v)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Возвращает количество записанных значений.
+     * Количество считается по корзинам, поэтому запись значения
+     * не увеличивает отдельный счетчик.
+     *
+     * @return количество значений
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += count(i);
+        }
+        return total;
+    }
+
+    /**
+     * Возвращает максимальное записанное значение.
+     *
+     * @return максимальное значение или 0
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Возвращает среднее записанных значений.
+     *
+     * @return среднее значение или 0
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Возвращает процентиль записанных значений: наименьшее значение,
+     * не меньше которого percentile процентов значений, с точностью
+     * до корзины, но не больше максимального значения.
+     *
+     * @param percentile процентиль от 0 до 100
+     * @return значение процентиля или 0, если значений нет
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = count(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highest(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Удаляет все записанные значения. Значения, записанные
+     * одновременно со сбросом, могут быть учтены частично.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder count = counts.get(i);
+            if (count != null) {
+                count.reset();
+            }
+        }
+        sum.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.job4j.tracker.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Показатели одной операции хранилища: количество вызовов и ошибок,
+ * гистограмма задержек в наносекундах и гистограмма размеров
+ * результатов для операций, возвращающих списки заявок.
+ * Регистрируется в JMX как {@link OperationMetricsMBean}.
+ * @see ru.job4j.tracker.store.InstrumentedStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+
+    /**
+     * Количество наносекунд в микросекунде
+     */
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    /**
+     * Количество ошибок
+     */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Задержки вызовов в наносекундах
+     */
+    private final Histogram latency = new Histogram();
+
+    /**
+     * Количество заявок в результатах
+     */
+    private final Histogram resultSize = new Histogram();
+
+    /**
+     * Записывает успешный вызов.
+     *
+     * @param nanos задержка в наносекундах
+     */
+    public void record(long nanos) {
+        latency.record(nanos);
+    }
+
+    /**
+     * Записывает успешный вызов, вернувший список заявок.
+     *
+     * @param nanos задержка в наносекундах
+     * @param size количество заявок в результате
+     */
+    public void record(long nanos, int size) {
+        latency.record(nanos);
+        resultSize.record(size);
+    }
+
+    /**
+     * Записывает вызов, завершившийся исключением.
+     *
+     * @param nanos задержка в наносекундах
+     */
+    public void recordError(long nanos) {
+        latency.record(nanos);
+        errors.increment();
+    }
+
+    /**
+     * Возвращает гистограмму задержек в наносекундах.
+     *
+     * @return гистограмма задержек
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Возвращает гистограмму размеров результатов.
+     *
+     * @return гистограмма размеров
+     */
+    public Histogram getResultSize() {
+        return resultSize;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getLatencyP50Micros() {
+        return latency.getPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatencyP99Micros() {
+        return latency.getPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatencyP999Micros() {
+        return latency.getPercentile(99.9) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatencyMaxMicros() {
+        return latency.getMax() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getResultSizeMean() {
+        return resultSize.getMean();
+    }
+
+    @Override
+    public long getResultSizeP50() {
+        return resultSize.getPercentile(50);
+    }
+
+    @Override
+    public long getResultSizeP99() {
+        return resultSize.getPercentile(99);
+    }
+
+    @Override
+    public long getResultSizeMax() {
+        return resultSize.getMax();
+    }
+
+    @Override
+    public void reset() {
+        errors.reset();
+        latency.reset();
+        resultSize.reset();
+    }
+}
@@ -0,0 +1,86 @@
+package ru.job4j.tracker.metrics;
+
+/**
+ * Интерфейс управления показателями одной операции хранилища через JMX.
+ * Задержки возвращаются в микросекундах.
+ * @see ru.job4j.tracker.metrics.OperationMetrics
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public interface OperationMetricsMBean {
+
+    /**
+     * Возвращает количество вызовов операции.
+     *
+     * @return количество вызовов
+     */
+    long getCount();
+
+    /**
+     * Возвращает количество вызовов, завершившихся исключением.
+     *
+     * @return количество ошибок
+     */
+    long getErrors();
+
+    /**
+     * Возвращает медиану задержки.
+     *
+     * @return задержка в микросекундах
+     */
+    double getLatencyP50Micros();
+
+    /**
+     * Возвращает 99-й процентиль задержки.
+     *
+     * @return задержка в микросекундах
+     */
+    double getLatencyP99Micros();
+
+    /**
+     * Возвращает 99.9-й процентиль задержки.
+     *
+     * @return задержка в микросекундах
+     */
+    double getLatencyP999Micros();
+
+    /**
+     * Возвращает максимальную задержку.
+     *
+     * @return задержка в микросекундах
+     */
+    double getLatencyMaxMicros();
+
+    /**
+     * Возвращает среднее количество заявок в результате.
+     *
+     * @return среднее количество заявок, 0 для операций без списка
+     */
+    double getResultSizeMean();
+
+    /**
+     * Возвращает медиану количества заявок в результате.
+     *
+     * @return количество заявок
+     */
+    long getResultSizeP50();
+
+    /**
+     * Возвращает 99-й процентиль количества заявок в результате.
+     *
+     * @return количество заявок
+     */
+    long getResultSizeP99();
+
+    /**
+     * Возвращает максимальное количество заявок в результате.
+     *
+     * @return количество заявок
+     */
+    long getResultSizeMax();
+
+    /**
+     * Сбрасывает все показатели.
+     */
+    void reset();
+}
@@ -2,27 +2,56 @@ package ru.job4j.tracker.model;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.sql.Timestamp;
 
 /**
- * Модель данных заявка
+ * Модель данных заявка.
+ * Заявки кешируются Hibernate в регионе кеша второго уровня items,
+ * настройки региона находятся в application.conf.
+ * Hibernate выдаёт идентификаторы из собственной последовательности
+ * items_hibernate_seq с шагом {@link #ID_ALLOCATION_SIZE}: одно обращение
+ * к последовательности резервирует диапазон идентификаторов, что позволяет
+ * добавлять заявки пакетами. Последовательность items_id_seq столбца id
+ * остаётся с шагом 1 и используется JDBCStore, поэтому одну базу данных
+ * не следует заполнять одновременно через оба хранилища.
  *
  * @author Alexander Emelyanov
  * @version 1.0
  */
 @Entity
 @Table(name = "items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
 @Data
 @NoArgsConstructor
 public class Item {
 
+    /**
+     * Количество идентификаторов, резервируемых одним обращением
+     * к последовательности. Должно совпадать с шагом последовательности
+     * items_hibernate_seq в базе данных.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * Идентификатор заявки
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_hibernate_seq")
+    @GenericGenerator(
+            name = "items_hibernate_seq",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "items_hibernate_seq"),
+                    @Parameter(name = "increment_size", value = "" + ID_ALLOCATION_SIZE),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     private int id;
 
     /**
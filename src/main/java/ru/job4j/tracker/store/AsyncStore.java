@@ -0,0 +1,230 @@
+package ru.job4j.tracker.store;
+
+import ru.job4j.tracker.model.Item;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Асинхронный фасад хранилища заявок. Каждая операция {@link Store}
+ * выполняется в отдельном потоке и возвращает {@link CompletableFuture},
+ * поэтому вызывающий поток может совместить несколько обращений
+ * к базе данных. Операции выполняются пулом из maxConcurrency потоков,
+ * остальные ждут в очереди, поэтому к хранилищу одновременно обращаются
+ * не более maxConcurrency потоков и пул соединений хранилища
+ * не переполняется. Для хранилищ в базе данных maxConcurrency
+ * следует задавать равным размеру пула соединений,
+ * см. {@link ConnectionPool#getMaxSize()}.
+ * Обернутое хранилище должно допускать параллельные вызовы,
+ * как {@link JDBCStore}, {@link HibernateStore}
+ * и {@link ConcurrentMemoryStore}; для {@link MemoryStore}
+ * maxConcurrency должен быть равен 1.
+ * @see ru.job4j.tracker.store.Store
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class AsyncStore implements AutoCloseable {
+
+    /**
+     * Время ожидания завершения начатых операций при закрытии, в секундах
+     */
+    private static final int CLOSE_TIMEOUT_SECONDS = 30;
+
+    /**
+     * Номер создаваемого фасада, используется в именах потоков
+     */
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    /**
+     * Обернутое хранилище
+     */
+    private final Store store;
+
+    /**
+     * Потоки, выполняющие операции хранилища
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Конструктор.
+     *
+     * @param store хранилище
+     * @param maxConcurrency максимальное количество одновременно
+     *                       выполняемых операций
+     */
+    public AsyncStore(Store store, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.store = store;
+        String prefix = "async-store-" + INSTANCES.incrementAndGet() + "-";
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrency, r -> {
+            Thread thread = new Thread(r, prefix + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Выполняет операцию хранилища в пуле потоков.
+     *
+     * @param operation операция
+     * @param <T> тип результата
+     * @return результат операции
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, executor);
+    }
+
+    /**
+     * Асинхронно добавляет заявку, см. {@link Store#add(Item)}.
+     *
+     * @param item заявка
+     * @return заявка с идентификатором
+     */
+    public CompletableFuture<Item> add(Item item) {
+        return submit(() -> store.add(item));
+    }
+
+    /**
+     * Асинхронно добавляет заявки, см. {@link Store#addAll(Collection)}.
+     *
+     * @param items заявки
+     * @return список заявок
+     */
+    public CompletableFuture<List<Item>> addAll(Collection<Item> items) {
+        return submit(() -> store.addAll(items));
+    }
+
+    /**
+     * Асинхронно заменяет заявку, см. {@link Store#replace(int, Item)}.
+     *
+     * @param id идентификатор заявки
+     * @param item заявка
+     * @return true, если замена выполнена, иначе false
+     */
+    public CompletableFuture<Boolean> replace(int id, Item item) {
+        return submit(() -> store.replace(id, item));
+    }
+
+    /**
+     * Асинхронно удаляет заявку, см. {@link Store#delete(int)}.
+     *
+     * @param id идентификатор заявки
+     * @return true, если удаление выполнено, иначе false
+     */
+    public CompletableFuture<Boolean> delete(int id) {
+        return submit(() -> store.delete(id));
+    }
+
+    /**
+     * Асинхронно возвращает все заявки, см. {@link Store#findAll()}.
+     *
+     * @return список заявок
+     */
+    public CompletableFuture<List<Item>> findAll() {
+        return submit(store::findAll);
+    }
+
+    /**
+     * Асинхронно обходит все заявки, см. {@link Store#forEach(Consumer)}.
+     * Действие выполняется в потоке пула.
+     *
+     * @param action действие над заявкой
+     * @return признак завершения обхода
+     */
+    public CompletableFuture<Void> forEach(Consumer<? super Item> action) {
+        return CompletableFuture.runAsync(() -> store.forEach(action), executor);
+    }
+
+    /**
+     * Асинхронно возвращает страницу заявок, см. {@link Store#findPage(int, int)}.
+     *
+     * @param afterId идентификатор, после которого начинается страница
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    public CompletableFuture<List<Item>> findPage(int afterId, int limit) {
+        return submit(() -> store.findPage(afterId, limit));
+    }
+
+    /**
+     * Асинхронно ищет заявки по наименованию, см. {@link Store#findByName(String)}.
+     *
+     * @param key наименование заявки
+     * @return список заявок
+     */
+    public CompletableFuture<List<Item>> findByName(String key) {
+        return submit(() -> store.findByName(key));
+    }
+
+    /**
+     * Асинхронно ищет заявки по началу наименования,
+     * см. {@link Store#findByNamePrefix(String)}.
+     *
+     * @param prefix начало наименования заявки
+     * @return список заявок
+     */
+    public CompletableFuture<List<Item>> findByNamePrefix(String prefix) {
+        return submit(() -> store.findByNamePrefix(prefix));
+    }
+
+    /**
+     * Асинхронно ищет заявки по наименованию без учета регистра,
+     * см. {@link Store#findByNameIgnoreCase(String)}.
+     *
+     * @param key наименование заявки
+     * @return список заявок
+     */
+    public CompletableFuture<List<Item>> findByNameIgnoreCase(String key) {
+        return submit(() -> store.findByNameIgnoreCase(key));
+    }
+
+    /**
+     * Асинхронно выполняет полнотекстовый поиск,
+     * см. {@link Store#search(String, int)}.
+     *
+     * @param query запрос
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    public CompletableFuture<List<Item>> search(String query, int limit) {
+        return submit(() -> store.search(query, limit));
+    }
+
+    /**
+     * Асинхронно ищет заявку по идентификатору, см. {@link Store#findById(int)}.
+     *
+     * @param id идентификатор заявки
+     * @return заявка или null
+     */
+    public CompletableFuture<Item> findById(int id) {
+        return submit(() -> store.findById(id));
+    }
+
+    /**
+     * Прекращает прием операций, ожидает завершения начатых
+     * и закрывает обернутое хранилище.
+     */
+    @Override
+    public void close() throws Exception {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        store.close();
+    }
+}
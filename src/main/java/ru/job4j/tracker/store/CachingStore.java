@@ -0,0 +1,259 @@
+package ru.job4j.tracker.store;
+
+import ru.job4j.tracker.model.Item;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище заявок с кешем заявок по идентификатору поверх другого
+ * хранилища. Поиск по идентификатору сначала выполняется в кеше,
+ * при промахе заявка читается из хранилища и помещается в кеш.
+ * Кеш ограничен capacity заявками, при переполнении вытесняется
+ * заявка, к которой дольше всего не обращались (LRU).
+ * Замена и удаление выполняются в хранилище, после чего заявка
+ * удаляется из кеша. Остальные операции выполняются хранилищем
+ * без кеша. Отсутствующие заявки не кешируются.
+ * Кеш защищен блокировкой, поэтому потокобезопасен, если
+ * потокобезопасно обернутое хранилище. Чтение из хранилища выполняется
+ * без блокировки; чтобы заявка, прочитанная до параллельной замены,
+ * не попала в кеш после нее, каждая запись увеличивает счетчик записей,
+ * и прочитанная заявка помещается в кеш, только если счетчик
+ * не изменился за время чтения.
+ * Кешированная заявка возвращается всем вызывающим, изменять ее
+ * следует только через {@link #replace(int, Item)}.
+ * @see ru.job4j.tracker.store.Store
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class CachingStore implements Store {
+
+    /**
+     * Обернутое хранилище
+     */
+    private final Store store;
+
+    /**
+     * Максимальное количество заявок в кеше
+     */
+    private final int capacity;
+
+    /**
+     * Заявки по идентификатору в порядке обращения,
+     * доступ только под блокировкой кеша
+     */
+    private final LinkedHashMap<Integer, Item> cache;
+
+    /**
+     * Количество записей в хранилище через кеш
+     */
+    private long writes;
+
+    /**
+     * Количество найденных в кеше заявок
+     */
+    private long hits;
+
+    /**
+     * Количество заявок, прочитанных из хранилища
+     */
+    private long misses;
+
+    /**
+     * Количество вытесненных из кеша заявок
+     */
+    private long evictions;
+
+    /**
+     * Конструктор.
+     *
+     * @param store хранилище
+     * @param capacity максимальное количество заявок в кеше
+     */
+    public CachingStore(Store store, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.store = store;
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Item> eldest) {
+                boolean evict = size() > CachingStore.this.capacity;
+                if (evict) {
+                    evictions++;
+                }
+                return evict;
+            }
+        };
+    }
+
+    @Override
+    public void init() {
+        store.init();
+    }
+
+    @Override
+    public Item add(Item item) {
+        return store.add(item);
+    }
+
+    @Override
+    public List<Item> addAll(Collection<Item> items) {
+        return store.addAll(items);
+    }
+
+    /**
+     * Выполняет замену заявки в хранилище и удаляет ее из кеша.
+     *
+     * @param id идентификатор заявки
+     * @param item заявка
+     * @return true, если замена выполнена, иначе false
+     */
+    @Override
+    public boolean replace(int id, Item item) {
+        boolean rsl = store.replace(id, item);
+        invalidate(id);
+        return rsl;
+    }
+
+    /**
+     * Выполняет удаление заявки из хранилища и из кеша.
+     *
+     * @param id идентификатор заявки
+     * @return true, если удаление выполнено, иначе false
+     */
+    @Override
+    public boolean delete(int id) {
+        boolean rsl = store.delete(id);
+        invalidate(id);
+        return rsl;
+    }
+
+    /**
+     * Удаляет заявку из кеша и отмечает запись в хранилище.
+     *
+     * @param id идентификатор заявки
+     */
+    private synchronized void invalidate(int id) {
+        writes++;
+        cache.remove(id);
+    }
+
+    @Override
+    public List<Item> findAll() {
+        return store.findAll();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        store.forEach(action);
+    }
+
+    @Override
+    public List<Item> findPage(int afterId, int limit) {
+        return store.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Item> findByName(String key) {
+        return store.findByName(key);
+    }
+
+    @Override
+    public List<Item> findByNamePrefix(String prefix) {
+        return store.findByNamePrefix(prefix);
+    }
+
+    @Override
+    public List<Item> findByNameIgnoreCase(String key) {
+        return store.findByNameIgnoreCase(key);
+    }
+
+    @Override
+    public List<Item> search(String query, int limit) {
+        return store.search(query, limit);
+    }
+
+    /**
+     * Выполняет поиск заявки по идентификатору в кеше, при промахе -
+     * в хранилище с помещением найденной заявки в кеш.
+     * Если заявка не найдена, будет возвращен null.
+     *
+     * @param id идентификатор заявки
+     * @return заявка
+     */
+    @Override
+    public Item findById(int id) {
+        long version;
+        synchronized (this) {
+            Item cached = cache.get(id);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            version = writes;
+        }
+        Item item = store.findById(id);
+        if (item != null) {
+            synchronized (this) {
+                if (writes == version) {
+                    cache.put(id, item);
+                }
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Возвращает количество заявок, найденных в кеше.
+     *
+     * @return количество попаданий
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Возвращает количество заявок, прочитанных из хранилища
+     * при отсутствии в кеше.
+     *
+     * @return количество промахов
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Возвращает количество заявок, вытесненных из кеша при переполнении.
+     *
+     * @return количество вытеснений
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Возвращает количество заявок в кеше.
+     *
+     * @return количество заявок
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Очищает кеш и закрывает обернутое хранилище.
+     */
+    @Override
+    public void close() throws Exception {
+        synchronized (this) {
+            cache.clear();
+        }
+        store.close();
+    }
+}
@@ -0,0 +1,321 @@
+package ru.job4j.tracker.store;
+
+import ru.job4j.tracker.model.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Класс реализации хранилища заявок
+ * хранение осуществляется в памяти,
+ * хранилище может использоваться из нескольких потоков.
+ * Чтение выполняется без блокировок, запись блокирует
+ * только изменяемую заявку: изменение заявки и индекса наименований
+ * выполняется под блокировкой полосы идентификатора, поэтому
+ * параллельные изменения одной заявки не рассогласуют индекс.
+ * @see ru.job4j.tracker.store.Store
+ * @see ru.job4j.tracker.store.MemoryStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class ConcurrentMemoryStore implements Store {
+
+    /**
+     * Количество полос блокировок изменений, степень двойки
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * Заявки по идентификатору, идентификаторы
+     * выдаются по возрастанию, поэтому порядок ключей
+     * совпадает с порядком добавления
+     */
+    private final ConcurrentNavigableMap<Integer, Item> items = new ConcurrentSkipListMap<>();
+
+    /**
+     * Идентификаторы заявок по наименованию
+     */
+    private final ConcurrentMap<String, Set<Integer>> names = new ConcurrentHashMap<>();
+
+    /**
+     * Указатель на следующий идентификатор
+     */
+    private final AtomicInteger ids = new AtomicInteger(1);
+
+    /**
+     * Блокировки изменений заявок по полосам идентификаторов
+     */
+    private final Object[] locks = new Object[STRIPES];
+
+    /**
+     * Конструктор.
+     */
+    public ConcurrentMemoryStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Выполняет возврат общего экземпляра
+     * объекта класса ConcurrentMemoryStore.
+     *
+     * @return объект ConcurrentMemoryStore.
+     */
+    public static ConcurrentMemoryStore getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Выполняет добавление заявки в хранилище
+     * и ее возврат.
+     *
+     * @param item заявка
+     * @return заявка
+     */
+    @Override
+    public Item add(Item item) {
+        item.setId(ids.getAndIncrement());
+        put(item);
+        return item;
+    }
+
+    /**
+     * Выполняет добавление нескольких заявок в хранилище
+     * и их возврат в порядке добавления.
+     * Идентификаторы выделяются одним блоком, поэтому заявки
+     * пакета получают идентификаторы подряд.
+     *
+     * @param batch заявки
+     * @return список заявок
+     */
+    @Override
+    public List<Item> addAll(Collection<Item> batch) {
+        List<Item> rsl = new ArrayList<>(batch);
+        int id = ids.getAndAdd(rsl.size());
+        for (Item item : rsl) {
+            item.setId(id++);
+            put(item);
+        }
+        return rsl;
+    }
+
+    /**
+     * Выполняет замену заявки в хранилище.
+     * Возвращает true, если заявка с искомым идентификатором
+     * есть в хранилище. Идентификатор заявки меняется только
+     * при успешной замене, до ее публикации в хранилище.
+     *
+     * @param item заявка
+     * @return true, если замена выполнена, иначе false
+     */
+    @Override
+    public boolean replace(int id, Item item) {
+        synchronized (lock(id)) {
+            Item old = items.get(id);
+            boolean rsl = old != null;
+            if (rsl) {
+                item.setId(id);
+                items.put(id, item);
+                if (!Objects.equals(old.getName(), item.getName())) {
+                    index(item.getName(), id);
+                    unindex(old.getName(), id);
+                }
+            }
+            return rsl;
+        }
+    }
+
+    /**
+     * Выполняет удаление заявки из хранилища.
+     *
+     * @param id идентификатор заявки
+     * @return true, если удаление выполнено, иначе false
+     */
+    @Override
+    public boolean delete(int id) {
+        synchronized (lock(id)) {
+            Item old = items.remove(id);
+            boolean rsl = old != null;
+            if (rsl) {
+                unindex(old.getName(), id);
+            }
+            return rsl;
+        }
+    }
+
+    /**
+     * Выполняет возврат из хранилища списка всех заявок
+     * в порядке их добавления.
+     * Если заявки отсутствуют, вернется пустой список.
+     *
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findAll() {
+        return new ArrayList<>(items.values());
+    }
+
+    /**
+     * Выполняет обход всех заявок в порядке их добавления
+     * без копирования. Обход не блокирует запись, заявки,
+     * измененные во время обхода, могут быть как видны, так и не видны.
+     *
+     * @param action действие над заявкой
+     */
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        items.values().forEach(action);
+    }
+
+    /**
+     * Выполняет возврат страницы заявок с идентификатором больше afterId
+     * в порядке возрастания идентификатора. Страница читается
+     * из упорядоченного отображения начиная с afterId.
+     *
+     * @param afterId идентификатор, после которого начинается страница
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findPage(int afterId, int limit) {
+        List<Item> rsl = new ArrayList<>();
+        Iterator<Item> it = items.tailMap(afterId, false).values().iterator();
+        while (rsl.size() < limit && it.hasNext()) {
+            rsl.add(it.next());
+        }
+        return rsl;
+    }
+
+    /**
+     * Выполняет поиск по наименованию и возврат из хранилища списка
+     * найденных заявок в порядке их добавления.
+     * Если заявки не найдены, вернется пустой список.
+     * Заявки без наименования в индекс не попадают.
+     *
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findByName(String key) {
+        List<Item> rslItems = new ArrayList<>();
+        Set<Integer> found = key != null ? names.get(key) : null;
+        if (found == null) {
+            return rslItems;
+        }
+        for (Integer id : found) {
+            Item item = items.get(id);
+            if (item != null && key.equals(item.getName())) {
+                rslItems.add(item);
+            }
+        }
+        rslItems.sort(Comparator.comparingInt(Item::getId));
+        return rslItems;
+    }
+
+    /**
+     * Выполняет поиск по идентификатору и возврат из хранилища заявки.
+     * Если заявка не найдена, будет возвращен null.
+     *
+     * @param id идентификатор заявки
+     * @return заявка
+     */
+    @Override
+    public Item findById(int id) {
+        return items.get(id);
+    }
+
+    /**
+     * Возвращает блокировку изменений заявки.
+     *
+     * @param id идентификатор заявки
+     * @return блокировка полосы идентификатора
+     */
+    private Object lock(int id) {
+        return locks[id & (STRIPES - 1)];
+    }
+
+    /**
+     * Добавляет заявку с выделенным идентификатором
+     * в хранилище и в индекс наименований.
+     *
+     * @param item заявка
+     */
+    private void put(Item item) {
+        synchronized (lock(item.getId())) {
+            items.put(item.getId(), item);
+            index(item.getName(), item.getId());
+        }
+    }
+
+    /**
+     * Добавляет идентификатор заявки в индекс наименований.
+     *
+     * @param name наименование заявки
+     * @param id идентификатор заявки
+     */
+    private void index(String name, int id) {
+        if (name != null) {
+            names.compute(name, (key, found) -> {
+                Set<Integer> rsl = found != null ? found : ConcurrentHashMap.newKeySet();
+                rsl.add(id);
+                return rsl;
+            });
+        }
+    }
+
+    /**
+     * Удаляет идентификатор заявки из индекса наименований.
+     * Вызывается под блокировкой заявки.
+     *
+     * @param name наименование заявки
+     * @param id идентификатор заявки
+     */
+    private void unindex(String name, int id) {
+        if (name != null) {
+            names.computeIfPresent(name, (key, found) -> {
+                found.remove(id);
+                return found.isEmpty() ? null : found;
+            });
+        }
+    }
+
+    /**
+     * Закрывает используемые ресурсы после окончания работы хранилища.
+     */
+    @Override
+    public void close() {
+
+    }
+
+    /**
+     * Выполняет очистку хранилища и
+     * сброс указателя на 1.
+     */
+    public void clear() {
+        items.clear();
+        names.clear();
+        ids.set(1);
+    }
+
+    /**
+     * Ленивая потокобезопасная инициализация общего экземпляра
+     */
+    private static final class Holder {
+
+        /**
+         * Экземпляр хранилища
+         */
+        private static final ConcurrentMemoryStore INSTANCE = new ConcurrentMemoryStore();
+    }
+}
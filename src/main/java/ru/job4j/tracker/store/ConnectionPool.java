@@ -0,0 +1,754 @@
+package ru.job4j.tracker.store;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ограниченный пул соединений с базой данных.
+ * Количество выданных соединений не превышает максимального размера пула,
+ * при исчерпании пула запрос соединения ждет освобождения не дольше
+ * заданного времени. Перед выдачей соединение проверяется запросом
+ * к базе данных, если оно простаивало дольше {@link #VALIDATION_BYPASS_MILLIS},
+ * неиспользуемые соединения сверх минимального количества
+ * закрываются по истечении времени простоя, а если свободных соединений
+ * меньше минимального количества, например после закрытия
+ * неработоспособных, при той же проверке открываются новые.
+ * Выдаваемое соединение при закрытии возвращается в пул, незавершенная
+ * транзакция отменяется, режим автофиксации восстанавливается.
+ * Выдаваемое соединение не раскрывает физическое соединение:
+ * unwrap к Connection возвращает само выдаваемое соединение.
+ * Подготовленные запросы могут кешироваться для каждого соединения,
+ * тогда их повторная подготовка не требует разбора запроса базой данных.
+ * Соединение, не возвращенное в пул дольше заданного времени, считается
+ * утечкой: в журнал записывается текущий стек потока, получившего
+ * соединение. Стек не запоминается при выдаче, чтобы проверка утечек
+ * не замедляла получение соединения.
+ * Настройки читаются из свойств:
+ * <ul>
+ *     <li>url, username, password, driver-class-name - параметры подключения</li>
+ *     <li>pool.max-size - максимальное количество соединений</li>
+ *     <li>pool.min-idle - количество соединений, не закрываемых при простое</li>
+ *     <li>pool.max-wait-ms - время ожидания свободного соединения</li>
+ *     <li>pool.idle-timeout-ms - время простоя, после которого соединение закрывается</li>
+ *     <li>pool.eviction-interval-ms - период проверки простаивающих соединений</li>
+ *     <li>pool.validation-timeout-seconds - время ожидания проверки соединения</li>
+ *     <li>pool.auto-commit - режим автофиксации выдаваемых соединений,
+ *     по умолчанию true</li>
+ *     <li>pool.statement-cache-size - количество подготовленных запросов,
+ *     кешируемых для каждого соединения, 0 отключает кеш</li>
+ *     <li>pool.leak-detection-threshold-ms - время удержания соединения,
+ *     после которого соединение считается утечкой, 0 отключает проверку</li>
+ * </ul>
+ * @see ru.job4j.tracker.store.JDBCStore
+ * @see ru.job4j.tracker.store.PooledConnectionProvider
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Журнал пула соединений
+     */
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * Время простоя, в течение которого соединение выдается
+     * без проверки запросом к базе данных, в миллисекундах
+     */
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    /**
+     * Адрес базы данных
+     */
+    private final String url;
+
+    /**
+     * Имя пользователя базы данных
+     */
+    private final String username;
+
+    /**
+     * Пароль пользователя базы данных
+     */
+    private final String password;
+
+    /**
+     * Максимальное количество соединений
+     */
+    private final int maxSize;
+
+    /**
+     * Количество соединений, не закрываемых при простое
+     */
+    private final int minIdle;
+
+    /**
+     * Время ожидания свободного соединения в миллисекундах
+     */
+    private final long maxWaitMillis;
+
+    /**
+     * Время простоя, после которого соединение закрывается, в наносекундах
+     */
+    private final long idleTimeoutNanos;
+
+    /**
+     * Время ожидания проверки соединения в секундах
+     */
+    private final int validationTimeoutSeconds;
+
+    /**
+     * Режим автофиксации выдаваемых соединений
+     */
+    private final boolean autoCommit;
+
+    /**
+     * Количество подготовленных запросов, кешируемых для каждого соединения
+     */
+    private final int statementCacheSize;
+
+    /**
+     * Время удержания соединения, после которого соединение
+     * считается утечкой, в наносекундах, 0 - проверка отключена
+     */
+    private final long leakThresholdNanos;
+
+    /**
+     * Разрешения на выдачу соединений
+     */
+    private final Semaphore permits;
+
+    /**
+     * Свободные соединения, последнее возвращенное выдается первым
+     */
+    private final BlockingDeque<Pooled> idle = new LinkedBlockingDeque<>();
+
+    /**
+     * Выданные соединения, не возвращенные в пул
+     */
+    private final Set<Lease> leased = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Планировщик закрытия простаивающих соединений
+     */
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Количество выданных соединений
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Количество выдач соединений
+     */
+    private final AtomicLong borrows = new AtomicLong();
+
+    /**
+     * Суммарное время ожидания соединений в наносекундах
+     */
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    /**
+     * Максимальное время ожидания соединения в наносекундах
+     */
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Количество соединений, не прошедших проверку
+     */
+    private final AtomicLong invalid = new AtomicLong();
+
+    /**
+     * Количество соединений, закрытых по простою
+     */
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * Количество подготовленных запросов, найденных в кеше
+     */
+    private final AtomicLong statementHits = new AtomicLong();
+
+    /**
+     * Количество подготовленных запросов, подготовленных заново
+     */
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    /**
+     * Количество соединений, удерживаемых дольше допустимого
+     */
+    private final AtomicLong leaks = new AtomicLong();
+
+    /**
+     * Признак закрытия пула
+     */
+    private volatile boolean closed;
+
+    /**
+     * Конструктор. Создает пул по свойствам и открывает
+     * минимальное количество соединений.
+     *
+     * @param config свойства подключения и пула
+     */
+    public ConnectionPool(Properties config) {
+        try {
+            String driver = config.getProperty("driver-class-name");
+            if (driver != null) {
+                Class.forName(driver);
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+        this.url = config.getProperty("url");
+        this.username = config.getProperty("username");
+        this.password = config.getProperty("password");
+        this.maxSize = Integer.parseInt(config.getProperty("pool.max-size", "10"));
+        this.minIdle = Math.min(maxSize,
+                Integer.parseInt(config.getProperty("pool.min-idle", "1")));
+        this.maxWaitMillis = Long.parseLong(config.getProperty("pool.max-wait-ms", "5000"));
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(config.getProperty("pool.idle-timeout-ms", "600000")));
+        this.validationTimeoutSeconds = Integer.parseInt(
+                config.getProperty("pool.validation-timeout-seconds", "2"));
+        this.statementCacheSize = Integer.parseInt(
+                config.getProperty("pool.statement-cache-size", "0"));
+        this.autoCommit = Boolean.parseBoolean(config.getProperty("pool.auto-commit", "true"));
+        long evictionMillis = Long.parseLong(
+                config.getProperty("pool.eviction-interval-ms", "30000"));
+        long leakMillis = Long.parseLong(
+                config.getProperty("pool.leak-detection-threshold-ms", "0"));
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakMillis);
+        this.permits = new Semaphore(maxSize, true);
+        try {
+            for (int i = 0; i < minIdle; i++) {
+                idle.offerLast(new Pooled(open()));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle,
+                evictionMillis, evictionMillis, TimeUnit.MILLISECONDS);
+        if (leakMillis > 0) {
+            long period = Math.max(1, leakMillis / 2);
+            evictor.scheduleWithFixedDelay(this::detectLeaks,
+                    period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Выдает соединение из пула. Если свободных соединений нет и пул
+     * заполнен, ожидает освобождения соединения. Закрытие выданного
+     * соединения возвращает его в пул.
+     *
+     * @return соединение
+     * @throws SQLException если соединение не освободилось за время ожидания
+     * или не удалось открыть новое соединение
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e);
+        }
+        long waited = System.nanoTime() - start;
+        waitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            throw new SQLException("Timeout waiting for connection after "
+                    + maxWaitMillis + " ms, pool size " + maxSize);
+        }
+        borrows.incrementAndGet();
+        try {
+            Pooled pooled = takeValid();
+            active.incrementAndGet();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает проверенное свободное соединение
+     * или открывает новое.
+     *
+     * @return соединение пула
+     */
+    private Pooled takeValid() throws SQLException {
+        Pooled pooled = idle.pollFirst();
+        while (pooled != null) {
+            if (isValid(pooled)) {
+                return pooled;
+            }
+            invalid.incrementAndGet();
+            closeQuietly(pooled.raw);
+            pooled = idle.pollFirst();
+        }
+        return new Pooled(open());
+    }
+
+    /**
+     * Проверяет работоспособность соединения. Соединение, недавно
+     * возвращенное в пул, проверяется только на закрытие.
+     *
+     * @param pooled соединение пула
+     * @return true, если соединение работоспособно
+     */
+    private boolean isValid(Pooled pooled) {
+        try {
+            if (pooled.raw.isClosed()) {
+                return false;
+            }
+            long idleNanos = System.nanoTime() - pooled.lastUsed;
+            return idleNanos < TimeUnit.MILLISECONDS.toNanos(VALIDATION_BYPASS_MILLIS)
+                    || pooled.raw.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Открывает новое соединение с базой данных.
+     *
+     * @return соединение
+     */
+    private Connection open() throws SQLException {
+        Connection raw = DriverManager.getConnection(url, username, password);
+        if (!autoCommit) {
+            raw.setAutoCommit(false);
+        }
+        return raw;
+    }
+
+    /**
+     * Принимает соединение обратно в пул, отменяя
+     * незавершенную транзакцию и восстанавливая
+     * режим автофиксации.
+     *
+     * @param pooled соединение пула
+     */
+    private void release(Pooled pooled) {
+        active.decrementAndGet();
+        try {
+            if (closed || pooled.raw.isClosed()) {
+                closeQuietly(pooled.raw);
+            } else {
+                boolean current = pooled.raw.getAutoCommit();
+                if (!current) {
+                    pooled.raw.rollback();
+                }
+                if (current != autoCommit) {
+                    pooled.raw.setAutoCommit(autoCommit);
+                }
+                pooled.lastUsed = System.nanoTime();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            closeQuietly(pooled.raw);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Закрывает соединения, простаивающие дольше допустимого,
+     * оставляя минимальное количество свободных соединений.
+     * Проверка начинается с самых давно использованных соединений.
+     * Затем открывает соединения, пока свободных меньше минимального
+     * количества и пул не заполнен.
+     */
+    private void evictIdle() {
+        long now = System.nanoTime();
+        Iterator<Pooled> it = idle.descendingIterator();
+        while (it.hasNext() && idle.size() > minIdle) {
+            Pooled pooled = it.next();
+            if (now - pooled.lastUsed > idleTimeoutNanos && idle.remove(pooled)) {
+                evicted.incrementAndGet();
+                closeQuietly(pooled.raw);
+            }
+        }
+        while (!closed && idle.size() < minIdle && idle.size() + active.get() < maxSize) {
+            Pooled pooled;
+            try {
+                pooled = new Pooled(open());
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, "Failed to open idle connection", e);
+                return;
+            }
+            idle.offerLast(pooled);
+            if (closed && idle.remove(pooled)) {
+                closeQuietly(pooled.raw);
+            }
+        }
+    }
+
+    /**
+     * Записывает в журнал соединения, удерживаемые дольше допустимого,
+     * с текущим стеком потока, получившего соединение. О каждом
+     * соединении сообщается один раз.
+     */
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        for (Lease lease : leased) {
+            if (!lease.reported && now - lease.borrowedAt > leakThresholdNanos) {
+                lease.reported = true;
+                leaks.incrementAndGet();
+                Throwable trace = new Throwable("Connection borrowed by " + lease.owner);
+                trace.setStackTrace(lease.owner.getStackTrace());
+                LOG.log(Level.WARNING, "Connection leak detected, connection held for "
+                        + TimeUnit.NANOSECONDS.toMillis(now - lease.borrowedAt)
+                        + " ms", trace);
+            }
+        }
+    }
+
+    /**
+     * Закрывает соединение, игнорируя ошибки.
+     *
+     * @param raw соединение
+     */
+    private static void closeQuietly(Connection raw) {
+        try {
+            raw.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /**
+     * Возвращает количество выданных соединений.
+     *
+     * @return количество соединений
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Возвращает количество свободных соединений.
+     *
+     * @return количество соединений
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Возвращает количество потоков, ожидающих соединение.
+     *
+     * @return количество потоков
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Возвращает количество выдач соединений.
+     *
+     * @return количество выдач
+     */
+    public long getBorrowCount() {
+        return borrows.get();
+    }
+
+    /**
+     * Возвращает суммарное время ожидания соединений в миллисекундах.
+     *
+     * @return время ожидания
+     */
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    /**
+     * Возвращает максимальное время ожидания соединения в миллисекундах.
+     *
+     * @return время ожидания
+     */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    /**
+     * Возвращает количество соединений, не прошедших проверку при выдаче.
+     *
+     * @return количество соединений
+     */
+    public long getInvalidCount() {
+        return invalid.get();
+    }
+
+    /**
+     * Возвращает количество соединений, закрытых по простою.
+     *
+     * @return количество соединений
+     */
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+
+    /**
+     * Возвращает количество подготовленных запросов, найденных в кеше.
+     *
+     * @return количество запросов
+     */
+    public long getStatementCacheHits() {
+        return statementHits.get();
+    }
+
+    /**
+     * Возвращает количество подготовленных запросов,
+     * не найденных в кеше и подготовленных заново.
+     *
+     * @return количество запросов
+     */
+    public long getStatementCacheMisses() {
+        return statementMisses.get();
+    }
+
+    /**
+     * Возвращает количество соединений, удерживаемых дольше
+     * допустимого времени.
+     *
+     * @return количество соединений
+     */
+    public long getLeakCount() {
+        return leaks.get();
+    }
+
+    /**
+     * Возвращает максимальное количество соединений.
+     *
+     * @return размер пула
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Закрывает пул и все свободные соединения. Выданные соединения
+     * будут закрыты при возврате.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        Pooled pooled = idle.pollFirst();
+        while (pooled != null) {
+            closeQuietly(pooled.raw);
+            pooled = idle.pollFirst();
+        }
+    }
+
+    /**
+     * Соединение пула с временем последнего использования.
+     */
+    private final class Pooled {
+
+        /**
+         * Физическое соединение с базой данных
+         */
+        private final Connection raw;
+
+        /**
+         * Кеш подготовленных запросов соединения или null
+         */
+        private final StatementCache statements;
+
+        /**
+         * Время последнего возврата в пул
+         */
+        private volatile long lastUsed = System.nanoTime();
+
+        /**
+         * Конструктор.
+         *
+         * @param raw физическое соединение
+         */
+        private Pooled(Connection raw) {
+            this.raw = raw;
+            this.statements = statementCacheSize > 0
+                    ? new StatementCache(statementCacheSize, statementHits, statementMisses)
+                    : null;
+        }
+
+        /**
+         * Подготавливает запрос через кеш соединения. Кешируются запросы,
+         * подготовленные только по тексту или по тексту и признаку
+         * возврата сгенерированных ключей.
+         *
+         * @param args аргументы prepareStatement
+         * @return подготовленный запрос или null, если запрос не кешируется
+         */
+        private PreparedStatement prepareCached(Object[] args) throws SQLException {
+            if (statements == null || !(args[0] instanceof String)) {
+                return null;
+            }
+            String sql = (String) args[0];
+            if (args.length == 1) {
+                return statements.prepare(sql, () -> raw.prepareStatement(sql));
+            }
+            if (args.length == 2 && args[1] instanceof Integer) {
+                int keys = (Integer) args[1];
+                return statements.prepare(sql + '\u0000' + keys,
+                        () -> raw.prepareStatement(sql, keys));
+            }
+            return null;
+        }
+
+        /**
+         * Создает выдаваемое соединение, закрытие которого
+         * возвращает физическое соединение в пул.
+         *
+         * @return выдаваемое соединение
+         */
+        private Connection lease() {
+            Lease lease = new Lease(this);
+            leased.add(lease);
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] {Connection.class},
+                    lease);
+        }
+    }
+
+    /**
+     * Обработчик вызовов выданного соединения. Передает вызовы
+     * физическому соединению до закрытия, закрытие возвращает
+     * соединение в пул.
+     */
+    private final class Lease implements InvocationHandler {
+
+        /**
+         * Соединение пула
+         */
+        private final Pooled pooled;
+
+        /**
+         * Время выдачи соединения
+         */
+        private final long borrowedAt = System.nanoTime();
+
+        /**
+         * Поток, получивший соединение
+         */
+        private final Thread owner = Thread.currentThread();
+
+        /**
+         * Признак возврата соединения в пул
+         */
+        private boolean returned;
+
+        /**
+         * Признак записи утечки соединения в журнал
+         */
+        private volatile boolean reported;
+
+        /**
+         * Конструктор.
+         *
+         * @param pooled соединение пула
+         */
+        private Lease(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        /**
+         * Выполняет unwrap и isWrapperFor выдаваемого соединения.
+         * Интерфейсы, которые реализует выдаваемое соединение, раскрываются
+         * в него самого, остальные - в объекты драйвера, кроме самого
+         * физического соединения, закрытие которого обошло бы пул.
+         *
+         * @param proxy выдаваемое соединение
+         * @param name имя метода
+         * @param iface интерфейс
+         * @return результат метода
+         * @throws SQLException если интерфейс раскрывается в физическое соединение
+         */
+        private Object unwrap(Object proxy, String name, Class<?> iface) throws SQLException {
+            if (iface.isInstance(proxy)) {
+                return "unwrap".equals(name) ? proxy : Boolean.TRUE;
+            }
+            if ("isWrapperFor".equals(name)) {
+                return !Connection.class.isAssignableFrom(iface)
+                        && pooled.raw.isWrapperFor(iface);
+            }
+            Object rsl = pooled.raw.unwrap(iface);
+            if (rsl instanceof Connection) {
+                throw new SQLException("Pooled connection cannot be unwrapped to " + iface);
+            }
+            return rsl;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                if (!returned) {
+                    returned = true;
+                    leased.remove(this);
+                    release(pooled);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return returned || pooled.raw.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "Pooled" + pooled.raw;
+            }
+            if (returned) {
+                throw new SQLException("Connection is closed");
+            }
+            if ("unwrap".equals(name) || "isWrapperFor".equals(name)) {
+                return unwrap(proxy, name, (Class<?>) args[0]);
+            }
+            if ("prepareStatement".equals(name)) {
+                PreparedStatement cached = pooled.prepareCached(args);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            try {
+                return method.invoke(pooled.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,19 +1,39 @@
 package ru.job4j.tracker.store;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
 import org.hibernate.query.Query;
+import org.hibernate.stat.Statistics;
 import ru.job4j.tracker.model.Item;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
 
 /**
  * Класс реализации хранилища заявок
  * хранение осуществляется в базе данных,
- * для работы используется Hibernate
+ * для работы используется Hibernate.
+ * Заявки кешируются в кеше второго уровня, результаты поиска
+ * по наименованию - в кеше запросов. Добавление, замена и удаление
+ * выполняются через сессию над самой заявкой, поэтому в кеше второго
+ * уровня обновляется или удаляется только ее запись, а результаты
+ * запросов к таблице items помечаются устаревшими.
+ * Идентификаторы заявок резервируются диапазонами из последовательности,
+ * поэтому вставки не требуют немедленного обращения к базе данных
+ * и отправляются пакетами размера hibernate.jdbc.batch_size.
+ * Соединения выдает пул {@link PooledConnectionProvider}, настройки
+ * пула задаются в hibernate.cfg.xml.
  *
  * @author Alexander Emelyanov
  * @version 1.0
@@ -26,22 +46,110 @@ public class HibernateStore implements Store, AutoCloseable {
      */
     private final static String FIND_ITEMS_BY_NAME = "from Item where name = :paramName";
 
+    /**
+     * HQL запрос по выбору заявок по началу поля name,
+     * выполняется по индексу items_name_idx
+     */
+    private final static String FIND_ITEMS_BY_NAME_PREFIX =
+            "from Item where name like :prefix escape '\\'";
+
+    /**
+     * SQL запрос по выбору заявок по полю name без учета регистра.
+     * Столбец name_lower не отображается в заявку, поэтому запрос
+     * выполняется средствами SQL по индексу items_name_lower_idx
+     */
+    private final static String FIND_ITEMS_BY_NAME_IGNORE_CASE =
+            "select id, name, created, description from items where name_lower = lower(:name)";
+
+    /**
+     * SQL запрос полнотекстового поиска заявок в PostgreSQL по индексу
+     * items_search_idx с сортировкой по убыванию релевантности.
+     * Столбец search_vector не отображается в заявку, поэтому запрос
+     * выполняется средствами SQL
+     */
+    private final static String SEARCH_ITEMS =
+            "select id, name, created, description from items"
+                    + " where search_vector @@ to_tsquery('simple', :query)"
+                    + " order by ts_rank(search_vector, to_tsquery('simple', :query)) desc, id";
+
+    /**
+     * HQL запрос по выбору заявок, наименование или описание которых
+     * содержит слово, для баз данных без полнотекстового индекса
+     */
+    private final static String FIND_ITEMS_CONTAINING = "from Item where ";
+
+    /**
+     * Условие запроса {@link #FIND_ITEMS_CONTAINING} для одного слова,
+     * вместо %d подставляется номер слова
+     */
+    private final static String CONTAINS_TERM =
+            "lower(name) like :term%1$d or lower(description) like :term%1$d";
+
+    /**
+     * Вес одного слова в сортировке запроса {@link #FIND_ITEMS_CONTAINING}:
+     * слово в наименовании весит {@link TextIndex#NAME_WEIGHT}, в описании - 1,
+     * вместо %d подставляется номер слова
+     */
+    private final static String TERM_SCORE = "case when lower(name) like :term%1$d then "
+            + TextIndex.NAME_WEIGHT + " else 0 end"
+            + " + case when lower(description) like :term%1$d then 1 else 0 end";
+
+    /**
+     * HQL запрос по выбору заявок с id больше заданного в порядке возрастания id
+     */
+    private final static String FIND_PAGE = "from Item where id > :afterId order by id";
+
+    /**
+     * Регион кеша результатов запроса поиска заявок по наименованию
+     */
+    private final static String ITEMS_BY_NAME_REGION = "items-by-name";
+
     /**
      * HQL запрос по выбору всех заявок из таблицы
      */
     private final static String FIND_ALL_ITEMS = "from Item";
 
+    /**
+     * Количество заявок, после сохранения которых
+     * сессия сбрасывается в базу данных и очищается,
+     * кратно размеру пакета JDBC hibernate.jdbc.batch_size
+     */
+    private final static int BATCH_SIZE = 1000;
+
+    /**
+     * Количество строк, читаемых из базы данных за одно обращение
+     * при потоковом обходе заявок
+     */
+    private final static int FETCH_SIZE = 500;
+
     /**
      * Экземпляр StandardServiceRegistry
      */
-    private final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
-            .configure().build();
+    private final StandardServiceRegistry registry;
 
     /**
      * Экземпляр SessionFactory
      */
-    private final SessionFactory sf = new MetadataSources(registry)
-            .buildMetadata().buildSessionFactory();
+    private final SessionFactory sf;
+
+    /**
+     * Конструктор. Настройки читаются из hibernate.cfg.xml.
+     */
+    public HibernateStore() {
+        this(Map.of());
+    }
+
+    /**
+     * Конструктор. Настройки читаются из hibernate.cfg.xml и заменяются
+     * переданными, например для подключения к другой базе данных.
+     *
+     * @param settings настройки Hibernate
+     */
+    public HibernateStore(Map<String, Object> settings) {
+        registry = new StandardServiceRegistryBuilder()
+                .configure().applySettings(settings).build();
+        sf = new MetadataSources(registry).buildMetadata().buildSessionFactory();
+    }
 
     /**
      * Выполняет добавление заявки в хранилище
@@ -60,45 +168,87 @@ public class HibernateStore implements Store, AutoCloseable {
         return item;
     }
 
+    /**
+     * Выполняет добавление нескольких заявок в хранилище
+     * и их возврат в порядке добавления.
+     * Все заявки сохраняются в одной сессии и одной транзакции,
+     * каждые {@link #BATCH_SIZE} заявок сессия сбрасывается
+     * и очищается, чтобы не накапливать сохраненные объекты.
+     * При сбросе вставки отправляются пакетами JDBC, идентификаторы
+     * выдаются из диапазонов последовательности без отдельных запросов.
+     *
+     * @param items заявки
+     * @return список заявок
+     */
+    @Override
+    public List<Item> addAll(Collection<Item> items) {
+        List<Item> rsl = new ArrayList<>(items);
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            int count = 0;
+            for (Item item : rsl) {
+                session.save(item);
+                if (++count % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+        }
+        return rsl;
+    }
+
     /**
      * Выполняет замену заявки в хранилище.
      * Возвращает true, если заявка с искомым идентификатором
-     * есть в хранилище.
+     * есть в хранилище. Заявка читается из кеша второго уровня
+     * или из базы данных, изменения записываются одним запросом
+     * update при фиксации транзакции, в кеше обновляется только
+     * запись этой заявки.
      *
      * @param item заявка
      * @return true, если замена выполнена, иначе false
      */
     @Override
     public boolean replace(int id, Item item) {
-        boolean result = false;
-        if (findById(id) != null) {
-            item.setId(id);
-            try (Session session = sf.openSession()) {
-                session.beginTransaction();
-                session.update(item);
-                session.getTransaction().commit();
-                result = true;
+        boolean result;
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            Item stored = session.get(Item.class, id);
+            result = stored != null;
+            if (result) {
+                stored.setName(item.getName());
+                stored.setDescription(item.getDescription());
+                stored.setCreated(item.getCreated());
             }
+            session.getTransaction().commit();
+        }
+        if (result) {
+            item.setId(id);
         }
         return result;
     }
 
     /**
      * Выполняет удаление заявки из хранилища.
+     * Заявка читается из кеша второго уровня или из базы данных
+     * и удаляется одним запросом delete, из кеша удаляется
+     * только запись этой заявки.
      *
      * @param id идентификатор заявки
      * @return true, если удаление выполнено, иначе false
      */
     @Override
     public boolean delete(int id) {
-        boolean result = false;
-        if (findById(id) != null) {
-            try (Session session = sf.openSession()) {
-                session.beginTransaction();
-                session.delete(new Item(id));
-                session.getTransaction().commit();
-                result = true;
+        boolean result;
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            Item stored = session.get(Item.class, id);
+            result = stored != null;
+            if (result) {
+                session.delete(stored);
             }
+            session.getTransaction().commit();
         }
         return result;
     }
@@ -120,9 +270,59 @@ public class HibernateStore implements Store, AutoCloseable {
         return items;
     }
 
+    /**
+     * Выполняет обход всех заявок без построения их списка.
+     * Заявки читаются курсором порциями по {@link #FETCH_SIZE}
+     * в сессии без состояния, которая не накапливает прочитанные объекты.
+     *
+     * @param action действие над заявкой
+     */
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        try (StatelessSession session = sf.openStatelessSession()) {
+            session.beginTransaction();
+            try (ScrollableResults results = session.createQuery(FIND_ALL_ITEMS)
+                    .setFetchSize(FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    action.accept((Item) results.get(0));
+                }
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    /**
+     * Выполняет возврат страницы заявок с идентификатором больше afterId
+     * в порядке возрастания идентификатора. Ограничение количества
+     * передается в запрос к базе данных.
+     *
+     * @param afterId идентификатор, после которого начинается страница
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findPage(int afterId, int limit) {
+        List<Item> items = new ArrayList<>();
+        if (limit <= 0) {
+            return items;
+        }
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            items = session.createQuery(FIND_PAGE, Item.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(limit)
+                    .list();
+            session.getTransaction().commit();
+        }
+        return items;
+    }
+
     /**
      * Выполняет поиск по наименованию и возврат из хранилища списка
      * найденных заявок. Если заявки не найдены, вернется пустой список.
+     * Результат запроса кешируется в регионе {@link #ITEMS_BY_NAME_REGION}
+     * до ближайшего изменения таблицы items.
      *
      * @return список заявок
      */
@@ -133,15 +333,107 @@ public class HibernateStore implements Store, AutoCloseable {
             session.beginTransaction();
             Query query = session.createQuery(FIND_ITEMS_BY_NAME);
             query.setParameter("paramName", key);
+            query.setCacheable(true);
+            query.setCacheRegion(ITEMS_BY_NAME_REGION);
             items = query.list();
             session.getTransaction().commit();
         }
         return items;
     }
 
+    /**
+     * Выполняет поиск заявок, наименование которых начинается
+     * с заданной строки. Поиск выполняется по индексу наименования.
+     *
+     * @param prefix начало наименования заявки
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findByNamePrefix(String prefix) {
+        List<Item> items;
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            items = session.createQuery(FIND_ITEMS_BY_NAME_PREFIX, Item.class)
+                    .setParameter("prefix", LikePatterns.prefix(prefix))
+                    .list();
+            session.getTransaction().commit();
+        }
+        return items;
+    }
+
+    /**
+     * Выполняет поиск заявок по наименованию без учета регистра.
+     * Поиск выполняется по индексу наименования в нижнем регистре.
+     *
+     * @param key наименование заявки
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findByNameIgnoreCase(String key) {
+        List<Item> items;
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            items = session.createNativeQuery(FIND_ITEMS_BY_NAME_IGNORE_CASE, Item.class)
+                    .setParameter("name", key)
+                    .list();
+            session.getTransaction().commit();
+        }
+        return items;
+    }
+
+    /**
+     * Выполняет полнотекстовый поиск заявок по словам наименования
+     * и описания. В PostgreSQL поиск выполняется по индексу
+     * items_search_idx, заявки сортируются базой данных по убыванию
+     * ts_rank. В остальных базах данных, например в H2 в тестах,
+     * выбираются не больше {@link TextIndex#candidates(int)} заявок,
+     * содержащих слова запроса, с наибольшей суммой весов найденных слов,
+     * и ранжируются {@link TextIndex}. База данных определяется
+     * по соединению.
+     *
+     * @param query запрос
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    @Override
+    public List<Item> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(TextIndex.terms(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Item> items;
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            String product = session.doReturningWork(
+                    cn -> cn.getMetaData().getDatabaseProductName());
+            if ("PostgreSQL".equals(product)) {
+                items = session.createNativeQuery(SEARCH_ITEMS, Item.class)
+                        .setParameter("query", String.join(" | ", terms))
+                        .setMaxResults(limit)
+                        .list();
+            } else {
+                StringJoiner where = new StringJoiner(" or ", FIND_ITEMS_CONTAINING, "");
+                StringJoiner score = new StringJoiner(" + ", " order by ", " desc, id");
+                for (int i = 0; i < terms.size(); i++) {
+                    where.add(String.format(CONTAINS_TERM, i));
+                    score.add(String.format(TERM_SCORE, i));
+                }
+                Query<Item> found = session.createQuery(where + score.toString(), Item.class);
+                for (int i = 0; i < terms.size(); i++) {
+                    found.setParameter("term" + i, "%" + terms.get(i) + "%");
+                }
+                found.setMaxResults(TextIndex.candidates(limit));
+                items = TextIndex.rank(found.list(), query, limit);
+            }
+            session.getTransaction().commit();
+        }
+        return items;
+    }
+
     /**
      * Выполняет поиск по идентификатору и возврат из хранилища заявки.
      * Если заявка не найдена, будет возвращен null.
+     * Заявка читается из кеша второго уровня, если она там есть.
      *
      * @param id идентификатор заявки
      * @return заявка
@@ -158,7 +450,34 @@ public class HibernateStore implements Store, AutoCloseable {
     }
 
     /**
-     * Закрывает соединение после окончания работы хранилища.
+     * Возвращает статистику фабрики сессий: количество открытых
+     * сессий, выполненных запросов и другие показатели.
+     * Статистика собирается, если включено свойство
+     * hibernate.generate_statistics.
+     *
+     * @return статистика Hibernate
+     */
+    public Statistics getStatistics() {
+        return sf.getStatistics();
+    }
+
+    /**
+     * Возвращает пул соединений хранилища для чтения показателей:
+     * количества выданных соединений, времени ожидания, утечек.
+     * Если Hibernate настроен на другой поставщик соединений,
+     * возвращается null.
+     *
+     * @return пул соединений или null
+     */
+    public ConnectionPool getConnectionPool() {
+        ConnectionProvider provider = registry.getService(ConnectionProvider.class);
+        return provider.isUnwrappableAs(ConnectionPool.class)
+                ? provider.unwrap(ConnectionPool.class) : null;
+    }
+
+    /**
+     * Закрывает фабрику сессий и пул соединений
+     * после окончания работы хранилища.
      */
     @Override
     public void close() {
@@ -0,0 +1,366 @@
+package ru.job4j.tracker.store;
+
+import ru.job4j.tracker.metrics.OperationMetrics;
+import ru.job4j.tracker.model.Item;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище заявок, измеряющее операции другого хранилища.
+ * Для каждой операции считаются вызовы и исключения, задержки
+ * записываются в гистограмму, для операций, возвращающих списки
+ * заявок, - также количество заявок в результате.
+ * Показатели каждой операции регистрируются в JMX под именем
+ * ru.job4j.tracker:type=Store,backend="&lt;backend&gt;",operation=&lt;операция&gt;
+ * и удаляются из JMX при закрытии хранилища. Наименование хранилища
+ * экранируется {@link ObjectName#quote(String)}, поэтому может содержать
+ * любые символы.
+ * Измерение добавляет к вызову два чтения System.nanoTime
+ * и увеличение счетчиков {@link java.util.concurrent.atomic.LongAdder}
+ * без блокировок и без выделения памяти на вызов.
+ * Ошибки, которые хранилище обрабатывает само, например
+ * SQLException в {@link JDBCStore}, не видны и не считаются.
+ * @see ru.job4j.tracker.metrics.OperationMetrics
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class InstrumentedStore implements Store {
+
+    /**
+     * Домен имен JMX показателей хранилищ
+     */
+    public static final String DOMAIN = "ru.job4j.tracker";
+
+    /**
+     * Обернутое хранилище
+     */
+    private final Store store;
+
+    /**
+     * Показатели по наименованию операции
+     */
+    private final Map<String, OperationMetrics> metrics = new LinkedHashMap<>();
+
+    /**
+     * Имена зарегистрированных в JMX показателей
+     */
+    private final List<ObjectName> names = new ArrayList<>();
+
+    /**
+     * Показатели операции add
+     */
+    private final OperationMetrics add = metrics("add");
+
+    /**
+     * Показатели операции addAll
+     */
+    private final OperationMetrics addAll = metrics("addAll");
+
+    /**
+     * Показатели операции replace
+     */
+    private final OperationMetrics replace = metrics("replace");
+
+    /**
+     * Показатели операции delete
+     */
+    private final OperationMetrics delete = metrics("delete");
+
+    /**
+     * Показатели операции findAll
+     */
+    private final OperationMetrics findAll = metrics("findAll");
+
+    /**
+     * Показатели операции forEach
+     */
+    private final OperationMetrics forEach = metrics("forEach");
+
+    /**
+     * Показатели операции findPage
+     */
+    private final OperationMetrics findPage = metrics("findPage");
+
+    /**
+     * Показатели операции findByName
+     */
+    private final OperationMetrics findByName = metrics("findByName");
+
+    /**
+     * Показатели операции findByNamePrefix
+     */
+    private final OperationMetrics findByNamePrefix = metrics("findByNamePrefix");
+
+    /**
+     * Показатели операции findByNameIgnoreCase
+     */
+    private final OperationMetrics findByNameIgnoreCase = metrics("findByNameIgnoreCase");
+
+    /**
+     * Показатели операции search
+     */
+    private final OperationMetrics search = metrics("search");
+
+    /**
+     * Показатели операции findById
+     */
+    private final OperationMetrics findById = metrics("findById");
+
+    /**
+     * Конструктор. Наименование хранилища в JMX - имя его класса.
+     *
+     * @param store хранилище
+     */
+    public InstrumentedStore(Store store) {
+        this(store, store.getClass().getSimpleName());
+    }
+
+    /**
+     * Конструктор. Регистрирует показатели операций в JMX.
+     *
+     * @param store хранилище
+     * @param backend наименование хранилища в именах JMX
+     * @throws IllegalStateException если показатели хранилища
+     * с таким наименованием уже зарегистрированы
+     */
+    public InstrumentedStore(Store store, String backend) {
+        this.store = store;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Map.Entry<String, OperationMetrics> operation : metrics.entrySet()) {
+                ObjectName name = new ObjectName(DOMAIN + ":type=Store,backend="
+                        + ObjectName.quote(backend) + ",operation=" + operation.getKey());
+                server.registerMBean(operation.getValue(), name);
+                names.add(name);
+            }
+        } catch (JMException e) {
+            unregister();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Создает показатели операции.
+     *
+     * @param operation наименование операции
+     * @return показатели
+     */
+    private OperationMetrics metrics(String operation) {
+        OperationMetrics rsl = new OperationMetrics();
+        metrics.put(operation, rsl);
+        return rsl;
+    }
+
+    /**
+     * Возвращает показатели операции.
+     *
+     * @param operation наименование метода {@link Store}
+     * @return показатели или null для неизвестной операции
+     */
+    public OperationMetrics getMetrics(String operation) {
+        return metrics.get(operation);
+    }
+
+    @Override
+    public void init() {
+        store.init();
+    }
+
+    @Override
+    public Item add(Item item) {
+        long start = System.nanoTime();
+        try {
+            Item rsl = store.add(item);
+            add.record(System.nanoTime() - start);
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            add.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Item> addAll(Collection<Item> items) {
+        long start = System.nanoTime();
+        try {
+            List<Item> rsl = store.addAll(items);
+            addAll.record(System.nanoTime() - start, rsl == null ? 0 : rsl.size());
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            addAll.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean replace(int id, Item item) {
+        long start = System.nanoTime();
+        try {
+            boolean rsl = store.replace(id, item);
+            replace.record(System.nanoTime() - start);
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            replace.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean delete(int id) {
+        long start = System.nanoTime();
+        try {
+            boolean rsl = store.delete(id);
+            delete.record(System.nanoTime() - start);
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            delete.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Item> findAll() {
+        long start = System.nanoTime();
+        try {
+            List<Item> rsl = store.findAll();
+            findAll.record(System.nanoTime() - start, rsl == null ? 0 : rsl.size());
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            findAll.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Выполняет обход всех заявок и записывает задержку обхода
+     * и количество пройденных заявок.
+     *
+     * @param action действие над заявкой
+     */
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        int[] visited = new int[1];
+        long start = System.nanoTime();
+        try {
+            store.forEach(item -> {
+                visited[0]++;
+                action.accept(item);
+            });
+        } catch (RuntimeException | Error e) {
+            forEach.recordError(System.nanoTime() - start);
+            throw e;
+        }
+        forEach.record(System.nanoTime() - start, visited[0]);
+    }
+
+    @Override
+    public List<Item> findPage(int afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<Item> rsl = store.findPage(afterId, limit);
+            findPage.record(System.nanoTime() - start, rsl == null ? 0 : rsl.size());
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            findPage.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Item> findByName(String key) {
+        long start = System.nanoTime();
+        try {
+            List<Item> rsl = store.findByName(key);
+            findByName.record(System.nanoTime() - start, rsl == null ? 0 : rsl.size());
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            findByName.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Item> findByNamePrefix(String prefix) {
+        long start = System.nanoTime();
+        try {
+            List<Item> rsl = store.findByNamePrefix(prefix);
+            findByNamePrefix.record(System.nanoTime() - start, rsl == null ? 0 : rsl.size());
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            findByNamePrefix.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Item> findByNameIgnoreCase(String key) {
+        long start = System.nanoTime();
+        try {
+            List<Item> rsl = store.findByNameIgnoreCase(key);
+            findByNameIgnoreCase.record(System.nanoTime() - start, rsl == null ? 0 : rsl.size());
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            findByNameIgnoreCase.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Item> search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<Item> rsl = store.search(query, limit);
+            search.record(System.nanoTime() - start, rsl == null ? 0 : rsl.size());
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            search.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Item findById(int id) {
+        long start = System.nanoTime();
+        try {
+            Item rsl = store.findById(id);
+            findById.record(System.nanoTime() - start);
+            return rsl;
+        } catch (RuntimeException | Error e) {
+            findById.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Удаляет показатели из JMX.
+     */
+    private void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : names) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        names.clear();
+    }
+
+    /**
+     * Удаляет показатели из JMX и закрывает обернутое хранилище.
+     */
+    @Override
+    public void close() throws Exception {
+        unregister();
+        store.close();
+    }
+}
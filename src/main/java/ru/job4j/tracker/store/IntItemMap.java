@@ -0,0 +1,733 @@
+package ru.job4j.tracker.store;
+
+import ru.job4j.tracker.model.Item;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Отображение идентификатора заявки на заявку
+ * без упаковки ключей в Integer и без объектов-элементов.
+ * Заявки хранятся в плотных массивах в порядке добавления,
+ * поиск позиции выполняется по хеш-таблице с открытой
+ * адресацией и линейным пробированием. Удаление выполняется
+ * обратным сдвигом, поэтому таблица не содержит надгробий.
+ * Поиск, замена и удаление не создают объектов.
+ * Заявки разбиты на блоки, и метод {@link #snapshot()} за O(1)
+ * возвращает неизменяемый снимок: блоки, попавшие в снимок,
+ * копируются при первом изменении после него.
+ * Класс не потокобезопасен.
+ * @see ru.job4j.tracker.store.MemoryStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class IntItemMap {
+
+    /**
+     * Количество бит номера заявки внутри блока
+     */
+    private static final int CHUNK_BITS = 10;
+
+    /**
+     * Количество заявок в блоке
+     */
+    private static final int CHUNK = 1 << CHUNK_BITS;
+
+    /**
+     * Начальная емкость хеш-таблицы, степень двойки,
+     * половина емкости равна одному блоку заявок
+     */
+    private static final int INITIAL_CAPACITY = 2 * CHUNK;
+
+    /**
+     * Множитель фибоначчиева хеширования, 2^32 / φ
+     */
+    private static final int GOLDEN = 0x9E3779B9;
+
+    /**
+     * Ячейки хеш-таблицы: пары из ключа и позиции в плотных массивах,
+     * увеличенной на 1, позиция 0 означает пустую ячейку.
+     * Ключ и позиция лежат рядом и читаются одним обращением к памяти
+     */
+    private int[] slots;
+
+    /**
+     * Маска индекса хеш-таблицы
+     */
+    private int mask;
+
+    /**
+     * Сдвиг, оставляющий от произведения ключа
+     * на множитель столько старших бит, сколько
+     * нужно для индекса хеш-таблицы
+     */
+    private int shift;
+
+    /**
+     * Идентификаторы заявок в порядке добавления
+     */
+    private int[] keys;
+
+    /**
+     * Блоки заявок в порядке добавления, null на месте удаленных
+     */
+    private Item[][] chunks;
+
+    /**
+     * Количество заявок в каждом блоке, меняется вместе
+     * с массивом блоков и так же копируется после снимка
+     */
+    private int[] chunkLive;
+
+    /**
+     * Поколение, в котором был создан каждый блок
+     */
+    private int[] chunkEpochs;
+
+    /**
+     * Поколение, в котором был создан массив блоков
+     */
+    private int chunksEpoch;
+
+    /**
+     * Текущее поколение, увеличивается при каждом снимке.
+     * Изменять на месте можно только блоки текущего поколения,
+     * остальные могут входить в снимки
+     */
+    private int epoch;
+
+    /**
+     * Количество занятых позиций в плотных массивах
+     */
+    private int end;
+
+    /**
+     * Количество заявок
+     */
+    private int size;
+
+    /**
+     * Конструктор.
+     */
+    public IntItemMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Выделяет пустые массивы заданной емкости.
+     *
+     * @param capacity емкость хеш-таблицы
+     */
+    private void allocate(int capacity) {
+        slots = new int[capacity * 2];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        keys = new int[capacity / 2];
+        chunks = new Item[capacity / 2 / CHUNK][CHUNK];
+        chunkLive = new int[chunks.length];
+        chunkEpochs = new int[chunks.length];
+        Arrays.fill(chunkEpochs, epoch);
+        chunksEpoch = epoch;
+        end = 0;
+        size = 0;
+    }
+
+    /**
+     * Возвращает начальную ячейку хеш-таблицы для ключа.
+     * Идентификаторы выдаются подряд, и без перемешивания они заняли бы
+     * одну сплошную серию ячеек, по которой пришлось бы проходить
+     * при удалении. Фибоначчиево хеширование разносит соседние ключи
+     * по всей таблице.
+     *
+     * @param key ключ
+     * @return индекс ячейки
+     */
+    private int home(int key) {
+        return key * GOLDEN >>> shift;
+    }
+
+    /**
+     * Возвращает ячейку хеш-таблицы, содержащую ключ, иначе -1.
+     *
+     * @param key ключ
+     * @return индекс ячейки или -1
+     */
+    private int slotOf(int key) {
+        int slot = home(key);
+        while (slots[2 * slot + 1] != 0) {
+            if (slots[2 * slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Возвращает заявку по позиции в плотных массивах.
+     *
+     * @param position позиция
+     * @return заявка или null
+     */
+    private Item valueAt(int position) {
+        return chunks[position >>> CHUNK_BITS][position & (CHUNK - 1)];
+    }
+
+    /**
+     * Записывает заявку в позицию плотных массивов,
+     * предварительно копируя блок, если он может входить в снимок,
+     * и обновляет количество заявок в блоке.
+     *
+     * @param position позиция
+     * @param value заявка или null
+     */
+    private void setValue(int position, Item value) {
+        int chunk = position >>> CHUNK_BITS;
+        if (chunksEpoch != epoch) {
+            chunks = chunks.clone();
+            chunkLive = chunkLive.clone();
+            chunkEpochs = chunkEpochs.clone();
+            chunksEpoch = epoch;
+        }
+        if (chunkEpochs[chunk] != epoch) {
+            chunks[chunk] = chunks[chunk].clone();
+            chunkEpochs[chunk] = epoch;
+        }
+        int offset = position & (CHUNK - 1);
+        if ((chunks[chunk][offset] == null) != (value == null)) {
+            chunkLive[chunk] += value == null ? -1 : 1;
+        }
+        chunks[chunk][offset] = value;
+    }
+
+    /**
+     * Возвращает заявку по идентификатору, иначе null.
+     *
+     * @param key идентификатор заявки
+     * @return заявка
+     */
+    public Item get(int key) {
+        int slot = slotOf(key);
+        return slot != -1 ? valueAt(slots[2 * slot + 1] - 1) : null;
+    }
+
+    /**
+     * Проверяет наличие заявки с идентификатором.
+     *
+     * @param key идентификатор заявки
+     * @return true, если заявка есть
+     */
+    public boolean containsKey(int key) {
+        return slotOf(key) != -1;
+    }
+
+    /**
+     * Сохраняет заявку по идентификатору. Заменяемая заявка
+     * сохраняет свою позицию в порядке добавления.
+     *
+     * @param key идентификатор заявки
+     * @param value заявка, не null
+     * @return предыдущая заявка или null
+     */
+    public Item put(int key, Item value) {
+        Objects.requireNonNull(value);
+        int slot = slotOf(key);
+        if (slot != -1) {
+            int position = slots[2 * slot + 1] - 1;
+            Item old = valueAt(position);
+            setValue(position, value);
+            return old;
+        }
+        if (end == keys.length) {
+            if (size * 2 >= keys.length) {
+                grow();
+            } else {
+                compact();
+            }
+        }
+        keys[end] = key;
+        setValue(end, value);
+        insertSlot(key, ++end);
+        size++;
+        return null;
+    }
+
+    /**
+     * Удаляет заявку по идентификатору.
+     *
+     * @param key идентификатор заявки
+     * @return удаленная заявка или null
+     */
+    public Item remove(int key) {
+        int slot = slotOf(key);
+        if (slot == -1) {
+            return null;
+        }
+        int position = slots[2 * slot + 1] - 1;
+        Item old = valueAt(position);
+        setValue(position, null);
+        deleteSlot(slot);
+        size--;
+        return old;
+    }
+
+    /**
+     * Возвращает количество заявок.
+     *
+     * @return количество заявок
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает новый список заявок в порядке добавления.
+     *
+     * @return список заявок
+     */
+    public List<Item> values() {
+        return new ArrayList<>(new Snapshot(chunks, chunkLive, end, size));
+    }
+
+    /**
+     * Возвращает неизменяемый снимок заявок в порядке добавления за O(1).
+     * Последующие изменения отображения в снимке не видны.
+     *
+     * @return список заявок
+     */
+    public List<Item> snapshot() {
+        epoch++;
+        return new Snapshot(chunks, chunkLive, end, size);
+    }
+
+    /**
+     * Возвращает до limit заявок, следующих в порядке добавления
+     * за первой позицией с ключом больше afterKey.
+     * Если ключи добавляются по возрастанию, как идентификаторы
+     * в {@link MemoryStore}, плотные массивы упорядочены по ключу,
+     * и результат является страницей заявок с ключами больше afterKey
+     * в порядке возрастания. Начальная позиция находится
+     * двоичным поиском, поэтому стоимость зависит только от limit
+     * и количества удаленных заявок в странице.
+     *
+     * @param afterKey ключ, после которого начинается страница
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    public List<Item> page(int afterKey, int limit) {
+        List<Item> rsl = new ArrayList<>(Math.max(0, Math.min(limit, size)));
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= afterKey) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int i = low; i < end && rsl.size() < limit; i++) {
+            Item value = valueAt(i);
+            if (value != null) {
+                rsl.add(value);
+            }
+        }
+        return rsl;
+    }
+
+    /**
+     * Подготавливает место для добавления заданного количества
+     * новых заявок, чтобы при их добавлении таблица не перестраивалась.
+     * Если места не хватает, таблица перестраивается один раз
+     * сразу под итоговый размер.
+     *
+     * @param additional количество новых заявок
+     */
+    public void ensureCapacity(int additional) {
+        if (end + additional <= keys.length) {
+            return;
+        }
+        long needed = ((long) size + additional) * 2;
+        int capacity = mask + 1;
+        while (capacity / 2 < needed) {
+            if (capacity >= 1 << 29) {
+                throw new IllegalStateException("Capacity exceeded");
+            }
+            capacity *= 2;
+        }
+        rehash(capacity);
+    }
+
+    /**
+     * Удаляет все заявки.
+     */
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Записывает ключ и позицию в первую свободную ячейку.
+     *
+     * @param key ключ
+     * @param position позиция, увеличенная на 1
+     */
+    private void insertSlot(int key, int position) {
+        int slot = home(key);
+        while (slots[2 * slot + 1] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[2 * slot] = key;
+        slots[2 * slot + 1] = position;
+    }
+
+    /**
+     * Освобождает ячейку, сдвигая назад следующие за ней ключи,
+     * которые без нее стали бы недостижимы.
+     *
+     * @param slot индекс ячейки
+     */
+    private void deleteSlot(int slot) {
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (slots[2 * next + 1] != 0) {
+            int distance = (next - home(slots[2 * next])) & mask;
+            if (distance >= ((next - gap) & mask)) {
+                slots[2 * gap] = slots[2 * next];
+                slots[2 * gap + 1] = slots[2 * next + 1];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[2 * gap + 1] = 0;
+    }
+
+    /**
+     * Удваивает емкость, перенося в новые массивы
+     * только неудаленные заявки.
+     * Таблица растет, когда заявки занимают не меньше половины
+     * плотных массивов, поэтому заполнение таблицы не превышает 1/2.
+     */
+    private void grow() {
+        rehash((mask + 1) * 2);
+    }
+
+    /**
+     * Переносит неудаленные заявки в новые массивы заданной емкости.
+     *
+     * @param capacity емкость хеш-таблицы
+     */
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Item[][] oldChunks = chunks;
+        int oldEnd = end;
+        allocate(capacity);
+        for (int i = 0; i < oldEnd; i++) {
+            Item value = oldChunks[i >>> CHUNK_BITS][i & (CHUNK - 1)];
+            if (value != null) {
+                keys[end] = oldKeys[i];
+                chunks[end >>> CHUNK_BITS][end & (CHUNK - 1)] = value;
+                chunkLive[end >>> CHUNK_BITS]++;
+                insertSlot(oldKeys[i], ++end);
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Уплотняет плотные массивы на месте, сдвигая заявки
+     * на позиции удаленных, и заново заполняет хеш-таблицу.
+     * Уплотнение выполняется, когда удаленные занимают больше половины
+     * плотных массивов, поэтому происходит не чаще чем через size добавлений.
+     * Память выделяется только под блоки, входящие в снимки.
+     */
+    private void compact() {
+        Arrays.fill(slots, 0);
+        int live = 0;
+        for (int i = 0; i < end; i++) {
+            Item value = valueAt(i);
+            if (value != null) {
+                keys[live] = keys[i];
+                if (live != i) {
+                    setValue(live, value);
+                }
+                insertSlot(keys[live], ++live);
+            }
+        }
+        for (int i = live; i < end; i++) {
+            if (valueAt(i) != null) {
+                setValue(i, null);
+            }
+        }
+        end = live;
+    }
+
+    /**
+     * Неизменяемый снимок заявок. Хранит ссылки на блоки,
+     * которые отображение больше не изменяет на месте.
+     * Если в снимке есть удаленные заявки, доступ по номеру находит
+     * блок двоичным поиском по количествам заявок в блоках,
+     * итераторы проходят позиции подряд.
+     */
+    private static final class Snapshot extends AbstractList<Item> {
+
+        /**
+         * Блоки заявок на момент снимка
+         */
+        private final Item[][] chunks;
+
+        /**
+         * Количество заявок в блоках на момент снимка
+         */
+        private final int[] chunkLive;
+
+        /**
+         * Количество занятых позиций на момент снимка
+         */
+        private final int end;
+
+        /**
+         * Количество заявок на момент снимка
+         */
+        private final int size;
+
+        /**
+         * Количество заявок до начала каждого блока,
+         * вычисляется при первом доступе по номеру
+         */
+        private volatile int[] starts;
+
+        /**
+         * Конструктор.
+         *
+         * @param chunks блоки заявок
+         * @param chunkLive количество заявок в блоках
+         * @param end количество занятых позиций
+         * @param size количество заявок
+         */
+        private Snapshot(Item[][] chunks, int[] chunkLive, int end, int size) {
+            this.chunks = chunks;
+            this.chunkLive = chunkLive;
+            this.end = end;
+            this.size = size;
+        }
+
+        /**
+         * Возвращает заявку по позиции.
+         *
+         * @param position позиция
+         * @return заявка или null на месте удаленной
+         */
+        private Item at(int position) {
+            return chunks[position >>> CHUNK_BITS][position & (CHUNK - 1)];
+        }
+
+        /**
+         * Возвращает первую позицию с заявкой, начиная с заданной.
+         *
+         * @param from начальная позиция
+         * @return позиция или end
+         */
+        private int skip(int from) {
+            int rsl = from;
+            while (rsl < end && at(rsl) == null) {
+                rsl++;
+            }
+            return rsl;
+        }
+
+        /**
+         * Возвращает последнюю позицию с заявкой, не больше заданной.
+         *
+         * @param from начальная позиция
+         * @return позиция или -1
+         */
+        private int back(int from) {
+            int rsl = from;
+            while (rsl >= 0 && at(rsl) == null) {
+                rsl--;
+            }
+            return rsl;
+        }
+
+        /**
+         * Возвращает количества заявок до начала блоков.
+         *
+         * @return количества заявок
+         */
+        private int[] starts() {
+            int[] rsl = starts;
+            if (rsl == null) {
+                int used = (end + CHUNK - 1) >>> CHUNK_BITS;
+                rsl = new int[used];
+                for (int chunk = 1; chunk < used; chunk++) {
+                    rsl[chunk] = rsl[chunk - 1] + chunkLive[chunk - 1];
+                }
+                starts = rsl;
+            }
+            return rsl;
+        }
+
+        /**
+         * Возвращает позицию заявки по номеру в снимке: блок
+         * находится двоичным поиском, внутри блока удаленные
+         * пропускаются перебором.
+         *
+         * @param index номер заявки
+         * @return позиция
+         */
+        private int position(int index) {
+            if (size == end) {
+                return index;
+            }
+            int[] before = starts();
+            int low = 0;
+            int high = before.length - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (before[middle] <= index) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            int remaining = index - before[low];
+            int rsl = skip(low << CHUNK_BITS);
+            for (int i = 0; i < remaining; i++) {
+                rsl = skip(rsl + 1);
+            }
+            return rsl;
+        }
+
+        /**
+         * Возвращает заявку по номеру в снимке. Если в снимке нет
+         * удаленных заявок, доступ выполняется за O(1), иначе за
+         * O(log(количество блоков) + размер блока).
+         *
+         * @param index номер заявки
+         * @return заявка
+         */
+        @Override
+        public Item get(int index) {
+            Objects.checkIndex(index, size);
+            return at(position(index));
+        }
+
+        /**
+         * Возвращает количество заявок.
+         *
+         * @return количество заявок
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Возвращает итератор по заявкам, пропускающий удаленные.
+         *
+         * @return итератор
+         */
+        @Override
+        public Iterator<Item> iterator() {
+            return listIterator(0);
+        }
+
+        /**
+         * Возвращает двунаправленный итератор по заявкам, начиная
+         * с заданного номера. Итератор проходит позиции подряд,
+         * пропуская удаленные, и не поддерживает изменение.
+         *
+         * @param index номер первой заявки
+         * @return итератор
+         */
+        @Override
+        public ListIterator<Item> listIterator(int index) {
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            int start = index == size ? end : position(index);
+            return new ListIterator<>() {
+
+                /**
+                 * Номер следующей заявки
+                 */
+                private int cursor = index;
+
+                /**
+                 * Позиция следующей заявки или end
+                 */
+                private int next = start;
+
+                /**
+                 * Позиция предыдущей заявки или -1
+                 */
+                private int previous = back(start - 1);
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < size;
+                }
+
+                @Override
+                public Item next() {
+                    if (cursor >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    Item rsl = at(next);
+                    previous = next;
+                    next = skip(next + 1);
+                    cursor++;
+                    return rsl;
+                }
+
+                @Override
+                public boolean hasPrevious() {
+                    return cursor > 0;
+                }
+
+                @Override
+                public Item previous() {
+                    if (cursor <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    Item rsl = at(previous);
+                    next = previous;
+                    previous = back(previous - 1);
+                    cursor--;
+                    return rsl;
+                }
+
+                @Override
+                public int nextIndex() {
+                    return cursor;
+                }
+
+                @Override
+                public int previousIndex() {
+                    return cursor - 1;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void set(Item item) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void add(Item item) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
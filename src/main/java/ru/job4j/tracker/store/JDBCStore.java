@@ -1,36 +1,43 @@
 package ru.job4j.tracker.store;
 
-import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import ru.job4j.tracker.model.Item;
 
 import java.io.InputStream;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * Класс реализации хранилища заявок
  * хранение осуществляется в базе данных,
- * для работы используется JDBC
+ * для работы используется JDBC.
+ * Каждая операция получает соединение из пула
+ * и возвращает его по завершении. Подготовленные запросы
+ * кешируются пулом для каждого соединения.
  * @see ru.job4j.tracker.store.Store
+ * @see ru.job4j.tracker.store.ConnectionPool
  * @author Alexander Emelyanov
  * @version 1.0
  */
-@AllArgsConstructor
 @NoArgsConstructor
 public class JDBCStore implements Store {
 
     /**
      * SQL запрос по вставке данных в таблицу items
      */
-    private final static String INSERT_INTO_ITEMS = "insert into items(name) values (?)";
+    private final static String INSERT_INTO_ITEMS =
+            "insert into items(name, description) values (?, ?)";
 
     /**
      * SQL запрос по обновлению заявки из таблицы items
      */
-    private final static String UPDATE_ITEM = "update items set name = ? where id = ?";
+    private final static String UPDATE_ITEM =
+            "update items set name = ?, description = ? where id = ?";
 
     /**
      * SQL запрос по удалению заявки из таблицы items по полю id
@@ -42,36 +49,125 @@ public class JDBCStore implements Store {
      */
     private final static String SELECT_ALL_ITEMS = "select * from items";
 
+    /**
+     * SQL запрос по выбору страницы заявок из таблицы items
+     * с id больше заданного в порядке возрастания id
+     */
+    private final static String SELECT_PAGE =
+            "select * from items where id > ? order by id limit ?";
+
     /**
      * SQL запрос по выбору заявок из таблицы items по полю name
      */
     private final static String SELECT_ALL_ITEMS_BY_NAME = "select * from items where name = ?";
 
+    /**
+     * SQL запрос по выбору заявок из таблицы items по началу поля name,
+     * выполняется по индексу items_name_idx
+     */
+    private final static String SELECT_ALL_ITEMS_BY_NAME_PREFIX =
+            "select * from items where name like ? escape '\\'";
+
+    /**
+     * SQL запрос по выбору заявок из таблицы items по полю name без учета
+     * регистра, выполняется по индексу items_name_lower_idx
+     */
+    private final static String SELECT_ALL_ITEMS_BY_NAME_IGNORE_CASE =
+            "select * from items where name_lower = lower(?)";
+
+    /**
+     * SQL запрос полнотекстового поиска заявок в PostgreSQL по индексу
+     * items_search_idx с сортировкой по убыванию релевантности
+     */
+    private final static String SEARCH_ITEMS =
+            "select * from items where search_vector @@ to_tsquery('simple', ?)"
+                    + " order by ts_rank(search_vector, to_tsquery('simple', ?)) desc, id"
+                    + " limit ?";
+
+    /**
+     * SQL запрос по выбору заявок из таблицы items, наименование
+     * или описание которых содержит слово, для баз данных
+     * без полнотекстового индекса
+     */
+    private final static String SELECT_ITEMS_CONTAINING =
+            "select * from items where ";
+
+    /**
+     * Условие запроса {@link #SELECT_ITEMS_CONTAINING} для одного слова
+     */
+    private final static String CONTAINS_TERM =
+            "(name_lower like ? or lower(description) like ?)";
+
+    /**
+     * Вес одного слова в сортировке запроса {@link #SELECT_ITEMS_CONTAINING}:
+     * слово в наименовании весит {@link TextIndex#NAME_WEIGHT}, в описании - 1
+     */
+    private final static String TERM_SCORE = "case when name_lower like ? then "
+            + TextIndex.NAME_WEIGHT + " else 0 end"
+            + " + case when lower(description) like ? then 1 else 0 end";
+
     /**
      * SQL запрос по выбору заяви из таблицы items по полю id
      */
     private final static String SELECT_ITEM_BY_ID = "select * from items where id = ?";
 
     /**
-     * Соединение с базой данных
+     * Количество заявок, отправляемых в базу данных одним пакетом
+     */
+    private final static int BATCH_SIZE = 1000;
+
+    /**
+     * Количество строк, читаемых из базы данных за одно обращение
+     * при потоковом обходе заявок, по умолчанию
+     */
+    private final static int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * Пул соединений с базой данных
+     */
+    private ConnectionPool pool;
+
+    /**
+     * Количество строк, читаемых из базы данных за одно обращение
+     * при потоковом обходе заявок
+     */
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * Конструктор.
+     *
+     * @param pool пул соединений с базой данных
+     */
+    public JDBCStore(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param pool пул соединений с базой данных
+     * @param fetchSize количество строк, читаемых за одно обращение
+     *                  при потоковом обходе заявок
      */
-    private Connection cn;
+    public JDBCStore(ConnectionPool pool, int fetchSize) {
+        this.pool = pool;
+        this.fetchSize = fetchSize;
+    }
 
     /**
-     * Выполняет инициализацию соединения с базой данных
-     * для работы с хранилищем.
+     * Выполняет инициализацию пула соединений с базой данных
+     * для работы с хранилищем. Параметры подключения, размер
+     * пула и размер порции потокового чтения fetch-size
+     * читаются из app.properties.
      */
     public void init() {
         try (InputStream in = JDBCStore.class.getClassLoader()
                 .getResourceAsStream("app.properties")) {
             Properties config = new Properties();
             config.load(in);
-            Class.forName(config.getProperty("driver-class-name"));
-            cn = DriverManager.getConnection(
-                    config.getProperty("url"),
-                    config.getProperty("username"),
-                    config.getProperty("password")
-            );
+            pool = new ConnectionPool(config);
+            fetchSize = Integer.parseInt(config.getProperty("fetch-size",
+                    String.valueOf(DEFAULT_FETCH_SIZE)));
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
@@ -86,9 +182,11 @@ public class JDBCStore implements Store {
      */
     @Override
     public Item add(Item item) {
-        try (PreparedStatement ps = cn.prepareStatement(INSERT_INTO_ITEMS,
-                Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement(INSERT_INTO_ITEMS,
+                     Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, item.getName());
+            ps.setString(2, item.getDescription());
             ps.execute();
             try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
@@ -101,6 +199,54 @@ public class JDBCStore implements Store {
         return item;
     }
 
+    /**
+     * Выполняет добавление нескольких заявок в хранилище
+     * и их возврат в порядке добавления.
+     * Заявки вставляются в одной транзакции пакетами по {@link #BATCH_SIZE},
+     * сгенерированные идентификаторы присваиваются заявкам после
+     * выполнения каждого пакета. При ошибке транзакция отменяется
+     * и выбрасывается исключение, чтобы вызывающий код не получил
+     * заявки без идентификаторов.
+     *
+     * @param items заявки
+     * @return список заявок
+     * @throws IllegalStateException если заявки не удалось добавить
+     */
+    @Override
+    public List<Item> addAll(Collection<Item> items) {
+        List<Item> rsl = new ArrayList<>(items);
+        try (Connection cn = pool.getConnection()) {
+            cn.setAutoCommit(false);
+            try (PreparedStatement ps = cn.prepareStatement(INSERT_INTO_ITEMS,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < rsl.size(); from += BATCH_SIZE) {
+                    List<Item> batch = rsl.subList(from, Math.min(from + BATCH_SIZE, rsl.size()));
+                    for (Item item : batch) {
+                        ps.setString(1, item.getName());
+                        ps.setString(2, item.getDescription());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                        for (Item item : batch) {
+                            if (!generatedKeys.next()) {
+                                throw new SQLException("No generated key for " + item);
+                            }
+                            item.setId(generatedKeys.getInt(1));
+                        }
+                    }
+                }
+                cn.commit();
+            } catch (SQLException e) {
+                cn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Batch insert failed", e);
+        }
+        return rsl;
+    }
+
     /**
      * Выполняет замену заявки в хранилище.
      * Возвращает true, если заявка с искомым идентификатором
@@ -112,9 +258,11 @@ public class JDBCStore implements Store {
     @Override
     public boolean replace(int id, Item item) {
         boolean result = false;
-        try (PreparedStatement ps = cn.prepareStatement(UPDATE_ITEM)) {
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement(UPDATE_ITEM)) {
             ps.setString(1, item.getName());
-            ps.setInt(2, id);
+            ps.setString(2, item.getDescription());
+            ps.setInt(3, id);
             result = ps.executeUpdate() > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -131,7 +279,8 @@ public class JDBCStore implements Store {
     @Override
     public boolean delete(int id) {
         boolean result = false;
-        try (PreparedStatement ps = cn.prepareStatement(DELETE_ITEM)) {
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement(DELETE_ITEM)) {
             ps.setInt(1, id);
             result = ps.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -149,13 +298,66 @@ public class JDBCStore implements Store {
     @Override
     public List<Item> findAll() {
         List<Item> items = new ArrayList<>();
-        try (PreparedStatement ps = cn.prepareStatement(SELECT_ALL_ITEMS)) {
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement(SELECT_ALL_ITEMS)) {
+            try (ResultSet resultSet = ps.executeQuery()) {
+                while (resultSet.next()) {
+                    items.add(item(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return items;
+    }
+
+    /**
+     * Выполняет обход всех заявок без построения их списка.
+     * Заявки читаются курсором порциями по fetchSize строк.
+     * Курсор открывается в транзакции, так как без нее драйвер
+     * PostgreSQL читает весь результат запроса сразу.
+     *
+     * @param action действие над заявкой
+     */
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        try (Connection cn = pool.getConnection()) {
+            cn.setAutoCommit(false);
+            try (PreparedStatement ps = cn.prepareStatement(SELECT_ALL_ITEMS)) {
+                ps.setFetchSize(fetchSize);
+                try (ResultSet resultSet = ps.executeQuery()) {
+                    while (resultSet.next()) {
+                        action.accept(item(resultSet));
+                    }
+                }
+            } finally {
+                cn.commit();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Выполняет возврат страницы заявок с идентификатором больше afterId
+     * в порядке возрастания идентификатора. Условие и ограничение
+     * выполняются базой данных по первичному ключу без пропуска
+     * строк предыдущих страниц.
+     *
+     * @param afterId идентификатор, после которого начинается страница
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findPage(int afterId, int limit) {
+        List<Item> items = new ArrayList<>();
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement(SELECT_PAGE)) {
+            ps.setInt(1, afterId);
+            ps.setInt(2, Math.max(limit, 0));
             try (ResultSet resultSet = ps.executeQuery()) {
                 while (resultSet.next()) {
-                    items.add(new Item(
-                            resultSet.getInt("id"),
-                            resultSet.getString("name")
-                    ));
+                    items.add(item(resultSet));
                 }
             }
         } catch (SQLException e) {
@@ -172,15 +374,141 @@ public class JDBCStore implements Store {
      */
     @Override
     public List<Item> findByName(String key) {
+        return findAllBy(SELECT_ALL_ITEMS_BY_NAME, key);
+    }
+
+    /**
+     * Выполняет поиск заявок, наименование которых начинается
+     * с заданной строки. Поиск выполняется по индексу наименования.
+     *
+     * @param prefix начало наименования заявки
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findByNamePrefix(String prefix) {
+        return findAllBy(SELECT_ALL_ITEMS_BY_NAME_PREFIX, LikePatterns.prefix(prefix));
+    }
+
+    /**
+     * Выполняет поиск заявок по наименованию без учета регистра.
+     * Поиск выполняется по индексу наименования в нижнем регистре.
+     *
+     * @param key наименование заявки
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findByNameIgnoreCase(String key) {
+        return findAllBy(SELECT_ALL_ITEMS_BY_NAME_IGNORE_CASE, key);
+    }
+
+    /**
+     * Выполняет полнотекстовый поиск заявок по словам наименования
+     * и описания. В PostgreSQL поиск выполняется по индексу
+     * items_search_idx, заявки сортируются базой данных по убыванию
+     * ts_rank, слова наименования весят больше слов описания.
+     * В остальных базах данных, например в H2 в тестах, выбираются
+     * не больше {@link TextIndex#candidates(int)} заявок, содержащих
+     * слова запроса, и ранжируются {@link TextIndex}.
+     *
+     * @param query запрос
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    @Override
+    public List<Item> search(String query, int limit) {
+        List<Item> items = new ArrayList<>();
+        List<String> terms = new ArrayList<>(TextIndex.terms(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return items;
+        }
+        try (Connection cn = pool.getConnection()) {
+            if (!"PostgreSQL".equals(cn.getMetaData().getDatabaseProductName())) {
+                return TextIndex.rank(findContaining(cn, terms, TextIndex.candidates(limit)),
+                        query, limit);
+            }
+            try (PreparedStatement ps = cn.prepareStatement(SEARCH_ITEMS)) {
+                String tsQuery = String.join(" | ", terms);
+                ps.setString(1, tsQuery);
+                ps.setString(2, tsQuery);
+                ps.setInt(3, limit);
+                try (ResultSet resultSet = ps.executeQuery()) {
+                    while (resultSet.next()) {
+                        items.add(item(resultSet));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return items;
+    }
+
+    /**
+     * Выбирает заявки, наименование или описание которых
+     * содержит хотя бы одно из слов. Заявки упорядочены по сумме
+     * весов найденных слов, поэтому при ограничении количества
+     * остаются заявки, вероятнее всего наиболее релевантные.
+     *
+     * @param cn соединение с базой данных
+     * @param terms слова из букв и цифр в нижнем регистре
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     * @throws SQLException ошибка выполнения запроса
+     */
+    private List<Item> findContaining(Connection cn, List<String> terms, int limit)
+            throws SQLException {
+        List<Item> items = new ArrayList<>();
+        String sql = SELECT_ITEMS_CONTAINING
+                + String.join(" or ", Collections.nCopies(terms.size(), CONTAINS_TERM))
+                + " order by " + String.join(" + ", Collections.nCopies(terms.size(), TERM_SCORE))
+                + " desc, id limit ?";
+        try (PreparedStatement ps = cn.prepareStatement(sql)) {
+            int index = 1;
+            // условие и сортировка принимают одинаковые параметры для каждого слова
+            for (int i = 0; i < 2; i++) {
+                for (String term : terms) {
+                    ps.setString(index++, "%" + term + "%");
+                    ps.setString(index++, "%" + term + "%");
+                }
+            }
+            ps.setInt(index, limit);
+            try (ResultSet resultSet = ps.executeQuery()) {
+                while (resultSet.next()) {
+                    items.add(item(resultSet));
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Создает заявку по текущей строке результата запроса.
+     *
+     * @param resultSet результат запроса
+     * @return заявка
+     * @throws SQLException ошибка чтения строки
+     */
+    private static Item item(ResultSet resultSet) throws SQLException {
+        Item item = new Item(resultSet.getInt("id"), resultSet.getString("name"));
+        item.setDescription(resultSet.getString("description"));
+        return item;
+    }
+
+    /**
+     * Выполняет запрос заявок с одним строковым параметром.
+     *
+     * @param sql запрос
+     * @param param значение параметра
+     * @return список заявок
+     */
+    private List<Item> findAllBy(String sql, String param) {
         List<Item> items = new ArrayList<>();
-        try (PreparedStatement ps = cn.prepareStatement(SELECT_ALL_ITEMS_BY_NAME)) {
-            ps.setString(1, key);
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement(sql)) {
+            ps.setString(1, param);
             try (ResultSet resultSet = ps.executeQuery()) {
                 while (resultSet.next()) {
-                    items.add(new Item(
-                            resultSet.getInt("id"),
-                            resultSet.getString("name")
-                    ));
+                    items.add(item(resultSet));
                 }
             }
         } catch (SQLException e) {
@@ -199,14 +527,12 @@ public class JDBCStore implements Store {
     @Override
     public Item findById(int id) {
         Item item = null;
-        try (PreparedStatement ps = cn.prepareStatement("select * from items where id = ?")) {
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement(SELECT_ITEM_BY_ID)) {
             ps.setInt(1, id);
             try (ResultSet resultSet = ps.executeQuery()) {
                 if (resultSet.next()) {
-                    item = (new Item(
-                            resultSet.getInt("id"),
-                            resultSet.getString("name")
-                    ));
+                    item = item(resultSet);
                 }
             }
         } catch (SQLException e) {
@@ -216,12 +542,12 @@ public class JDBCStore implements Store {
     }
 
     /**
-     * Закрывает соединение после окончания работы хранилища.
+     * Закрывает пул соединений после окончания работы хранилища.
      */
     @Override
     public void close() throws Exception {
-        if (cn != null) {
-            cn.close();
+        if (pool != null) {
+            pool.close();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package ru.job4j.tracker.store;
+
+/**
+ * Построение шаблонов оператора like для запросов к базе данных.
+ * Шаблоны используют символ экранирования {@link #ESCAPE}.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+final class LikePatterns {
+
+    /**
+     * Символ экранирования, указываемый в запросе: like ? escape '\'
+     */
+    static final char ESCAPE = '\\';
+
+    /**
+     * Закрытый конструктор.
+     */
+    private LikePatterns() {
+    }
+
+    /**
+     * Возвращает шаблон поиска строк, начинающихся с заданной.
+     * Символы %, _ и символ экранирования в начале строки экранируются,
+     * поэтому база данных может выполнить поиск по диапазону индекса.
+     *
+     * @param prefix начало строки
+     * @return шаблон like
+     */
+    static String prefix(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
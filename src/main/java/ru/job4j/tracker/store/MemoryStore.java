@@ -4,7 +4,14 @@ import lombok.NoArgsConstructor;
 import ru.job4j.tracker.model.Item;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Класс реализации хранилища заявок
@@ -22,9 +29,19 @@ public final class MemoryStore implements Store {
     private static MemoryStore instance = null;
 
     /**
-     * Список заявок
+     * Заявки по идентификатору в порядке добавления
      */
-    private final List<Item> items = new ArrayList<>();
+    private final IntItemMap items = new IntItemMap();
+
+    /**
+     * Идентификаторы заявок по наименованию
+     */
+    private final Map<String, Set<Integer>> names = new HashMap<>();
+
+    /**
+     * Полнотекстовый индекс наименований и описаний заявок
+     */
+    private final TextIndex text = new TextIndex();
 
     /**
      * Указатель на текущую ячейку
@@ -53,10 +70,30 @@ public final class MemoryStore implements Store {
      */
     public Item add(Item item) {
         item.setId(ids++);
-        items.add(item);
+        items.put(item.getId(), item);
+        index(item);
         return item;
     }
 
+    /**
+     * Выполняет добавление нескольких заявок в хранилище
+     * и их возврат в порядке добавления.
+     * Место под все заявки выделяется заранее, поэтому
+     * при добавлении хранилище перестраивается не более одного раза.
+     *
+     * @param batch заявки
+     * @return список заявок
+     */
+    @Override
+    public List<Item> addAll(Collection<Item> batch) {
+        items.ensureCapacity(batch.size());
+        List<Item> rsl = new ArrayList<>(batch.size());
+        for (Item item : batch) {
+            rsl.add(add(item));
+        }
+        return rsl;
+    }
+
     /**
      * Выполняет поиск по идентификатору и возврат из хранилища заявки.
      * Если заявка не найдена, будет возвращен null.
@@ -65,20 +102,30 @@ public final class MemoryStore implements Store {
      * @return заявка
      */
     public Item findById(int id) {
-        int index = indexOf(id);
-        return index != -1 ? items.get(index) : null;
+        return items.get(id);
     }
 
     /**
      * Выполняет поиск по наименованию и возврат из хранилища списка
      * найденных заявок. Если заявки не найдены, вернется пустой список.
+     * Поиск выполняется по индексу наименований, поэтому его стоимость
+     * зависит только от количества найденных заявок. Индекс обновляется
+     * только при добавлении и замене заявки, изменение наименования
+     * в обход хранилища не поддерживается: такая заявка не находится
+     * ни по старому, ни по новому наименованию до вызова
+     * {@link #replace(int, Item)}. Поиск не изменяет индекс.
      *
      * @return список заявок
      */
     public List<Item> findByName(String key) {
         List<Item> rslItems = new ArrayList<>();
-        for (Item item: items) {
-            if (item.getName().equals(key)) {
+        Set<Integer> found = names.get(key);
+        if (found == null) {
+            return rslItems;
+        }
+        for (int id : found) {
+            Item item = items.get(id);
+            if (item != null && Objects.equals(item.getName(), key)) {
                 rslItems.add(item);
             }
         }
@@ -86,48 +133,63 @@ public final class MemoryStore implements Store {
     }
 
     /**
-     * Выполняет возврат из хранилища списка всех заявок.
+     * Выполняет возврат из хранилища списка всех заявок
+     * в порядке их добавления.
      * Если заявки отсутствуют, вернется пустой список.
+     * Список является неизменяемым снимком хранилища на момент вызова,
+     * создается за O(1) и не меняется при последующих изменениях
+     * хранилища, поэтому его можно обходить, продолжая запись.
      *
      * @return список заявок
      */
     public List<Item> findAll() {
-        return items;
+        return items.snapshot();
     }
 
     /**
-     * Выполняет поиск идентификатора в хранилище элемента с идентификатором
-     * заявки. Если элемент найден, то вернет идентификатор списка, иначе -1.
+     * Выполняет обход всех заявок в порядке их добавления.
+     * Обходится снимок хранилища без копирования заявок,
+     * поэтому действие может изменять хранилище.
      *
-     * @param id идентификатор заявки
-     * @return идентификатор заявки в списке хранилища
-     */
-    private int indexOf(int id) {
-        int rsl = -1;
-        for (int i = 0; i < items.size(); i++) {
-            if (items.get(i).getId() == id) {
-                rsl = i;
-                break;
-            }
-        }
-        return rsl;
+     * @param action действие над заявкой
+     */
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        items.snapshot().forEach(action);
+    }
+
+    /**
+     * Выполняет возврат страницы заявок с идентификатором больше afterId
+     * в порядке возрастания идентификатора. Идентификаторы выдаются
+     * по возрастанию, поэтому порядок добавления совпадает с порядком
+     * идентификаторов, и начало страницы находится двоичным поиском.
+     *
+     * @param afterId идентификатор, после которого начинается страница
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findPage(int afterId, int limit) {
+        return items.page(afterId, limit);
     }
 
     /**
      * Выполняет замену заявки в хранилище.
      * Возвращает true, если заявка с искомым идентификатором
-     * есть в хранилище. Поиск производится вспомогательным методом
-     * {@link MemoryStore#indexOf(int)}.
+     * есть в хранилище. Заявка сохраняет свою позицию
+     * в порядке добавления.
      *
      * @param item заявка
      * @return true, если замена выполнена, иначе false
      */
     public boolean replace(int id, Item item) {
-        int index = indexOf(id);
-        boolean rsl = index != -1;
+        Item old = items.get(id);
+        boolean rsl = old != null;
         if (rsl) {
             item.setId(id);
-            items.set(index, item);
+            items.put(id, item);
+            unindex(old);
+            index(item);
         }
         return rsl;
     }
@@ -139,14 +201,60 @@ public final class MemoryStore implements Store {
      * @return true, если удаление выполнено, иначе false
      */
     public boolean delete(int id) {
-        int index = indexOf(id);
-        boolean rsl = index != -1;
+        Item old = items.remove(id);
+        boolean rsl = old != null;
         if (rsl) {
-            items.remove(index);
+            unindex(old);
         }
         return rsl;
     }
 
+    /**
+     * Выполняет полнотекстовый поиск заявок по индексу слов наименований
+     * и описаний. Индекс обновляется при добавлении, замене и удалении
+     * заявок, поэтому стоимость поиска зависит от количества заявок,
+     * содержащих слова запроса, а не от размера хранилища.
+     *
+     * @param query запрос
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    @Override
+    public List<Item> search(String query, int limit) {
+        List<Item> rslItems = new ArrayList<>();
+        for (int id : text.search(query, limit)) {
+            rslItems.add(items.get(id));
+        }
+        return rslItems;
+    }
+
+    /**
+     * Добавляет заявку в индекс наименований и полнотекстовый индекс.
+     *
+     * @param item заявка
+     */
+    private void index(Item item) {
+        names.computeIfAbsent(item.getName(), k -> new LinkedHashSet<>()).add(item.getId());
+        text.add(item);
+    }
+
+    /**
+     * Удаляет заявку из индекса наименований и полнотекстового индекса.
+     * Пустые наборы идентификаторов удаляются из индекса.
+     *
+     * @param item заявка
+     */
+    private void unindex(Item item) {
+        Set<Integer> found = names.get(item.getName());
+        if (found != null) {
+            found.remove(item.getId());
+            if (found.isEmpty()) {
+                names.remove(item.getName());
+            }
+        }
+        text.remove(item.getId());
+    }
+
     /**
      * Закрывает используемые ресурсы после окончания работы хранилища.
      */
@@ -162,5 +270,7 @@ public final class MemoryStore implements Store {
     public void clear() {
         ids = 1;
         items.clear();
+        names.clear();
+        text.clear();
     }
 }
\ No newline at end of file
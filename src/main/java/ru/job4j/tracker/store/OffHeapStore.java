@@ -0,0 +1,551 @@
+package ru.job4j.tracker.store;
+
+import ru.job4j.tracker.model.Item;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Класс реализации хранилища заявок
+ * хранение осуществляется в памяти вне кучи Java.
+ * Заявки хранятся по колонкам: идентификаторы и время создания
+ * лежат в массивах примитивов, наименования и описания в кодировке
+ * UTF-8 лежат в общей области памяти вне кучи. Объекты заявок
+ * создаются только при чтении, поэтому сборщик мусора не обходит
+ * миллионы хранимых объектов.
+ * Идентификаторы выдаются по возрастанию и возрастают с номером строки,
+ * поэтому строка заявки находится двоичным поиском. Место строк
+ * удаленных и замененных заявок освобождается уплотнением области
+ * строк, строки удаленных заявок освобождаются уплотнением колонок,
+ * когда колонки заполнены.
+ * Класс не потокобезопасен.
+ * @see ru.job4j.tracker.store.Store
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class OffHeapStore implements Store {
+
+    /**
+     * Начальное количество строк
+     */
+    private static final int INITIAL_ROWS = 1024;
+
+    /**
+     * Начальный размер области строк в байтах
+     */
+    private static final int INITIAL_ARENA = 64 * 1024;
+
+    /**
+     * Длина, обозначающая строку null
+     */
+    private static final int NULL_LENGTH = -1;
+
+    /**
+     * Время создания, обозначающее null
+     */
+    private static final long NULL_CREATED = Long.MIN_VALUE;
+
+    /**
+     * Идентификаторы заявок, у удаленных со знаком минус
+     */
+    private int[] ids = new int[INITIAL_ROWS];
+
+    /**
+     * Время создания заявок в миллисекундах
+     */
+    private long[] created = new long[INITIAL_ROWS];
+
+    /**
+     * Смещения наименований в области строк
+     */
+    private int[] nameOffsets = new int[INITIAL_ROWS];
+
+    /**
+     * Длины наименований в байтах
+     */
+    private int[] nameLengths = new int[INITIAL_ROWS];
+
+    /**
+     * Смещения описаний в области строк
+     */
+    private int[] descriptionOffsets = new int[INITIAL_ROWS];
+
+    /**
+     * Длины описаний в байтах
+     */
+    private int[] descriptionLengths = new int[INITIAL_ROWS];
+
+    /**
+     * Количество строк, включая удаленные
+     */
+    private int rows;
+
+    /**
+     * Количество удаленных строк
+     */
+    private int deleted;
+
+    /**
+     * Идентификатор следующей заявки
+     */
+    private int nextId = 1;
+
+    /**
+     * Область строк вне кучи
+     */
+    private ByteBuffer arena = ByteBuffer.allocateDirect(INITIAL_ARENA);
+
+    /**
+     * Занятая часть области строк
+     */
+    private int top;
+
+    /**
+     * Количество байт удаленных и замененных строк
+     */
+    private int garbage;
+
+    /**
+     * Выполняет добавление заявки в хранилище
+     * и ее возврат.
+     *
+     * @param item заявка
+     * @return заявка
+     */
+    @Override
+    public Item add(Item item) {
+        if (rows == ids.length) {
+            if (deleted >= rows / 2) {
+                compactRows();
+            } else {
+                growRows();
+            }
+        }
+        int id = nextId;
+        write(rows, id, item);
+        rows++;
+        nextId++;
+        item.setId(id);
+        return item;
+    }
+
+    /**
+     * Выполняет замену заявки в хранилище.
+     * Возвращает true, если заявка с искомым идентификатором
+     * есть в хранилище. Строки новой заявки записываются до освобождения
+     * строк старой, поэтому при нехватке памяти заявка остается прежней.
+     *
+     * @param item заявка
+     * @return true, если замена выполнена, иначе false
+     */
+    @Override
+    public boolean replace(int id, Item item) {
+        int row = rowOf(id);
+        boolean rsl = row != -1;
+        if (rsl) {
+            int released = bytes(row);
+            write(row, id, item);
+            garbage += released;
+            item.setId(id);
+        }
+        return rsl;
+    }
+
+    /**
+     * Выполняет удаление заявки из хранилища.
+     *
+     * @param id идентификатор заявки
+     * @return true, если удаление выполнено, иначе false
+     */
+    @Override
+    public boolean delete(int id) {
+        int row = rowOf(id);
+        boolean rsl = row != -1;
+        if (rsl) {
+            garbage += bytes(row);
+            ids[row] = -id;
+            deleted++;
+        }
+        return rsl;
+    }
+
+    /**
+     * Выполняет возврат из хранилища списка всех заявок
+     * в порядке их добавления.
+     * Если заявки отсутствуют, вернется пустой список.
+     *
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findAll() {
+        List<Item> rsl = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            if (ids[row] > 0) {
+                rsl.add(read(row));
+            }
+        }
+        return rsl;
+    }
+
+    /**
+     * Выполняет обход всех заявок в порядке их добавления.
+     * Объект заявки создается только на время передачи действию.
+     *
+     * @param action действие над заявкой
+     */
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        for (int row = 0; row < rows; row++) {
+            if (ids[row] > 0) {
+                action.accept(read(row));
+            }
+        }
+    }
+
+    /**
+     * Выполняет возврат страницы заявок с идентификатором больше afterId
+     * в порядке возрастания идентификатора. Идентификаторы возрастают
+     * с номером строки, поэтому начало страницы находится двоичным поиском.
+     *
+     * @param afterId идентификатор, после которого начинается страница
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findPage(int afterId, int limit) {
+        List<Item> rsl = new ArrayList<>();
+        for (int row = search(afterId + 1L); row < rows && rsl.size() < limit; row++) {
+            if (ids[row] > 0) {
+                rsl.add(read(row));
+            }
+        }
+        return rsl;
+    }
+
+    /**
+     * Выполняет поиск по наименованию и возврат из хранилища списка
+     * найденных заявок. Если заявки не найдены, вернется пустой список.
+     * Наименования сравниваются побайтно в кодировке UTF-8, объекты
+     * создаются только для найденных заявок.
+     *
+     * @return список заявок
+     */
+    @Override
+    public List<Item> findByName(String key) {
+        List<Item> rsl = new ArrayList<>();
+        byte[] bytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : null;
+        for (int row = 0; row < rows; row++) {
+            if (ids[row] > 0 && nameEquals(row, bytes)) {
+                rsl.add(read(row));
+            }
+        }
+        return rsl;
+    }
+
+    /**
+     * Выполняет поиск по идентификатору и возврат из хранилища заявки.
+     * Если заявка не найдена, будет возвращен null.
+     *
+     * @param id идентификатор заявки
+     * @return заявка
+     */
+    @Override
+    public Item findById(int id) {
+        int row = rowOf(id);
+        return row != -1 ? read(row) : null;
+    }
+
+    /**
+     * Возвращает количество байт, занятых строками в области вне кучи,
+     * включая еще не освобожденные уплотнением.
+     *
+     * @return количество байт
+     */
+    public long offHeapBytes() {
+        return top;
+    }
+
+    /**
+     * Выполняет очистку хранилища и
+     * сброс указателя на 1.
+     */
+    public void clear() {
+        rows = 0;
+        deleted = 0;
+        nextId = 1;
+        top = 0;
+        garbage = 0;
+    }
+
+    /**
+     * Освобождает ссылку на область вне кучи после окончания
+     * работы хранилища, память будет возвращена при сборке
+     * буфера сборщиком мусора.
+     */
+    @Override
+    public void close() {
+        clear();
+        arena = ByteBuffer.allocateDirect(0);
+    }
+
+    /**
+     * Возвращает количество строк в колонках, включая свободные.
+     *
+     * @return количество строк
+     */
+    public int capacity() {
+        return ids.length;
+    }
+
+    /**
+     * Возвращает номер строки заявки, иначе -1.
+     *
+     * @param id идентификатор заявки
+     * @return номер строки или -1
+     */
+    private int rowOf(int id) {
+        int row = search(id);
+        return id > 0 && row < rows && ids[row] == id ? row : -1;
+    }
+
+    /**
+     * Возвращает номер первой строки с идентификатором не меньше
+     * заданного, включая удаленные, иначе количество строк.
+     *
+     * @param id идентификатор
+     * @return номер строки
+     */
+    private int search(long id) {
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Math.abs(ids[middle]) < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Записывает поля заявки в строку. Колонки строки меняются только
+     * после выделения места под строки заявки.
+     *
+     * @param row номер строки
+     * @param id идентификатор заявки
+     * @param item заявка
+     */
+    private void write(int row, int id, Item item) {
+        byte[] name = encode(item.getName());
+        byte[] description = encode(item.getDescription());
+        ensureArena(length(name) + length(description));
+        ids[row] = id;
+        created[row] = item.getCreated() != null ? item.getCreated().getTime() : NULL_CREATED;
+        nameOffsets[row] = top;
+        nameLengths[row] = append(name);
+        descriptionOffsets[row] = top;
+        descriptionLengths[row] = append(description);
+    }
+
+    /**
+     * Создает заявку по данным строки.
+     *
+     * @param row номер строки
+     * @return заявка
+     */
+    private Item read(int row) {
+        Item item = new Item(ids[row], decode(nameOffsets[row], nameLengths[row]));
+        item.setDescription(decode(descriptionOffsets[row], descriptionLengths[row]));
+        item.setCreated(created[row] != NULL_CREATED ? new Timestamp(created[row]) : null);
+        return item;
+    }
+
+    /**
+     * Возвращает количество байт, занятых строками заявки.
+     *
+     * @param row номер строки
+     * @return количество байт
+     */
+    private int bytes(int row) {
+        return Math.max(nameLengths[row], 0) + Math.max(descriptionLengths[row], 0);
+    }
+
+    /**
+     * Сравнивает наименование в строке с образцом без создания объектов.
+     *
+     * @param row номер строки
+     * @param key образец в кодировке UTF-8 или null
+     * @return true, если наименования совпадают
+     */
+    private boolean nameEquals(int row, byte[] key) {
+        int length = nameLengths[row];
+        if (key == null || length == NULL_LENGTH) {
+            return key == null && length == NULL_LENGTH;
+        }
+        if (length != key.length) {
+            return false;
+        }
+        int offset = nameOffsets[row];
+        for (int i = 0; i < length; i++) {
+            if (arena.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Кодирует строку в UTF-8.
+     *
+     * @param value строка или null
+     * @return байты строки или null
+     */
+    private static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Возвращает длину закодированной строки.
+     *
+     * @param bytes байты строки или null
+     * @return длина или 0 для null
+     */
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    /**
+     * Дописывает байты в конец области строк.
+     *
+     * @param bytes байты строки или null
+     * @return длина записанной строки или {@link #NULL_LENGTH}
+     */
+    private int append(byte[] bytes) {
+        if (bytes == null) {
+            return NULL_LENGTH;
+        }
+        arena.put(top, bytes);
+        top += bytes.length;
+        return bytes.length;
+    }
+
+    /**
+     * Читает строку из области строк.
+     *
+     * @param offset смещение строки
+     * @param length длина строки
+     * @return строка или null
+     */
+    private String decode(int offset, int length) {
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        arena.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Увеличивает колонки вдвое.
+     */
+    private void growRows() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        created = Arrays.copyOf(created, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+    }
+
+    /**
+     * Сдвигает строки неудаленных заявок на места удаленных
+     * с сохранением порядка. Выполняется, когда колонки заполнены
+     * и удаленные занимают не меньше половины строк.
+     */
+    private void compactRows() {
+        int live = 0;
+        for (int row = 0; row < rows; row++) {
+            if (ids[row] > 0) {
+                ids[live] = ids[row];
+                created[live] = created[row];
+                nameOffsets[live] = nameOffsets[row];
+                nameLengths[live] = nameLengths[row];
+                descriptionOffsets[live] = descriptionOffsets[row];
+                descriptionLengths[live] = descriptionLengths[row];
+                live++;
+            }
+        }
+        rows = live;
+        deleted = 0;
+    }
+
+    /**
+     * Обеспечивает место для записи заданного количества байт.
+     * Если освобожденное место составляет не меньше половины
+     * занятого, область уплотняется, иначе увеличивается вдвое.
+     *
+     * @param required количество байт
+     */
+    private void ensureArena(int required) {
+        if (arena.capacity() - top >= required) {
+            return;
+        }
+        int live = top - garbage;
+        int capacity = arena.capacity();
+        if (garbage < top / 2 || capacity - live < required) {
+            long needed = (long) live + required;
+            long grown = Math.max((long) capacity * 2, needed);
+            if (needed > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Off-heap arena is full");
+            }
+            capacity = (int) Math.min(grown, Integer.MAX_VALUE);
+        }
+        compact(ByteBuffer.allocateDirect(capacity));
+    }
+
+    /**
+     * Копирует строки неудаленных заявок в новую область
+     * в порядке строк и обновляет их смещения.
+     *
+     * @param target новая область строк
+     */
+    private void compact(ByteBuffer target) {
+        int position = 0;
+        for (int row = 0; row < rows; row++) {
+            if (ids[row] > 0) {
+                nameOffsets[row] = copy(target, position, nameOffsets[row], nameLengths[row]);
+                position += Math.max(nameLengths[row], 0);
+                descriptionOffsets[row] = copy(target, position,
+                        descriptionOffsets[row], descriptionLengths[row]);
+                position += Math.max(descriptionLengths[row], 0);
+            }
+        }
+        arena = target;
+        top = position;
+        garbage = 0;
+    }
+
+    /**
+     * Копирует строку из текущей области в новую.
+     *
+     * @param target новая область строк
+     * @param position смещение в новой области
+     * @param offset смещение в текущей области
+     * @param length длина строки
+     * @return смещение строки в новой области
+     */
+    private int copy(ByteBuffer target, int position, int offset, int length) {
+        if (length > 0) {
+            target.put(position, arena, offset, length);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.job4j.tracker.store;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Поставщик соединений Hibernate на основе пула {@link ConnectionPool}.
+ * Подключается свойством hibernate.connection.provider_class.
+ * Параметры подключения берутся из свойств hibernate.connection.url,
+ * hibernate.connection.username, hibernate.connection.password
+ * и hibernate.connection.driver_class, настройки пула - из свойств
+ * с префиксом hibernate.connection.pool., например
+ * hibernate.connection.pool.max-size соответствует pool.max-size.
+ * Пул доступен через {@link #unwrap(Class)} для чтения показателей.
+ * @see ru.job4j.tracker.store.HibernateStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+
+    /**
+     * Префикс свойств Hibernate с настройками пула
+     */
+    private static final String POOL_PREFIX = "hibernate.connection.pool.";
+
+    /**
+     * Пул соединений
+     */
+    private ConnectionPool pool;
+
+    /**
+     * Создает пул соединений по настройкам Hibernate.
+     *
+     * @param settings настройки Hibernate
+     */
+    @Override
+    public void configure(Map settings) {
+        Properties config = new Properties();
+        copy(settings, AvailableSettings.URL, config, "url");
+        copy(settings, AvailableSettings.USER, config, "username");
+        copy(settings, AvailableSettings.PASS, config, "password");
+        copy(settings, AvailableSettings.DRIVER, config, "driver-class-name");
+        for (Object key : settings.keySet()) {
+            String name = key.toString();
+            if (name.startsWith(POOL_PREFIX)) {
+                copy(settings, name, config, "pool." + name.substring(POOL_PREFIX.length()));
+            }
+        }
+        pool = new ConnectionPool(config);
+    }
+
+    /**
+     * Копирует настройку Hibernate в свойства пула, если она задана.
+     *
+     * @param settings настройки Hibernate
+     * @param from имя настройки Hibernate
+     * @param config свойства пула
+     * @param to имя свойства пула
+     */
+    private static void copy(Map settings, String from, Properties config, String to) {
+        Object value = settings.get(from);
+        if (value != null) {
+            config.setProperty(to, value.toString());
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    /**
+     * Возвращает соединение в пул.
+     *
+     * @param conn соединение
+     */
+    @Override
+    public void closeConnection(Connection conn) throws SQLException {
+        conn.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return unwrapType.isAssignableFrom(getClass())
+                || unwrapType.isAssignableFrom(ConnectionPool.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isAssignableFrom(getClass())) {
+            return (T) this;
+        }
+        if (unwrapType.isAssignableFrom(ConnectionPool.class)) {
+            return (T) pool;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    /**
+     * Закрывает пул при закрытии фабрики сессий.
+     */
+    @Override
+    public void stop() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+}
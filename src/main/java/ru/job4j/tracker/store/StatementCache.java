@@ -0,0 +1,328 @@
+package ru.job4j.tracker.store;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кеш подготовленных запросов одного соединения.
+ * Хранит не более заданного количества запросов, при переполнении
+ * закрывается запрос, который дольше всех не использовался.
+ * Выдаваемый запрос при закрытии очищает параметры, восстанавливает
+ * измененные настройки выполнения (размер порции, ограничение
+ * строк, таймаут и направление чтения) к значениям драйвера
+ * по умолчанию, запомненным при подготовке, и возвращается в кеш.
+ * Если запрос с тем же текстом уже выдан и не закрыт, создается
+ * отдельный некешируемый запрос. Запрос, выполнявший
+ * пакет, при закрытии удаляется из кеша, так как драйверы
+ * сохраняют в нем сгенерированные ключи пакета.
+ * Кеш используется потоком, которому выдано соединение,
+ * и не синхронизируется.
+ * @see ru.job4j.tracker.store.ConnectionPool
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+final class StatementCache {
+
+    /**
+     * Методы, изменяющие настройки выполнения запроса
+     */
+    private static final Set<String> SETTINGS = Set.of(
+            "setFetchSize", "setFetchDirection", "setMaxRows",
+            "setLargeMaxRows", "setQueryTimeout");
+
+    /**
+     * Максимальное количество запросов
+     */
+    private final int capacity;
+
+    /**
+     * Количество запросов, найденных в кеше
+     */
+    private final AtomicLong hits;
+
+    /**
+     * Количество запросов, подготовленных заново
+     */
+    private final AtomicLong misses;
+
+    /**
+     * Запросы по ключу в порядке использования
+     */
+    private final Map<String, Entry> statements;
+
+    /**
+     * Конструктор.
+     *
+     * @param capacity максимальное количество запросов
+     * @param hits счетчик запросов, найденных в кеше
+     * @param misses счетчик запросов, подготовленных заново
+     */
+    StatementCache(int capacity, AtomicLong hits, AtomicLong misses) {
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(capacity * 2, 0.75f, true);
+    }
+
+    /**
+     * Фабрика подготовленных запросов.
+     */
+    @FunctionalInterface
+    interface Factory {
+
+        /**
+         * Подготавливает запрос на физическом соединении.
+         *
+         * @return подготовленный запрос
+         * @throws SQLException если запрос не удалось подготовить
+         */
+        PreparedStatement prepare() throws SQLException;
+    }
+
+    /**
+     * Возвращает подготовленный запрос из кеша
+     * или подготавливает и кеширует новый.
+     *
+     * @param key ключ запроса: текст и параметры подготовки
+     * @param factory фабрика запроса
+     * @return выдаваемый запрос
+     * @throws SQLException если запрос не удалось подготовить
+     */
+    PreparedStatement prepare(String key, Factory factory) throws SQLException {
+        Entry entry = statements.get(key);
+        if (entry != null && !entry.inUse) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            if (entry != null) {
+                return factory.prepare();
+            }
+            PreparedStatement raw = factory.prepare();
+            try {
+                entry = new Entry(key, raw);
+            } catch (SQLException e) {
+                raw.close();
+                throw e;
+            }
+            statements.put(key, entry);
+            evict();
+        }
+        entry.inUse = true;
+        return entry.lease();
+    }
+
+    /**
+     * Закрывает запросы, которые дольше всех не использовались,
+     * пока их количество превышает емкость кеша. Выданный запрос
+     * будет закрыт при возврате.
+     */
+    private void evict() {
+        Iterator<Entry> it = statements.values().iterator();
+        while (statements.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next();
+            it.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * Кешированный запрос.
+     */
+    private final class Entry {
+
+        /**
+         * Ключ запроса
+         */
+        private final String key;
+
+        /**
+         * Физический подготовленный запрос
+         */
+        private final PreparedStatement raw;
+
+        /**
+         * Размер порции чтения по умолчанию
+         */
+        private final int fetchSize;
+
+        /**
+         * Направление чтения по умолчанию
+         */
+        private final int fetchDirection;
+
+        /**
+         * Ограничение количества строк по умолчанию
+         */
+        private final long maxRows;
+
+        /**
+         * Таймаут запроса по умолчанию в секундах
+         */
+        private final int queryTimeout;
+
+        /**
+         * Признак выдачи запроса
+         */
+        private boolean inUse;
+
+        /**
+         * Признак вытеснения запроса из кеша
+         */
+        private boolean evicted;
+
+        /**
+         * Конструктор.
+         *
+         * @param key ключ запроса
+         * @param raw физический подготовленный запрос
+         * @throws SQLException если не удалось прочитать настройки запроса
+         */
+        private Entry(String key, PreparedStatement raw) throws SQLException {
+            this.key = key;
+            this.raw = raw;
+            this.fetchSize = raw.getFetchSize();
+            this.fetchDirection = raw.getFetchDirection();
+            this.maxRows = raw.getLargeMaxRows();
+            this.queryTimeout = raw.getQueryTimeout();
+        }
+
+        /**
+         * Создает выдаваемый запрос, закрытие которого
+         * возвращает физический запрос в кеш.
+         *
+         * @return выдаваемый запрос
+         */
+        private PreparedStatement lease() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class},
+                    new Lease(this));
+        }
+
+        /**
+         * Возвращает запрос в кеш, очищая параметры и восстанавливая
+         * измененные настройки выполнения. Вытесненный запрос или запрос,
+         * выполнявший пакет, закрывается.
+         *
+         * @param batched признак выполнения пакета
+         * @param configured признак изменения настроек выполнения
+         */
+        private void release(boolean batched, boolean configured) {
+            inUse = false;
+            if (!evicted && !batched) {
+                try {
+                    raw.clearParameters();
+                    if (configured) {
+                        raw.setLargeMaxRows(maxRows);
+                        raw.setFetchSize(fetchSize);
+                        raw.setFetchDirection(fetchDirection);
+                        raw.setQueryTimeout(queryTimeout);
+                    }
+                    return;
+                } catch (SQLException ignored) {
+                }
+            }
+            if (!evicted) {
+                statements.remove(key, this);
+                evicted = true;
+            }
+            closeQuietly();
+        }
+
+        /**
+         * Закрывает физический запрос, игнорируя ошибки.
+         */
+        private void closeQuietly() {
+            try {
+                raw.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Обработчик вызовов выданного запроса. Передает вызовы
+     * физическому запросу до закрытия, закрытие возвращает
+     * запрос в кеш.
+     */
+    private static final class Lease implements InvocationHandler {
+
+        /**
+         * Кешированный запрос
+         */
+        private final Entry entry;
+
+        /**
+         * Признак возврата запроса в кеш
+         */
+        private boolean returned;
+
+        /**
+         * Признак добавления запроса в пакет
+         */
+        private boolean batched;
+
+        /**
+         * Признак изменения настроек выполнения запроса
+         */
+        private boolean configured;
+
+        /**
+         * Конструктор.
+         *
+         * @param entry кешированный запрос
+         */
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                if (!returned) {
+                    returned = true;
+                    entry.release(batched, configured);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return returned || entry.raw.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "Cached" + entry.raw;
+            }
+            if (returned) {
+                throw new SQLException("Statement is closed");
+            }
+            if ("addBatch".equals(name)) {
+                batched = true;
+            } else if (SETTINGS.contains(name)) {
+                configured = true;
+            }
+            try {
+                return method.invoke(entry.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -2,7 +2,12 @@ package ru.job4j.tracker.store;
 
 import ru.job4j.tracker.model.Item;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Интерфейс Хранилища заявок
@@ -27,6 +32,24 @@ public interface Store extends AutoCloseable {
      */
     Item add(Item item);
 
+    /**
+     * Выполняет добавление нескольких заявок в хранилище
+     * и их возврат в порядке добавления. Каждой заявке
+     * присваивается идентификатор, как при {@link #add(Item)}.
+     * По умолчанию заявки добавляются по одной, хранилища
+     * переопределяют метод для пакетного добавления.
+     *
+     * @param items заявки
+     * @return список заявок
+     */
+    default List<Item> addAll(Collection<Item> items) {
+        List<Item> rsl = new ArrayList<>(items.size());
+        for (Item item : items) {
+            rsl.add(add(item));
+        }
+        return rsl;
+    }
+
     /**
      * Выполняет замену заявки в хранилище.
      *
@@ -51,6 +74,41 @@ public interface Store extends AutoCloseable {
      */
     List<Item> findAll();
 
+    /**
+     * Выполняет обход всех заявок хранилища без построения их списка.
+     * Заявки передаются действию по мере чтения, поэтому потребление
+     * памяти не зависит от количества заявок.
+     * По умолчанию обходится список {@link #findAll()}, хранилища
+     * переопределяют метод для потокового чтения.
+     *
+     * @param action действие над заявкой
+     */
+    default void forEach(Consumer<? super Item> action) {
+        findAll().forEach(action);
+    }
+
+    /**
+     * Выполняет возврат страницы заявок: до limit заявок
+     * с идентификатором больше afterId в порядке возрастания
+     * идентификатора. Первая страница запрашивается с afterId, равным 0,
+     * следующая - с идентификатором последней заявки предыдущей страницы.
+     * Удаление и добавление заявок между запросами страниц не приводит
+     * к пропуску или повтору остальных заявок.
+     * По умолчанию страница выбирается из списка {@link #findAll()},
+     * хранилища переопределяют метод для выборки только страницы.
+     *
+     * @param afterId идентификатор, после которого начинается страница
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    default List<Item> findPage(int afterId, int limit) {
+        return findAll().stream()
+                .filter(item -> item.getId() > afterId)
+                .sorted(Comparator.comparingInt(Item::getId))
+                .limit(Math.max(limit, 0))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Выполняет поиск по наименованию и возврат из хранилища списка
      * найденных заявок.
@@ -60,6 +118,53 @@ public interface Store extends AutoCloseable {
      */
     List<Item> findByName(String key);
 
+    /**
+     * Выполняет поиск заявок, наименование которых начинается
+     * с заданной строки. Символы % и _ в строке не имеют
+     * специального значения.
+     * По умолчанию заявки выбираются из списка {@link #findAll()},
+     * хранилища в базе данных выполняют поиск по индексу.
+     *
+     * @param prefix начало наименования заявки
+     * @return список заявок
+     */
+    default List<Item> findByNamePrefix(String prefix) {
+        return findAll().stream()
+                .filter(item -> item.getName() != null && item.getName().startsWith(prefix))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Выполняет поиск заявок по наименованию без учета регистра.
+     * По умолчанию заявки выбираются из списка {@link #findAll()},
+     * хранилища в базе данных выполняют поиск по индексу.
+     *
+     * @param key наименование заявки
+     * @return список заявок
+     */
+    default List<Item> findByNameIgnoreCase(String key) {
+        return findAll().stream()
+                .filter(item -> key.equalsIgnoreCase(item.getName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Выполняет полнотекстовый поиск заявок по словам наименования
+     * и описания и возврат не более limit заявок в порядке убывания
+     * релевантности. Заявка находится, если содержит хотя бы одно слово
+     * запроса, слова наименования весят больше слов описания.
+     * По умолчанию заявки выбираются из списка {@link #findAll()}
+     * и ранжируются {@link TextIndex}, хранилища переопределяют метод
+     * для поиска по индексу.
+     *
+     * @param query запрос
+     * @param limit максимальное количество заявок
+     * @return список заявок
+     */
+    default List<Item> search(String query, int limit) {
+        return TextIndex.rank(findAll(), query, limit);
+    }
+
     /**
      * Выполняет поиск по идентификатору и возврат из хранилища заявки.
      *
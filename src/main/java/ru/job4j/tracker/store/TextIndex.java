@@ -0,0 +1,223 @@
+package ru.job4j.tracker.store;
+
+import ru.job4j.tracker.model.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Инвертированный индекс слов наименования и описания заявок
+ * для полнотекстового поиска.
+ * Текст разбивается на слова из букв и цифр в нижнем регистре.
+ * Для каждого слова хранятся идентификаторы заявок и вес слова
+ * в заявке: количество вхождений в наименование, умноженное
+ * на {@link #NAME_WEIGHT}, плюс количество вхождений в описание.
+ * Релевантность заявки - сумма весов найденных слов запроса,
+ * умноженных на обратную частоту слова ln(1 + N / df), где N -
+ * количество заявок в индексе, df - количество заявок со словом.
+ * Индекс обновляется при каждом изменении заявки и не синхронизируется.
+ * @see ru.job4j.tracker.store.MemoryStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class TextIndex {
+
+    /**
+     * Вес слова наименования относительно слова описания
+     */
+    public static final int NAME_WEIGHT = 2;
+
+    /**
+     * Количество заявок, выбираемых из базы данных без полнотекстового
+     * индекса для ранжирования на одну заявку результата
+     */
+    public static final int CANDIDATES_PER_RESULT = 10;
+
+    /**
+     * Заявки и веса слов по слову
+     */
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+
+    /**
+     * Веса слов по идентификатору заявки, нужны для удаления заявки
+     * из индекса, даже если ее текст изменен в обход хранилища
+     */
+    private final Map<Integer, Map<String, Integer>> documents = new HashMap<>();
+
+    /**
+     * Разбивает текст на слова из букв и цифр в нижнем регистре.
+     *
+     * @param text текст или null
+     * @return слова в порядке следования
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Возвращает различные слова запроса.
+     *
+     * @param query запрос
+     * @return слова запроса
+     */
+    public static Set<String> terms(String query) {
+        return new LinkedHashSet<>(tokenize(query));
+    }
+
+    /**
+     * Добавляет заявку в индекс. Заявка с тем же идентификатором
+     * предварительно удаляется.
+     *
+     * @param item заявка
+     */
+    public void add(Item item) {
+        remove(item.getId());
+        Map<String, Integer> weights = new HashMap<>();
+        for (String token : tokenize(item.getName())) {
+            weights.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(item.getDescription())) {
+            weights.merge(token, 1, Integer::sum);
+        }
+        documents.put(item.getId(), weights);
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            postings.computeIfAbsent(weight.getKey(), k -> new HashMap<>())
+                    .put(item.getId(), weight.getValue());
+        }
+    }
+
+    /**
+     * Удаляет заявку из индекса.
+     *
+     * @param id идентификатор заявки
+     */
+    public void remove(int id) {
+        Map<String, Integer> weights = documents.remove(id);
+        if (weights == null) {
+            return;
+        }
+        for (String term : weights.keySet()) {
+            Map<Integer, Integer> ids = postings.get(term);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы заявок, содержащих хотя бы одно слово
+     * запроса, в порядке убывания релевантности, при равной
+     * релевантности - в порядке возрастания идентификатора.
+     *
+     * @param query запрос
+     * @param limit максимальное количество заявок
+     * @return идентификаторы заявок
+     */
+    public List<Integer> search(String query, int limit) {
+        List<Integer> rsl = new ArrayList<>();
+        if (limit <= 0) {
+            return rsl;
+        }
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : terms(query)) {
+            Map<Integer, Integer> ids = postings.get(term);
+            if (ids != null) {
+                double idf = Math.log(1 + (double) documents.size() / ids.size());
+                for (Map.Entry<Integer, Integer> id : ids.entrySet()) {
+                    scores.merge(id.getKey(), id.getValue() * idf, Double::sum);
+                }
+            }
+        }
+        Comparator<Map.Entry<Integer, Double>> byRank =
+                Map.Entry.<Integer, Double>comparingByValue()
+                        .thenComparing(Map.Entry.<Integer, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(byRank);
+        for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+            top.offer(score);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        while (!top.isEmpty()) {
+            rsl.add(top.poll().getKey());
+        }
+        Collections.reverse(rsl);
+        return rsl;
+    }
+
+    /**
+     * Возвращает количество заявок, выбираемых для ранжирования
+     * {@link #rank(Collection, String, int)} при поиске limit заявок.
+     *
+     * @param limit максимальное количество заявок результата
+     * @return количество выбираемых заявок
+     */
+    public static int candidates(int limit) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) limit * CANDIDATES_PER_RESULT);
+    }
+
+    /**
+     * Ранжирует заявки по запросу без построения постоянного индекса.
+     * Используется, когда заявки выбраны из хранилища, которое
+     * не умеет ранжировать результаты.
+     *
+     * @param items заявки
+     * @param query запрос
+     * @param limit максимальное количество заявок
+     * @return заявки в порядке убывания релевантности
+     */
+    public static List<Item> rank(Collection<Item> items, String query, int limit) {
+        TextIndex index = new TextIndex();
+        Map<Integer, Item> byId = new HashMap<>();
+        for (Item item : items) {
+            index.add(item);
+            byId.put(item.getId(), item);
+        }
+        List<Item> rsl = new ArrayList<>();
+        for (int id : index.search(query, limit)) {
+            rsl.add(byId.get(id));
+        }
+        return rsl;
+    }
+
+    /**
+     * Возвращает количество заявок в индексе.
+     *
+     * @return количество заявок
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Удаляет все заявки из индекса.
+     */
+    public void clear() {
+        postings.clear();
+        documents.clear();
+    }
+}
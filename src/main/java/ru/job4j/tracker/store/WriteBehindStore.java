@@ -0,0 +1,554 @@
+package ru.job4j.tracker.store;
+
+import ru.job4j.tracker.model.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Хранилище заявок с отложенной записью поверх другого хранилища.
+ * Добавление, замена и удаление сразу возвращают результат и сохраняются
+ * в буфере, а в хранилище записываются пакетами: когда в буфере
+ * накопится batchSize заявок или через flushIntervalMillis после
+ * предыдущей записи. Добавленные заявки записываются одним вызовом
+ * {@link Store#addAll(Collection)}, замены и удаления - по одной.
+ * Повторные изменения одной заявки до записи объединяются: записывается
+ * только последняя замена, замена добавленной заявки изменяет добавление,
+ * удаление добавленной заявки отменяет добавление.
+ * До записи добавленная заявка получает временный отрицательный
+ * идентификатор, после записи - идентификатор хранилища. В хранилище
+ * передаются копии заявок, поэтому поток записи не изменяет объекты
+ * вызывающего кода, а объект добавленной заявки сохраняет временный
+ * идентификатор. Каждый идентификатор перед обращением к буферу
+ * заменяется идентификатором хранилища, поэтому временный идентификатор
+ * и идентификатор хранилища записанной заявки - одна и та же заявка.
+ * Временный идентификатор остается действительным и после записи для
+ * последних {@link #MAX_RESOLVED} добавленных заявок, соответствие
+ * удаляется при удалении заявки по временному идентификатору.
+ * Поиск по идентификатору учитывает буфер, поиск списков заявок
+ * сначала записывает буфер в хранилище, поэтому чтение всегда видит
+ * выполненные изменения. Замена и удаление заявки, которой нет в буфере,
+ * не обращаются к хранилищу и возвращают true: существование заявки
+ * проверяется при записи, замена или удаление отсутствующей заявки
+ * не выполняется и записывается в журнал. Неизвестный временный
+ * идентификатор сразу возвращает false.
+ * Закрытие записывает весь буфер и закрывает хранилище, даже если
+ * запись завершилась ошибкой, изменения после закрытия завершаются
+ * исключением IllegalStateException.
+ * Если запись пакета завершилась ошибкой, изменения пакета теряются,
+ * ошибка записывается в журнал. Хранилище должно сообщать об ошибке
+ * добавления исключением, а не возвращать заявки без идентификатора.
+ * @see ru.job4j.tracker.store.Store
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class WriteBehindStore implements Store {
+
+    /**
+     * Наибольшее количество хранимых соответствий временных
+     * идентификаторов идентификаторам хранилища
+     */
+    public static final int MAX_RESOLVED = 10_000;
+
+    /**
+     * Журнал ошибок записи
+     */
+    private static final Logger LOG = Logger.getLogger(WriteBehindStore.class.getName());
+
+    /**
+     * Вид отложенного изменения заявки
+     */
+    private enum Kind {
+        ADD, REPLACE, DELETE
+    }
+
+    /**
+     * Отложенное изменение заявки.
+     */
+    private static final class Pending {
+
+        /**
+         * Вид изменения
+         */
+        private final Kind kind;
+
+        /**
+         * Заявка, для удаления null
+         */
+        private Item item;
+
+        /**
+         * Конструктор.
+         *
+         * @param kind вид изменения
+         * @param item заявка
+         */
+        private Pending(Kind kind, Item item) {
+            this.kind = kind;
+            this.item = item;
+        }
+    }
+
+    /**
+     * Обернутое хранилище
+     */
+    private final Store store;
+
+    /**
+     * Количество изменений в буфере, при котором начинается запись
+     */
+    private final int batchSize;
+
+    /**
+     * Поток записи буфера по времени и по размеру
+     */
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Признак запланированной записи по размеру буфера
+     */
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    /**
+     * Блокировка записи, записи пакетов выполняются по очереди
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Изменения, ожидающие записи, по идентификатору заявки
+     * в порядке выполнения, доступ под блокировкой this
+     */
+    private Map<Integer, Pending> pending = new LinkedHashMap<>();
+
+    /**
+     * Изменения, записываемые в хранилище, доступ под блокировкой this
+     */
+    private Map<Integer, Pending> inFlight = new LinkedHashMap<>();
+
+    /**
+     * Идентификаторы хранилища по временным идентификаторам
+     * записанных заявок, не больше {@link #MAX_RESOLVED} последних
+     * использованных, доступ под блокировкой this
+     */
+    private final Map<Integer, Integer> resolved = new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+            return size() > MAX_RESOLVED;
+        }
+    };
+
+    /**
+     * Признак закрытого хранилища, доступ под блокировкой this
+     */
+    private boolean closed;
+
+    /**
+     * Следующий временный идентификатор
+     */
+    private int nextTempId = -1;
+
+    /**
+     * Конструктор.
+     *
+     * @param store хранилище
+     * @param batchSize количество изменений в буфере,
+     *                  при котором начинается запись
+     * @param flushIntervalMillis интервал записи буфера, в миллисекундах
+     */
+    public WriteBehindStore(Store store, int batchSize, long flushIntervalMillis) {
+        if (batchSize < 1 || flushIntervalMillis < 1) {
+            throw new IllegalArgumentException(
+                    "batchSize and flushIntervalMillis must be positive");
+        }
+        this.store = store;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void init() {
+        store.init();
+    }
+
+    /**
+     * Сохраняет заявку в буфере и возвращает ее
+     * с временным идентификатором.
+     *
+     * @param item заявка
+     * @return заявка
+     */
+    @Override
+    public Item add(Item item) {
+        synchronized (this) {
+            checkOpen();
+            item.setId(nextTempId--);
+            pending.put(item.getId(), new Pending(Kind.ADD, item));
+        }
+        afterWrite();
+        return item;
+    }
+
+    /**
+     * Сохраняет заявки в буфере и возвращает их
+     * с временными идентификаторами.
+     *
+     * @param items заявки
+     * @return список заявок
+     */
+    @Override
+    public List<Item> addAll(Collection<Item> items) {
+        List<Item> rsl = new ArrayList<>(items);
+        synchronized (this) {
+            checkOpen();
+            for (Item item : rsl) {
+                item.setId(nextTempId--);
+                pending.put(item.getId(), new Pending(Kind.ADD, item));
+            }
+        }
+        afterWrite();
+        return rsl;
+    }
+
+    /**
+     * Сохраняет замену заявки в буфере. Повторная замена до записи
+     * заменяет предыдущую. Существование заявки, которой нет в буфере,
+     * проверяется при записи.
+     *
+     * @param id идентификатор заявки
+     * @param item заявка
+     * @return false, если заявка удалена или временный идентификатор
+     *         неизвестен, иначе true
+     * @throws IllegalStateException если хранилище закрыто
+     */
+    @Override
+    public boolean replace(int id, Item item) {
+        synchronized (this) {
+            checkOpen();
+            int key = resolve(id);
+            Pending change = pending.get(key);
+            if (missing(key, change)) {
+                return false;
+            }
+            item.setId(key);
+            if (change != null) {
+                change.item = item;
+                return true;
+            }
+            pending.put(key, new Pending(Kind.REPLACE, item));
+        }
+        afterWrite();
+        return true;
+    }
+
+    /**
+     * Сохраняет удаление заявки в буфере. Удаление заявки, добавленной
+     * после последней записи, отменяет ее добавление. Существование
+     * заявки, которой нет в буфере, проверяется при записи.
+     *
+     * @param id идентификатор заявки
+     * @return false, если заявка удалена или временный идентификатор
+     *         неизвестен, иначе true
+     * @throws IllegalStateException если хранилище закрыто
+     */
+    @Override
+    public boolean delete(int id) {
+        synchronized (this) {
+            checkOpen();
+            int key = resolve(id);
+            Pending change = pending.get(key);
+            if (change != null) {
+                return remove(id, key, change);
+            }
+            if (missing(key, null)) {
+                return false;
+            }
+            pending.put(key, new Pending(Kind.DELETE, null));
+            resolved.remove(id);
+        }
+        afterWrite();
+        return true;
+    }
+
+    /**
+     * Применяет удаление к изменению заявки в буфере
+     * и удаляет соответствие временного идентификатора.
+     *
+     * @param id переданный идентификатор заявки
+     * @param key идентификатор заявки в буфере
+     * @param change изменение заявки
+     * @return true, если заявка существовала, иначе false
+     */
+    private boolean remove(int id, int key, Pending change) {
+        if (change.kind == Kind.DELETE) {
+            return false;
+        }
+        if (change.kind == Kind.ADD) {
+            pending.remove(key);
+        } else {
+            pending.put(key, new Pending(Kind.DELETE, null));
+        }
+        resolved.remove(id);
+        return true;
+    }
+
+    /**
+     * Проверяет, что заявка точно отсутствует: удалена в буфере
+     * или в записываемом пакете, или имеет неизвестный временный
+     * идентификатор. Вызывается под блокировкой this.
+     *
+     * @param key идентификатор заявки в буфере
+     * @param change изменение заявки в буфере или null
+     * @return true, если заявка отсутствует
+     */
+    private boolean missing(int key, Pending change) {
+        Pending known = change != null ? change : inFlight.get(key);
+        return known != null ? known.kind == Kind.DELETE : key < 0;
+    }
+
+    /**
+     * Проверяет, что хранилище не закрыто. Вызывается под блокировкой this.
+     *
+     * @throws IllegalStateException если хранилище закрыто
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Write-behind store is closed");
+        }
+    }
+
+    /**
+     * Планирует запись, если буфер заполнен. Если поток записи уже
+     * остановлен закрытием, буфер запишет {@link #close()}.
+     */
+    private void afterWrite() {
+        boolean full;
+        synchronized (this) {
+            full = pending.size() >= batchSize;
+        }
+        if (full && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushRequested.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Выполняет поиск заявки с учетом буфера.
+     * Если заявка не найдена или удалена, будет возвращен null.
+     *
+     * @param id идентификатор заявки
+     * @return заявка
+     */
+    @Override
+    public Item findById(int id) {
+        int key;
+        synchronized (this) {
+            key = resolve(id);
+            Pending change = pending.get(key);
+            if (change == null) {
+                change = inFlight.get(key);
+            }
+            if (change != null) {
+                return change.item;
+            }
+        }
+        return key < 0 ? null : store.findById(key);
+    }
+
+    @Override
+    public List<Item> findAll() {
+        flush();
+        return store.findAll();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        flush();
+        store.forEach(action);
+    }
+
+    @Override
+    public List<Item> findPage(int afterId, int limit) {
+        flush();
+        return store.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Item> findByName(String key) {
+        flush();
+        return store.findByName(key);
+    }
+
+    @Override
+    public List<Item> findByNamePrefix(String prefix) {
+        flush();
+        return store.findByNamePrefix(prefix);
+    }
+
+    @Override
+    public List<Item> findByNameIgnoreCase(String key) {
+        flush();
+        return store.findByNameIgnoreCase(key);
+    }
+
+    @Override
+    public List<Item> search(String query, int limit) {
+        flush();
+        return store.search(query, limit);
+    }
+
+    /**
+     * Возвращает количество изменений, ожидающих записи.
+     *
+     * @return количество изменений
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Записывает все изменения буфера в хранилище: добавления одним
+     * пакетом, затем замены и удаления. В хранилище передаются копии
+     * заявок. Изменения, сделанные во время записи, попадают в следующий
+     * пакет, изменения добавленных заявок по временному идентификатору
+     * переносятся на идентификатор хранилища.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Item> adds = new ArrayList<>();
+            List<Integer> tempIds = new ArrayList<>();
+            Map<Integer, Pending> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                inFlight = batch;
+                for (Map.Entry<Integer, Pending> change : batch.entrySet()) {
+                    if (change.getValue().kind == Kind.ADD) {
+                        tempIds.add(change.getKey());
+                        adds.add(copy(change.getValue().item, 0));
+                    }
+                }
+            }
+            try {
+                if (!adds.isEmpty()) {
+                    List<Item> stored = store.addAll(adds);
+                    for (Item item : stored) {
+                        if (item.getId() <= 0) {
+                            throw new IllegalStateException(
+                                    "Store returned an item without id: " + item);
+                        }
+                    }
+                    synchronized (this) {
+                        for (int i = 0; i < stored.size(); i++) {
+                            int id = stored.get(i).getId();
+                            resolved.put(tempIds.get(i), id);
+                            Pending later = pending.remove(tempIds.get(i));
+                            if (later != null) {
+                                pending.putIfAbsent(id, later);
+                            }
+                        }
+                    }
+                }
+                for (Map.Entry<Integer, Pending> change : batch.entrySet()) {
+                    int id = change.getKey();
+                    Kind kind = change.getValue().kind;
+                    boolean done = true;
+                    if (kind == Kind.REPLACE) {
+                        done = store.replace(id, copy(change.getValue().item, id));
+                    } else if (kind == Kind.DELETE) {
+                        done = store.delete(id);
+                    }
+                    if (!done) {
+                        LOG.log(Level.WARNING, "Write-behind {0} skipped, no item with id {1}",
+                                new Object[] {kind, id});
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    inFlight = new LinkedHashMap<>();
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает идентификатор хранилища по временному идентификатору
+     * записанной заявки или сам идентификатор.
+     * Вызывается под блокировкой this.
+     *
+     * @param id идентификатор заявки
+     * @return идентификатор в хранилище
+     */
+    private int resolve(int id) {
+        return id < 0 ? resolved.getOrDefault(id, id) : id;
+    }
+
+    /**
+     * Создает копию заявки для записи в хранилище.
+     *
+     * @param item заявка
+     * @param id идентификатор копии
+     * @return копия заявки
+     */
+    private static Item copy(Item item, int id) {
+        Item rsl = new Item(id, item.getName());
+        rsl.setDescription(item.getDescription());
+        rsl.setCreated(item.getCreated());
+        return rsl;
+    }
+
+    /**
+     * Записывает буфер из потока записи, ошибки записываются в журнал.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOG.log(Level.SEVERE, "Write-behind flush failed, batch changes are lost", e);
+        }
+    }
+
+    /**
+     * Запрещает дальнейшие изменения, останавливает запись по времени,
+     * записывает весь буфер и закрывает хранилище. Хранилище
+     * закрывается и при ошибке записи буфера, ошибка передается дальше.
+     */
+    @Override
+    public void close() throws Exception {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            flusher.shutdown();
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+            flush();
+        } finally {
+            store.close();
+        }
+    }
+}
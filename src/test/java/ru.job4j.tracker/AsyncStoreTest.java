@@ -0,0 +1,139 @@
+package ru.job4j.tracker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.AsyncStore;
+import ru.job4j.tracker.store.ConcurrentMemoryStore;
+import ru.job4j.tracker.store.Store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тест класс асинхронного фасада хранилища заявок AsyncStore
+ * @see ru.job4j.tracker.store.AsyncStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class AsyncStoreTest {
+
+    /**
+     * Максимальное количество одновременно выполняемых операций
+     */
+    private static final int CONCURRENCY = 3;
+
+    /**
+     * Обернутое хранилище
+     */
+    private ConcurrentMemoryStore store;
+
+    /**
+     * Проверяемый фасад
+     */
+    private AsyncStore tracker;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @Before
+    public void setUp() {
+        store = new ConcurrentMemoryStore();
+        tracker = new AsyncStore(store, CONCURRENCY);
+    }
+
+    /**
+     * Закрывает фасад после каждого теста.
+     */
+    @After
+    public void tearDown() throws Exception {
+        tracker.close();
+    }
+
+    /**
+     * Выполняем проверку, что операции фасада возвращают
+     * те же результаты, что и операции хранилища.
+     */
+    @Test
+    public void whenOperationsThenSameResultsAsStore() {
+        Item item = tracker.add(new Item("printer", "paper jam")).join();
+        tracker.addAll(List.of(new Item("scanner"), new Item("printer"))).join();
+
+        assertThat(tracker.findById(item.getId()).join(), is(store.findById(item.getId())));
+        assertThat(tracker.findAll().join(), is(store.findAll()));
+        assertThat(tracker.findByName("printer").join().size(), is(2));
+        assertThat(tracker.findByNamePrefix("sc").join(), is(store.findByNamePrefix("sc")));
+        assertThat(tracker.search("jam", 10).join(), is(List.of(item)));
+        assertThat(tracker.findPage(0, 2).join(), is(store.findPage(0, 2)));
+
+        assertTrue(tracker.replace(item.getId(), new Item("copier")).join());
+        assertThat(tracker.findByNameIgnoreCase("COPIER").join().size(), is(1));
+        assertTrue(tracker.delete(item.getId()).join());
+        assertFalse(tracker.delete(item.getId()).join());
+        assertNull(tracker.findById(item.getId()).join());
+
+        List<Item> visited = new ArrayList<>();
+        tracker.forEach(visited::add).join();
+        assertThat(visited, is(store.findAll()));
+    }
+
+    /**
+     * Выполняем проверку, что к хранилищу одновременно обращается
+     * не больше потоков, чем задано, а все вызовы завершаются.
+     */
+    @Test
+    public void whenManyCallsThenConcurrencyBounded() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        Store slow = mock(Store.class);
+        when(slow.findById(anyInt())).thenAnswer(invocation -> {
+            int id = invocation.getArgument(0);
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            active.decrementAndGet();
+            return new Item(id, "name");
+        });
+        List<CompletableFuture<Item>> calls = new ArrayList<>();
+        try (AsyncStore async = new AsyncStore(slow, CONCURRENCY)) {
+            for (int i = 0; i < 100; i++) {
+                calls.add(async.findById(i));
+            }
+            CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+        }
+
+        for (int i = 0; i < calls.size(); i++) {
+            assertThat(calls.get(i).join().getId(), is(i));
+        }
+        assertTrue(String.valueOf(maxActive.get()), maxActive.get() <= CONCURRENCY);
+        verify(slow).close();
+    }
+
+    /**
+     * Выполняем проверку, что ошибка хранилища завершает
+     * результат операции исключением.
+     */
+    @Test
+    public void whenStoreFailsThenFutureCompletedExceptionally() throws Exception {
+        Store failing = mock(Store.class);
+        when(failing.findById(anyInt())).thenThrow(new IllegalStateException("down"));
+        try (AsyncStore async = new AsyncStore(failing, 1)) {
+            CompletableFuture<Item> call = async.findById(1);
+            try {
+                call.join();
+                fail();
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+}
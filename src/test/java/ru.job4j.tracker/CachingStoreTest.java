@@ -0,0 +1,178 @@
+package ru.job4j.tracker;
+
+import org.junit.Before;
+import org.junit.Test;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.CachingStore;
+import ru.job4j.tracker.store.ConcurrentMemoryStore;
+import ru.job4j.tracker.store.MemoryStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+/**
+ * Тест класс хранилища заявок с кешем по идентификатору CachingStore
+ * @see ru.job4j.tracker.store.CachingStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class CachingStoreTest {
+
+    /**
+     * Обернутое хранилище
+     */
+    private MemoryStore store;
+
+    /**
+     * Проверяемое хранилище с кешем
+     */
+    private CachingStore tracker;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @Before
+    public void setUp() {
+        store = new MemoryStore();
+        tracker = new CachingStore(store, 2);
+    }
+
+    /**
+     * Выполняем проверку, что повторный поиск заявки
+     * выполняется в кеше.
+     */
+    @Test
+    public void whenFindByIdTwiceThenSecondIsHit() {
+        Item item = tracker.add(new Item("name"));
+
+        assertThat(tracker.findById(item.getId()), is(item));
+        assertThat(tracker.findById(item.getId()), is(item));
+        assertNull(tracker.findById(100));
+        assertNull(tracker.findById(100));
+
+        assertThat(tracker.getHitCount(), is(1L));
+        assertThat(tracker.getMissCount(), is(3L));
+        assertThat(tracker.size(), is(1));
+    }
+
+    /**
+     * Выполняем проверку вытеснения заявки, к которой дольше всего
+     * не обращались.
+     */
+    @Test
+    public void whenCapacityExceededThenLeastRecentlyUsedEvicted() {
+        int first = tracker.add(new Item("first")).getId();
+        int second = tracker.add(new Item("second")).getId();
+        int third = tracker.add(new Item("third")).getId();
+        tracker.findById(first);
+        tracker.findById(second);
+        tracker.findById(first);
+        tracker.findById(third);
+
+        assertThat(tracker.getEvictionCount(), is(1L));
+        assertThat(tracker.size(), is(2));
+        long misses = tracker.getMissCount();
+        tracker.findById(first);
+        assertThat(tracker.getMissCount(), is(misses));
+        tracker.findById(second);
+        assertThat(tracker.getMissCount(), is(misses + 1));
+    }
+
+    /**
+     * Выполняем проверку, что замена и удаление заявки
+     * удаляют ее из кеша.
+     */
+    @Test
+    public void whenReplaceOrDeleteThenCachedItemInvalidated() {
+        int id = tracker.add(new Item("old")).getId();
+        tracker.findById(id);
+
+        assertTrue(tracker.replace(id, new Item("new")));
+        assertThat(tracker.findById(id).getName(), is("new"));
+        assertTrue(tracker.delete(id));
+        assertNull(tracker.findById(id));
+        assertFalse(tracker.delete(id));
+    }
+
+    /**
+     * Выполняем проверку, что на случайной последовательности операций
+     * хранилище с кешем возвращает те же результаты, что и без кеша.
+     */
+    @Test
+    public void whenRandomOperationsThenSameResultsAsUncachedStore() {
+        MemoryStore expected = new MemoryStore();
+        Random random = new Random(17);
+        for (int i = 0; i < 5_000; i++) {
+            int id = random.nextInt(30) + 1;
+            String name = "name" + random.nextInt(5);
+            Item item = new Item(name);
+            Item copy = new Item(name);
+            copy.setCreated(item.getCreated());
+            switch (random.nextInt(5)) {
+                case 0:
+                    assertThat(tracker.add(item), is(expected.add(copy)));
+                    break;
+                case 1:
+                    assertThat(tracker.replace(id, item), is(expected.replace(id, copy)));
+                    break;
+                case 2:
+                    assertThat(tracker.delete(id), is(expected.delete(id)));
+                    break;
+                case 3:
+                    assertThat(tracker.findByName(name), is(expected.findByName(name)));
+                    break;
+                default:
+                    assertThat(tracker.findById(id), is(expected.findById(id)));
+            }
+        }
+        assertTrue(tracker.getHitCount() > 0);
+        assertTrue(tracker.getEvictionCount() > 0);
+    }
+
+    /**
+     * Выполняем проверку, что при параллельных поисках и заменах
+     * в кеше не остается заявок, замененных в хранилище.
+     */
+    @Test
+    public void whenConcurrentFindAndReplaceThenCacheNotStale() throws Exception {
+        ConcurrentMemoryStore backend = new ConcurrentMemoryStore();
+        CachingStore cached = new CachingStore(backend, 8);
+        int size = 16;
+        for (int i = 0; i < size; i++) {
+            backend.add(new Item("name"));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            tasks.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    int id = random.nextInt(size) + 1;
+                    if (random.nextInt(10) == 0) {
+                        cached.replace(id, new Item("name" + thread + "-" + i));
+                    } else {
+                        assertNotNull(cached.findById(id));
+                    }
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        pool.shutdown();
+
+        for (int id = 1; id <= size; id++) {
+            assertThat(cached.findById(id), is(backend.findById(id)));
+        }
+    }
+}
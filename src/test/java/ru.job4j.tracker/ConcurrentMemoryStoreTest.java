@@ -0,0 +1,299 @@
+package ru.job4j.tracker;
+
+import org.junit.Before;
+import org.junit.Test;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.ConcurrentMemoryStore;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+/**
+ * Тест класс реализации потокобезопасного хранилища заявок
+ * с использованием ConcurrentMemoryStore
+ * @see ru.job4j.tracker.store.ConcurrentMemoryStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class ConcurrentMemoryStoreTest {
+
+    /**
+     * Количество потоков в нагрузочных тестах
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * Количество операций каждого потока в нагрузочных тестах
+     */
+    private static final int OPERATIONS = 10_000;
+
+    /**
+     * Объект доступа к хранилищу
+     */
+    private ConcurrentMemoryStore tracker;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @Before
+    public void setUp() {
+        tracker = new ConcurrentMemoryStore();
+    }
+
+    /**
+     * Запускает задачи в отдельных потоках и возвращает их результаты.
+     *
+     * @param tasks задачи
+     * @param <T> тип результата задачи
+     * @return результаты задач
+     */
+    private <T> List<T> runAll(List<Callable<T>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<T> rsl = new ArrayList<>();
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                rsl.add(future.get());
+            }
+            return rsl;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Выполняем проверку добавления, замены и удаления заявки
+     * в одном потоке.
+     */
+    @Test
+    public void whenAddReplaceDeleteSuccess() {
+        int id = tracker.add(new Item("name")).getId();
+
+        assertTrue(tracker.replace(id, new Item("newName")));
+        assertThat(tracker.findById(id).getName(), is("newName"));
+        assertThat(tracker.findByName("name").size(), is(0));
+        assertThat(tracker.findByName("newName").get(0).getId(), is(id));
+        assertTrue(tracker.delete(id));
+        assertNull(tracker.findById(id));
+        assertFalse(tracker.replace(id, new Item("name")));
+        assertFalse(tracker.delete(id));
+    }
+
+    /**
+     * Выполняем проверку, что неудачная замена не меняет
+     * идентификатор переданной заявки.
+     */
+    @Test
+    public void whenReplaceMissingThenItemIdUnchanged() {
+        Item item = new Item(7, "name");
+
+        assertFalse(tracker.replace(100, item));
+        assertThat(item.getId(), is(7));
+    }
+
+    /**
+     * Выполняем проверку порядка заявок, возвращаемых методом
+     * {@link ConcurrentMemoryStore#findAll()}.
+     */
+    @Test
+    public void whenFindAllThenInsertionOrder() {
+        Item first = tracker.add(new Item("first"));
+        Item second = tracker.add(new Item("second"));
+
+        List<Item> result = tracker.findAll();
+
+        assertThat(result.get(0).getId(), is(first.getId()));
+        assertThat(result.get(1).getId(), is(second.getId()));
+    }
+
+    /**
+     * Выполняем проверку параллельного добавления заявок.
+     * Все выданные идентификаторы должны быть уникальны,
+     * ни одна заявка не должна потеряться.
+     */
+    @Test
+    public void whenConcurrentAddThenNoIdsLostOrDuplicated() throws Exception {
+        List<Callable<List<Integer>>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                List<Integer> ids = new ArrayList<>(OPERATIONS);
+                for (int i = 0; i < OPERATIONS; i++) {
+                    ids.add(tracker.add(new Item("name" + i % 10)).getId());
+                }
+                return ids;
+            });
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (List<Integer> part : runAll(tasks)) {
+            ids.addAll(part);
+        }
+
+        assertThat(ids.size(), is(THREADS * OPERATIONS));
+        assertThat(tracker.findAll().size(), is(THREADS * OPERATIONS));
+        for (Integer id : ids) {
+            assertThat(tracker.findById(id).getId(), is(id));
+        }
+        int byName = 0;
+        for (int i = 0; i < 10; i++) {
+            byName += tracker.findByName("name" + i).size();
+        }
+        assertThat(byName, is(THREADS * OPERATIONS));
+    }
+
+    /**
+     * Выполняем проверку параллельной замены одних и тех же заявок.
+     * После окончания работы потоков каждая заявка должна находиться
+     * по своему текущему наименованию и только по нему.
+     */
+    @Test
+    public void whenConcurrentReplaceThenNameIndexConsistent() throws Exception {
+        int size = 100;
+        for (int i = 0; i < size; i++) {
+            tracker.add(new Item("a"));
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String name = t % 2 == 0 ? "a" : "b";
+            tasks.add(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    tracker.replace(1 + i % size, new Item(name));
+                }
+                return null;
+            });
+        }
+
+        runAll(tasks);
+
+        int named = tracker.findByName("a").size() + tracker.findByName("b").size();
+        assertThat(named, is(size));
+        for (Item item : tracker.findAll()) {
+            assertTrue(tracker.findByName(item.getName()).contains(item));
+        }
+    }
+
+    /**
+     * Выполняем проверку параллельной замены одной заявки разными
+     * наименованиями. После каждого раунда заявка должна находиться
+     * по своему текущему наименованию.
+     */
+    @Test
+    public void whenSameIdReplacedConcurrentlyThenFoundByCurrentName() throws Exception {
+        int id = tracker.add(new Item("name0")).getId();
+        for (int round = 0; round < 20; round++) {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                String name = "name" + t % 4;
+                tasks.add(() -> {
+                    for (int i = 0; i < OPERATIONS / 10; i++) {
+                        tracker.replace(id, new Item(name));
+                    }
+                    return null;
+                });
+            }
+
+            runAll(tasks);
+
+            Item item = tracker.findById(id);
+            assertThat(tracker.findByName(item.getName()), is(List.of(item)));
+        }
+    }
+
+    /**
+     * Выполняем проверку параллельного удаления заявок.
+     * Каждая заявка должна быть удалена ровно один раз.
+     */
+    @Test
+    public void whenConcurrentDeleteThenEachDeletedOnce() throws Exception {
+        for (int i = 0; i < OPERATIONS; i++) {
+            tracker.add(new Item("name"));
+        }
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                int deleted = 0;
+                for (int id = 1; id <= OPERATIONS; id++) {
+                    if (tracker.delete(id)) {
+                        deleted++;
+                    }
+                }
+                return deleted;
+            });
+        }
+
+        int deleted = 0;
+        for (Integer part : runAll(tasks)) {
+            deleted += part;
+        }
+
+        assertThat(deleted, is(OPERATIONS));
+        assertThat(tracker.findAll().size(), is(0));
+        assertThat(tracker.findByName("name").size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку параллельного пакетного добавления заявок.
+     * Каждый пакет должен получить непрерывный блок идентификаторов.
+     */
+    @Test
+    public void whenConcurrentAddAllThenEachBatchGetsContiguousIds() throws Exception {
+        List<Callable<List<Item>>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                List<Item> batch = new ArrayList<>();
+                for (int i = 0; i < 1000; i++) {
+                    batch.add(new Item("name"));
+                }
+                return tracker.addAll(batch);
+            });
+        }
+
+        for (List<Item> batch : runAll(tasks)) {
+            int first = batch.get(0).getId();
+            for (int i = 0; i < batch.size(); i++) {
+                assertThat(batch.get(i).getId(), is(first + i));
+            }
+        }
+        assertThat(tracker.findAll().size(), is(THREADS * 1000));
+        assertThat(tracker.findByName("name").size(), is(THREADS * 1000));
+    }
+
+    /**
+     * Выполняем проверку постраничного чтения с удалением и добавлением
+     * заявок между запросами страниц. Удаленные заявки не должны
+     * попасть в следующие страницы, остальные заявки должны быть
+     * прочитаны ровно один раз в порядке возрастания идентификатора.
+     */
+    @Test
+    public void whenDeleteBetweenPagesThenNoSkipsOrRepeats() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(tracker.add(new Item("name" + i)).getId());
+        }
+
+        List<Item> first = tracker.findPage(0, 3);
+        tracker.delete(ids.get(2));
+        tracker.delete(ids.get(3));
+        ids.add(tracker.add(new Item("added")).getId());
+        List<Integer> read = new ArrayList<>();
+        first.forEach(item -> read.add(item.getId()));
+        int after = first.get(first.size() - 1).getId();
+        List<Item> page = tracker.findPage(after, 3);
+        while (!page.isEmpty()) {
+            page.forEach(item -> read.add(item.getId()));
+            page = tracker.findPage(page.get(page.size() - 1).getId(), 3);
+        }
+
+        ids.remove(3);
+        assertThat(read, is(ids));
+    }
+}
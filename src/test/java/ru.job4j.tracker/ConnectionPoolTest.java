@@ -0,0 +1,553 @@
+package ru.job4j.tracker;
+
+import org.junit.After;
+import org.h2.jdbc.JdbcConnection;
+import org.junit.Test;
+import ru.job4j.tracker.store.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+/**
+ * Тест класс пула соединений с базой данных
+ * @see ru.job4j.tracker.store.ConnectionPool
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class ConnectionPoolTest {
+
+    /**
+     * Количество потоков в нагрузочном тесте
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * Количество запросов каждого потока в нагрузочном тесте
+     */
+    private static final int QUERIES = 5;
+
+    /**
+     * Время выполнения запроса в нагрузочном тесте в миллисекундах
+     */
+    private static final int QUERY_MILLIS = 20;
+
+    /**
+     * Адрес базы данных в памяти
+     */
+    private static final String URL = "jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1";
+
+    /**
+     * Пул соединений
+     */
+    private ConnectionPool pool;
+
+    /**
+     * Функция базы данных, имитирующая долгий запрос.
+     *
+     * @param millis время выполнения в миллисекундах
+     * @return время выполнения
+     */
+    public static int pause(int millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return millis;
+    }
+
+    /**
+     * Создает свойства пула к базе данных в памяти.
+     *
+     * @param maxSize максимальное количество соединений
+     * @return свойства пула
+     */
+    private static Properties config(int maxSize) {
+        Properties config = new Properties();
+        config.setProperty("url", URL);
+        config.setProperty("username", "");
+        config.setProperty("password", "");
+        config.setProperty("driver-class-name", "org.h2.Driver");
+        config.setProperty("pool.max-size", String.valueOf(maxSize));
+        config.setProperty("pool.min-idle", "0");
+        config.setProperty("pool.max-wait-ms", "5000");
+        return config;
+    }
+
+    /**
+     * Закрывает пул после каждого теста.
+     */
+    @After
+    public void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Выполняем проверку возврата соединения в пул при его закрытии.
+     * Повторный запрос должен получить то же физическое соединение.
+     */
+    @Test
+    public void whenCloseThenConnectionReturnedToPool() throws SQLException {
+        pool = new ConnectionPool(config(2));
+
+        Connection first = pool.getConnection();
+        int session = sessionId(first);
+        assertThat(pool.getActiveCount(), is(1));
+        assertThat(pool.getIdleCount(), is(0));
+        first.close();
+        assertTrue(first.isClosed());
+        assertThat(pool.getActiveCount(), is(0));
+        assertThat(pool.getIdleCount(), is(1));
+
+        try (Connection second = pool.getConnection()) {
+            assertThat(sessionId(second), is(session));
+        }
+        assertThat(pool.getBorrowCount(), is(2L));
+    }
+
+    /**
+     * Выполняем проверку запрета использования соединения после
+     * его возврата в пул.
+     */
+    @Test(expected = SQLException.class)
+    public void whenUseClosedConnectionThenException() throws SQLException {
+        pool = new ConnectionPool(config(1));
+        Connection cn = pool.getConnection();
+        cn.close();
+
+        cn.createStatement();
+    }
+
+    /**
+     * Выполняем проверку ожидания соединения при исчерпании пула.
+     * Если соединение не освободилось за время ожидания,
+     * выбрасывается исключение.
+     */
+    @Test
+    public void whenPoolExhaustedThenWaitTimesOut() throws SQLException {
+        Properties config = config(1);
+        config.setProperty("pool.max-wait-ms", "100");
+        pool = new ConnectionPool(config);
+
+        try (Connection ignored = pool.getConnection()) {
+            pool.getConnection();
+            fail("Expected timeout");
+        } catch (SQLException e) {
+            assertTrue(e.getMessage().startsWith("Timeout"));
+        }
+        assertTrue(pool.getMaxWaitMillis() >= 100);
+        assertThat(pool.getActiveCount(), is(0));
+    }
+
+    /**
+     * Выполняем проверку выдачи освободившегося соединения
+     * ожидающему потоку и учета времени ожидания.
+     */
+    @Test
+    public void whenConnectionReleasedThenWaiterGetsIt() throws Exception {
+        pool = new ConnectionPool(config(1));
+        Connection held = pool.getConnection();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiter = executor.submit(() -> {
+                try (Connection cn = pool.getConnection()) {
+                    return cn.isValid(1);
+                }
+            });
+            while (pool.getWaitingCount() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            held.close();
+
+            assertTrue(waiter.get(5, TimeUnit.SECONDS));
+            assertTrue(pool.getMaxWaitMillis() >= 50);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Выполняем проверку замены неработоспособного соединения
+     * при выдаче из пула.
+     */
+    @Test
+    public void whenIdleConnectionBrokenThenReplacedOnBorrow() throws SQLException {
+        pool = new ConnectionPool(config(1));
+        int session;
+        try (Connection cn = pool.getConnection()) {
+            session = sessionId(cn);
+        }
+        try (Connection admin = DriverManager.getConnection(URL);
+             Statement statement = admin.createStatement()) {
+            statement.execute("call abort_session(" + session + ")");
+        }
+
+        try (Connection cn = pool.getConnection()) {
+            assertNotEquals(session, sessionId(cn));
+        }
+        assertThat(pool.getInvalidCount(), is(1L));
+    }
+
+    /**
+     * Выполняем проверку восстановления минимального количества
+     * свободных соединений после закрытия неработоспособного соединения.
+     */
+    @Test
+    public void whenIdleBelowMinimumThenToppedUp() throws Exception {
+        Properties config = config(3);
+        config.setProperty("pool.min-idle", "2");
+        config.setProperty("pool.eviction-interval-ms", "20");
+        pool = new ConnectionPool(config);
+        try (Connection cn = pool.getConnection();
+             Statement statement = cn.createStatement()) {
+            statement.execute("call abort_session(session_id())");
+        } catch (SQLException ignored) {
+        }
+        assertThat(pool.getIdleCount(), is(1));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getIdleCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(pool.getIdleCount(), is(2));
+    }
+
+    /**
+     * Выполняем проверку, что выдаваемое соединение не раскрывает
+     * физическое соединение.
+     */
+    @Test
+    public void whenUnwrapThenPhysicalConnectionHidden() throws SQLException {
+        pool = new ConnectionPool(config(1));
+        try (Connection cn = pool.getConnection()) {
+            assertSame(cn, cn.unwrap(Connection.class));
+            assertTrue(cn.isWrapperFor(Connection.class));
+            assertFalse(cn.isWrapperFor(JdbcConnection.class));
+            assertThrows(SQLException.class, () -> cn.unwrap(JdbcConnection.class));
+        }
+        assertThat(pool.getIdleCount(), is(1));
+    }
+
+    /**
+     * Возвращает идентификатор сессии H2 соединения.
+     *
+     * @param cn соединение
+     * @return идентификатор сессии
+     */
+    private static int sessionId(Connection cn) throws SQLException {
+        try (Statement statement = cn.createStatement();
+             ResultSet rs = statement.executeQuery("select session_id()")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Выполняем проверку отмены незавершенной транзакции
+     * при возврате соединения в пул.
+     */
+    @Test
+    public void whenReturnedInTransactionThenRolledBack() throws SQLException {
+        pool = new ConnectionPool(config(1));
+        try (Connection cn = pool.getConnection();
+             Statement statement = cn.createStatement()) {
+            statement.execute("create table if not exists rollback_check(id int)");
+            statement.execute("delete from rollback_check");
+        }
+        try (Connection cn = pool.getConnection();
+             Statement statement = cn.createStatement()) {
+            cn.setAutoCommit(false);
+            statement.execute("insert into rollback_check values (1)");
+        }
+
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement("select count(*) from rollback_check")) {
+            assertTrue(cn.getAutoCommit());
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertThat(rs.getInt(1), is(0));
+            }
+        }
+    }
+
+    /**
+     * Выполняем проверку закрытия соединений,
+     * простаивающих дольше допустимого.
+     */
+    @Test
+    public void whenIdleTimeoutThenConnectionsEvicted() throws Exception {
+        Properties config = config(3);
+        config.setProperty("pool.min-idle", "1");
+        config.setProperty("pool.idle-timeout-ms", "50");
+        config.setProperty("pool.eviction-interval-ms", "20");
+        pool = new ConnectionPool(config);
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            connections.add(pool.getConnection());
+        }
+        for (Connection cn : connections) {
+            cn.close();
+        }
+        assertThat(pool.getIdleCount(), is(3));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getIdleCount() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(pool.getIdleCount(), is(1));
+        assertThat(pool.getEvictedCount(), is(2L));
+    }
+
+    /**
+     * Выполняем проверку обнаружения утечки соединения.
+     * Соединение, удерживаемое дольше порога, должно быть учтено
+     * как утечка один раз, возвращенное вовремя - не должно.
+     */
+    @Test
+    public void whenConnectionHeldTooLongThenLeakDetected() throws Exception {
+        Properties config = config(2);
+        config.setProperty("pool.leak-detection-threshold-ms", "50");
+        pool = new ConnectionPool(config);
+        pool.getConnection().close();
+        Connection leaked = pool.getConnection();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+
+        assertThat(pool.getLeakCount(), is(1L));
+        leaked.close();
+        assertThat(pool.getActiveCount(), is(0));
+    }
+
+    /**
+     * Выполняем проверку отключенного обнаружения утечек.
+     */
+    @Test
+    public void whenLeakDetectionDisabledThenNoLeaks() throws Exception {
+        pool = new ConnectionPool(config(1));
+        try (Connection cn = pool.getConnection()) {
+            Thread.sleep(100);
+        }
+
+        assertThat(pool.getLeakCount(), is(0L));
+    }
+
+    /**
+     * Создает пул с кешем подготовленных запросов.
+     *
+     * @param cacheSize размер кеша
+     * @return пул соединений
+     */
+    private static ConnectionPool cachingPool(int cacheSize) {
+        Properties config = config(1);
+        config.setProperty("pool.statement-cache-size", String.valueOf(cacheSize));
+        return new ConnectionPool(config);
+    }
+
+    /**
+     * Выполняем проверку повторного использования подготовленного запроса.
+     * Повторная подготовка того же запроса должна вернуть тот же
+     * физический запрос с очищенными параметрами.
+     */
+    @Test
+    public void whenSameStatementPreparedAgainThenCacheHit() throws SQLException {
+        pool = cachingPool(2);
+        PreparedStatement raw;
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement("select ?")) {
+            raw = ps.unwrap(PreparedStatement.class);
+            ps.setInt(1, 1);
+            ps.executeQuery().close();
+        }
+
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement("select ?")) {
+            assertSame(raw, ps.unwrap(PreparedStatement.class));
+            assertFalse(raw.isClosed());
+            try {
+                ps.executeQuery();
+                fail("Expected parameter not set");
+            } catch (SQLException e) {
+                assertThat(pool.getStatementCacheHits(), is(1L));
+            }
+        }
+        assertThat(pool.getStatementCacheMisses(), is(1L));
+    }
+
+    /**
+     * Выполняем проверку вытеснения из заполненного кеша запроса,
+     * который дольше всех не использовался.
+     */
+    @Test
+    public void whenCacheFullThenLeastRecentlyUsedClosed() throws SQLException {
+        pool = cachingPool(2);
+        try (Connection cn = pool.getConnection()) {
+            PreparedStatement first = cn.prepareStatement("select 1");
+            PreparedStatement raw = first.unwrap(PreparedStatement.class);
+            first.close();
+            cn.prepareStatement("select 2").close();
+            cn.prepareStatement("select 1").close();
+            cn.prepareStatement("select 3").close();
+            assertFalse(raw.isClosed());
+            cn.prepareStatement("select 4").close();
+
+            assertTrue(raw.isClosed());
+        }
+        assertThat(pool.getStatementCacheHits(), is(1L));
+        assertThat(pool.getStatementCacheMisses(), is(4L));
+    }
+
+    /**
+     * Выполняем проверку подготовки запроса, уже выданного из кеша
+     * и не закрытого. Должен быть создан отдельный запрос.
+     */
+    @Test
+    public void whenStatementInUseThenSeparateStatementPrepared() throws SQLException {
+        pool = cachingPool(2);
+        try (Connection cn = pool.getConnection();
+             PreparedStatement outer = cn.prepareStatement("select ?");
+             PreparedStatement inner = cn.prepareStatement("select ?")) {
+            assertNotSame(outer.unwrap(PreparedStatement.class),
+                    inner.unwrap(PreparedStatement.class));
+            outer.setInt(1, 1);
+            inner.setInt(1, 2);
+            try (ResultSet first = outer.executeQuery();
+                 ResultSet second = inner.executeQuery()) {
+                assertTrue(first.next() && second.next());
+                assertThat(first.getInt(1) + second.getInt(1), is(3));
+            }
+        }
+        assertThat(pool.getStatementCacheMisses(), is(2L));
+    }
+
+    /**
+     * Выполняем проверку восстановления настроек выполнения запроса
+     * при возврате в кеш: следующая выдача того же запроса должна
+     * получить значения драйвера по умолчанию.
+     */
+    @Test
+    public void whenSettingsChangedThenResetOnReturnToCache() throws SQLException {
+        pool = cachingPool(2);
+        int fetchSize;
+        int maxRows;
+        int timeout;
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement("select 1")) {
+            fetchSize = ps.getFetchSize();
+            maxRows = ps.getMaxRows();
+            timeout = ps.getQueryTimeout();
+            ps.setFetchSize(fetchSize + 100);
+            ps.setMaxRows(maxRows + 10);
+            ps.setQueryTimeout(timeout + 30);
+        }
+
+        try (Connection cn = pool.getConnection();
+             PreparedStatement ps = cn.prepareStatement("select 1")) {
+            assertThat(pool.getStatementCacheHits(), is(1L));
+            assertThat(ps.getFetchSize(), is(fetchSize));
+            assertThat(ps.getMaxRows(), is(maxRows));
+            assertThat(ps.getQueryTimeout(), is(timeout));
+        }
+    }
+
+    /**
+     * Выполняем проверку удаления из кеша запроса, выполнявшего пакет.
+     */
+    @Test
+    public void whenStatementBatchedThenNotReturnedToCache() throws SQLException {
+        pool = cachingPool(2);
+        try (Connection cn = pool.getConnection()) {
+            try (Statement statement = cn.createStatement()) {
+                statement.execute("create table if not exists batch_check(id int)");
+            }
+            PreparedStatement ps = cn.prepareStatement("insert into batch_check values (?)");
+            PreparedStatement raw = ps.unwrap(PreparedStatement.class);
+            ps.setInt(1, 1);
+            ps.addBatch();
+            ps.executeBatch();
+            ps.close();
+
+            assertTrue(raw.isClosed());
+            cn.prepareStatement("insert into batch_check values (?)").close();
+        }
+        assertThat(pool.getStatementCacheHits(), is(0L));
+        assertThat(pool.getStatementCacheMisses(), is(2L));
+    }
+
+    /**
+     * Выполняет нагрузку запросами из нескольких потоков
+     * и возвращает затраченное время в наносекундах.
+     *
+     * @param maxSize максимальное количество соединений
+     * @return затраченное время
+     */
+    private long loadWithPoolSize(int maxSize) throws Exception {
+        pool = new ConnectionPool(config(maxSize));
+        try (Connection cn = pool.getConnection();
+             Statement statement = cn.createStatement()) {
+            statement.execute("create alias if not exists pause for '"
+                    + ConnectionPoolTest.class.getName() + ".pause'");
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < QUERIES; i++) {
+                    try (Connection cn = pool.getConnection();
+                         PreparedStatement ps = cn.prepareStatement("select pause(?)")) {
+                        ps.setInt(1, QUERY_MILLIS);
+                        ps.executeQuery().close();
+                    }
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+            pool.close();
+        }
+    }
+
+    /**
+     * Выполняем проверку роста пропускной способности с увеличением
+     * размера пула при параллельной нагрузке запросами, время
+     * выполнения которых определяется ожиданием базы данных.
+     * С одним соединением запросы выполняются последовательно,
+     * с четырьмя соединениями время нагрузки должно сократиться
+     * более чем вдвое.
+     */
+    @Test
+    public void whenLargerPoolThenHigherThroughput() throws Exception {
+        long single = loadWithPoolSize(1);
+        long four = loadWithPoolSize(4);
+
+        assertTrue("single: " + single + " ns, four: " + four + " ns", single > 2 * four);
+        long sequential = (long) THREADS * QUERIES * QUERY_MILLIS;
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(single) >= sequential);
+    }
+}
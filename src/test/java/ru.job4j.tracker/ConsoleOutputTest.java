@@ -0,0 +1,60 @@
+package ru.job4j.tracker;
+
+import org.junit.Test;
+import ru.job4j.tracker.io.ConsoleOutput;
+import ru.job4j.tracker.model.Item;
+
+import java.io.StringWriter;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Тест класс вывода в консоль ConsoleOutput
+ * @see ru.job4j.tracker.io.ConsoleOutput
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class ConsoleOutputTest {
+
+    /**
+     * Выполняем проверку, что вывод накапливается в буфере
+     * и записывается при вызове flush.
+     */
+    @Test
+    public void whenPrintThenWrittenOnFlush() {
+        StringWriter console = new StringWriter();
+        ConsoleOutput out = new ConsoleOutput(console);
+        Item item = new Item(1, "name");
+
+        out.println("header");
+        out.printItem(item);
+        out.println(null);
+        assertThat(console.toString(), is(""));
+
+        out.flush();
+        assertThat(console.toString(), is("header" + System.lineSeparator()
+                + item + System.lineSeparator()
+                + "null" + System.lineSeparator()));
+    }
+
+    /**
+     * Выполняем проверку, что вывод больше буфера записывается
+     * без потерь и в порядке вывода.
+     */
+    @Test
+    public void whenOutputExceedsBufferThenWrittenInOrder() {
+        StringWriter console = new StringWriter();
+        ConsoleOutput out = new ConsoleOutput(console);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            Item item = new Item(i, "name" + "x".repeat(i % 300));
+            out.printItem(item);
+            expected.append(item).append(System.lineSeparator());
+        }
+        assertThat(console.toString().length() > 0, is(true));
+
+        out.flush();
+        assertThat(console.toString(), is(expected.toString()));
+    }
+}
@@ -1,17 +1,34 @@
 package ru.job4j.tracker;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.hibernate.stat.Statistics;
 import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.ConnectionPool;
 import ru.job4j.tracker.store.HibernateStore;
 import ru.job4j.tracker.store.Store;
-
+import ru.job4j.tracker.store.TextIndex;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Тест класс реализации хранилища заявок с использованием Hibernate
@@ -21,6 +38,12 @@ import static org.junit.Assert.assertThat;
  */
 public class HibernateStoreTest {
 
+    /**
+     * Адрес базы данных в памяти из тестовой конфигурации Hibernate
+     */
+    private static final String URL =
+            "jdbc:h2:mem:cars;MODE=PostgreSQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE;";
+
     /**
      * Объект доступа к хранилищу
      */
@@ -41,6 +64,30 @@ public class HibernateStoreTest {
         item = new Item("name1", "description1");
     }
 
+    /**
+     * Закрывает хранилище и его кеш после каждого теста.
+     */
+    @After
+    public void closeStore() throws Exception {
+        tracker.close();
+    }
+
+    /**
+     * Заменяет хранилище теста хранилищем со сбором статистики Hibernate
+     * и возвращает ее. Статистика включается только в тестах,
+     * которые ее проверяют, без журнала метрик каждой сессии.
+     *
+     * @return статистика Hibernate
+     */
+    private Statistics statistics() throws Exception {
+        tracker.close();
+        HibernateStore store = new HibernateStore(Map.of(
+                "hibernate.generate_statistics", "true",
+                "hibernate.session.events.log", "false"));
+        tracker = store;
+        return store.getStatistics();
+    }
+
     /**
      * Выполняем проверку добавление заявки в хранилище.
      * Через вызов метода {@link HibernateStore#findAll()}
@@ -217,4 +264,417 @@ public class HibernateStoreTest {
 
         assertThat(result.size(), is(0));
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняем проверку пакетного добавления заявок.
+     * Количество заявок превышает размер пакета, все заявки
+     * должны получить идентификаторы и сохраниться в хранилище.
+     */
+    @Test
+    public void whenAddAllSuccess() {
+        List<Item> batch = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            batch.add(new Item("name" + i, "description" + i));
+        }
+
+        List<Item> result = tracker.addAll(batch);
+
+        assertThat(result.size(), is(2500));
+        assertThat(tracker.findAll().size(), is(2500));
+        Item last = result.get(2499);
+        assertThat(tracker.findById(last.getId()).getName(), is("name2499"));
+    }
+
+    /**
+     * Выполняем проверку пакетной вставки при добавлении заявок.
+     * Идентификаторы резервируются диапазонами последовательности,
+     * а вставки отправляются пакетами, поэтому подготавливается
+     * один запрос к последовательности на каждый диапазон и один
+     * запрос вставки на все пакеты вместо запроса на каждую заявку.
+     */
+    @Test
+    public void whenAddAllThenInsertsBatched() throws Exception {
+        Statistics statistics = statistics();
+        List<Item> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            batch.add(new Item("name" + i, "description" + i));
+        }
+        statistics.clear();
+
+        List<Item> result = tracker.addAll(batch);
+
+        long ranges = 500 / Item.ID_ALLOCATION_SIZE;
+        assertThat(statistics.getPrepareStatementCount(), is(ranges + 1));
+        assertThat(statistics.getEntityInsertCount(), is(500L));
+        assertThat(result.get(499).getId() - result.get(0).getId(), is(499));
+    }
+
+    /**
+     * Выполняем проверку потокового обхода заявок.
+     */
+    @Test
+    public void whenForEachThenAllItemsVisited() {
+        for (int i = 0; i < 25; i++) {
+            tracker.add(new Item("name" + i, "description" + i));
+        }
+        List<Item> visited = new ArrayList<>();
+
+        tracker.forEach(visited::add);
+
+        assertThat(visited.size(), is(25));
+        assertThat(visited.get(24).getDescription(), is("description24"));
+    }
+
+    /**
+     * Выполняем проверку постраничного чтения с удалением и добавлением
+     * заявок между запросами страниц. Удаленные заявки не должны
+     * попасть в следующие страницы, остальные заявки должны быть
+     * прочитаны ровно один раз в порядке возрастания идентификатора.
+     */
+    @Test
+    public void whenDeleteBetweenPagesThenNoSkipsOrRepeats() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(tracker.add(new Item("name" + i)).getId());
+        }
+
+        List<Item> first = tracker.findPage(0, 3);
+        tracker.delete(ids.get(2));
+        tracker.delete(ids.get(3));
+        ids.add(tracker.add(new Item("added")).getId());
+        List<Integer> read = new ArrayList<>();
+        first.forEach(item -> read.add(item.getId()));
+        int after = first.get(first.size() - 1).getId();
+        List<Item> page = tracker.findPage(after, 3);
+        while (!page.isEmpty()) {
+            page.forEach(item -> read.add(item.getId()));
+            page = tracker.findPage(page.get(page.size() - 1).getId(), 3);
+        }
+
+        ids.remove(3);
+        assertThat(read, is(ids));
+    }
+
+    /**
+     * Выполняем проверку количества обращений к базе данных
+     * при замене и удалении заявки. Каждая операция, успешная
+     * или нет, должна открывать одну сессию и выполнять один запрос.
+     */
+    @Test
+    public void whenReplaceAndDeleteThenSingleStatementEach() throws Exception {
+        Statistics statistics = statistics();
+        int id = tracker.add(item).getId();
+        statistics.clear();
+
+        assertThat(tracker.replace(id, new Item("name2", "description2")), is(true));
+        assertThat(tracker.replace(id + 1, new Item("name3", "description3")), is(false));
+        assertThat(tracker.delete(id + 1), is(false));
+        assertThat(tracker.delete(id), is(true));
+
+        assertThat(statistics.getSessionOpenCount(), is(4L));
+        assertThat(statistics.getPrepareStatementCount(), is(4L));
+        assertThat(statistics.getEntityLoadCount(), is(0L));
+    }
+
+    /**
+     * Выполняем проверку чтения заявки по идентификатору из кеша
+     * второго уровня. Добавленная заявка помещается в кеш,
+     * чтения не должны обращаться к базе данных.
+     */
+    @Test
+    public void whenFindByIdRepeatedThenSecondLevelCacheHits() throws Exception {
+        Statistics statistics = statistics();
+        int id = tracker.add(item).getId();
+        statistics.clear();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(tracker.findById(id).getName(), is("name1"));
+        }
+
+        assertThat(statistics.getSecondLevelCacheMissCount(), is(0L));
+        assertThat(statistics.getSecondLevelCacheHitCount(), is(10L));
+        assertThat(statistics.getPrepareStatementCount(), is(0L));
+    }
+
+    /**
+     * Выполняем проверку кеширования результатов поиска по наименованию.
+     * Первый поиск выполняет запрос, повторные берут результат из кеша.
+     */
+    @Test
+    public void whenFindByNameRepeatedThenQueryCacheHits() throws Exception {
+        Statistics statistics = statistics();
+        tracker.add(item);
+        statistics.clear();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(tracker.findByName("name1").size(), is(1));
+        }
+
+        assertThat(statistics.getQueryCacheMissCount(), is(1L));
+        assertThat(statistics.getQueryCacheHitCount(), is(9L));
+        assertThat(statistics.getPrepareStatementCount(), is(1L));
+    }
+
+    /**
+     * Выполняем проверку кеша второго уровня после замены и удаления
+     * заявки. Изменяется только запись измененной заявки, остальные
+     * заявки читаются из кеша без обращения к базе данных.
+     */
+    @Test
+    public void whenReplaceAndDeleteThenOtherItemsStayCached() throws Exception {
+        Statistics statistics = statistics();
+        int id = tracker.add(item).getId();
+        int otherId = tracker.add(new Item("other", "description")).getId();
+        int deletedId = tracker.add(new Item("deleted", "description")).getId();
+
+        tracker.replace(id, new Item("name2", "description2"));
+        tracker.delete(deletedId);
+        statistics.clear();
+
+        assertThat(tracker.findById(id).getName(), is("name2"));
+        assertThat(tracker.findById(otherId).getName(), is("other"));
+        assertNull(tracker.findById(deletedId));
+        assertThat(statistics.getSecondLevelCacheHitCount(), is(2L));
+        assertThat(statistics.getPrepareStatementCount(), is(1L));
+    }
+
+    /**
+     * Выполняем проверку отсутствия устаревших данных в кешах после
+     * добавления, замены и удаления заявок.
+     */
+    @Test
+    public void whenWriteThenNoStaleReads() {
+        int id = tracker.add(item).getId();
+        int otherId = tracker.add(new Item("other", "description")).getId();
+        assertThat(tracker.findById(id).getName(), is("name1"));
+        assertThat(tracker.findById(otherId).getName(), is("other"));
+        assertThat(tracker.findByName("name1").size(), is(1));
+        assertThat(tracker.findByName("name2").size(), is(0));
+
+        tracker.replace(id, new Item("name2", "description2"));
+
+        assertThat(tracker.findById(id).getName(), is("name2"));
+        assertThat(tracker.findById(otherId).getName(), is("other"));
+        assertThat(tracker.findByName("name1").size(), is(0));
+        assertThat(tracker.findByName("name2").size(), is(1));
+
+        tracker.add(new Item("name2", "description3"));
+
+        assertThat(tracker.findByName("name2").size(), is(2));
+
+        tracker.delete(id);
+
+        assertNull(tracker.findById(id));
+        assertThat(tracker.findByName("name2").size(), is(1));
+    }
+
+    /**
+     * Выполняем проверку параллельного чтения заявок через пул соединений.
+     * Все потоки должны получить заявки, соединения должны вернуться
+     * в пул, количество соединений не должно превышать размер пула.
+     */
+    @Test
+    public void whenConcurrentFindByIdThenPooledConnectionsReused() throws Exception {
+        ConnectionPool pool = ((HibernateStore) tracker).getConnectionPool();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(tracker.add(new Item("name" + i, "description" + i)).getId());
+        }
+        long borrowed = pool.getBorrowCount();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tasks.add(() -> {
+                int found = 0;
+                for (int i = 0; i < 50; i++) {
+                    int id = ids.get(i % ids.size());
+                    if (tracker.findById(id).getId() == id) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Integer> future : executor.invokeAll(tasks)) {
+                assertThat(future.get(), is(50));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(pool.getBorrowCount() - borrowed, is(400L));
+        assertThat(pool.getActiveCount(), is(0));
+        assertTrue(pool.getIdleCount() <= pool.getMaxSize());
+        assertThat(pool.getLeakCount(), is(0L));
+    }
+
+    /**
+     * Выполняем проверку поиска по началу наименования.
+     * Символы % и _ в начале наименования ищутся как обычные символы.
+     */
+    @Test
+    public void whenFindByNamePrefixThenOnlyMatchingItems() {
+        tracker.add(new Item("apple", "description"));
+        tracker.add(new Item("application", "description"));
+        tracker.add(new Item("banana", "description"));
+        tracker.add(new Item("50%_off", "description"));
+        tracker.add(new Item("50 percent", "description"));
+
+        assertThat(tracker.findByNamePrefix("app").size(), is(2));
+        assertThat(tracker.findByNamePrefix("ban").get(0).getName(), is("banana"));
+        assertThat(tracker.findByNamePrefix("50%").get(0).getName(), is("50%_off"));
+        assertThat(tracker.findByNamePrefix("50%").size(), is(1));
+        assertThat(tracker.findByNamePrefix("cherry").size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку поиска по наименованию без учета регистра.
+     */
+    @Test
+    public void whenFindByNameIgnoreCaseThenAnyCaseMatches() {
+        tracker.add(new Item("Name", "description"));
+        tracker.add(new Item("NAME", "description"));
+        tracker.add(new Item("names", "description"));
+
+        assertThat(tracker.findByNameIgnoreCase("nAmE").size(), is(2));
+        assertThat(tracker.findByNameIgnoreCase("other").size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку выполнения поиска по началу наименования
+     * по индексу items_name_idx.
+     */
+    @Test
+    public void whenFindByNamePrefixThenNameIndexUsed() throws SQLException {
+        tracker.add(item);
+        try (Connection cn = DriverManager.getConnection(URL, "test", "")) {
+            String plan = plan(cn, () -> tracker.findByNamePrefix("na"), "like");
+
+            assertTrue(plan, plan.contains("ITEMS_NAME_IDX"));
+        }
+    }
+
+    /**
+     * Выполняем проверку выполнения поиска без учета регистра
+     * по индексу items_name_lower_idx.
+     */
+    @Test
+    public void whenFindByNameIgnoreCaseThenLowerCaseIndexUsed() throws SQLException {
+        tracker.add(item);
+        try (Connection cn = DriverManager.getConnection(URL, "test", "")) {
+            String plan = plan(cn, () -> tracker.findByNameIgnoreCase("NAME"), "name_lower");
+
+            assertTrue(plan, plan.contains("ITEMS_NAME_LOWER_IDX"));
+        }
+    }
+
+    /**
+     * Выполняем проверку полнотекстового поиска: заявки упорядочены
+     * по релевантности, слова наименования весят больше слов описания.
+     */
+    @Test
+    public void whenSearchThenItemsRankedByRelevance() {
+        tracker.add(new Item("printer broken", "paper jam in printer"));
+        tracker.add(new Item("network down", "printer is not reachable over network"));
+        tracker.add(new Item("coffee machine", "no coffee"));
+
+        assertThat(names(tracker.search("Printer", 10)),
+                is(List.of("printer broken", "network down")));
+        assertThat(names(tracker.search("printer", 1)), is(List.of("printer broken")));
+        assertThat(names(tracker.search("coffee, network!", 10)),
+                is(List.of("network down", "coffee machine")));
+        assertThat(tracker.search("tea", 10).size(), is(0));
+        assertThat(tracker.search("", 10).size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку ограничения количества заявок, выбираемых
+     * для ранжирования без полнотекстового индекса. Заявки с найденным
+     * словом в наименовании выбираются раньше заявок, добавленных до них.
+     */
+    @Test
+    public void whenSearchManyMatchesThenCandidatesLimited() throws Exception {
+        Statistics statistics = statistics();
+        for (int i = 0; i < 30; i++) {
+            tracker.add(new Item("item" + i, "printer"));
+        }
+        tracker.add(new Item("printer broken", "paper jam"));
+        statistics.clear();
+
+        assertThat(names(tracker.search("printer", 1)), is(List.of("printer broken")));
+        assertThat(statistics.getEntityLoadCount(), is((long) TextIndex.CANDIDATES_PER_RESULT));
+    }
+
+    /**
+     * Выполняем проверку обновления результатов полнотекстового поиска
+     * при замене и удалении заявок.
+     */
+    @Test
+    public void whenReplaceAndDeleteThenSearchUpdated() {
+        Item printer = tracker.add(new Item("printer broken", "paper jam"));
+        Item network = tracker.add(new Item("network down", "printer is not reachable"));
+
+        tracker.replace(printer.getId(), new Item("scanner broken", "paper jam"));
+        assertThat(names(tracker.search("printer", 10)), is(List.of("network down")));
+        assertThat(names(tracker.search("scanner", 10)), is(List.of("scanner broken")));
+
+        tracker.delete(network.getId());
+        assertThat(tracker.search("printer", 10).size(), is(0));
+    }
+
+    /**
+     * Возвращает наименования заявок в порядке следования.
+     *
+     * @param items заявки
+     * @return наименования заявок
+     */
+    private static List<String> names(List<Item> items) {
+        List<String> rsl = new ArrayList<>();
+        for (Item found : items) {
+            rsl.add(found.getName());
+        }
+        return rsl;
+    }
+
+    /**
+     * Возвращает план выполнения запроса, выполненного базой данных
+     * во время действия. Запрос находится по фрагменту текста
+     * в статистике запросов H2, параметры плана заполняются строкой.
+     *
+     * @param cn соединение с базой данных
+     * @param action действие, выполняющее запрос
+     * @param fragment фрагмент текста запроса
+     * @return план выполнения
+     */
+    private static String plan(Connection cn, Runnable action, String fragment)
+            throws SQLException {
+        String sql = null;
+        try (Statement statement = cn.createStatement()) {
+            statement.execute("set query_statistics true");
+            try {
+                action.run();
+                try (ResultSet rs = statement.executeQuery(
+                        "select sql_statement from information_schema.query_statistics")) {
+                    while (rs.next()) {
+                        if (rs.getString(1).contains(fragment)) {
+                            sql = rs.getString(1);
+                        }
+                    }
+                }
+            } finally {
+                statement.execute("set query_statistics false");
+            }
+        }
+        assertNotNull("query with " + fragment + " not executed", sql);
+        try (PreparedStatement ps = cn.prepareStatement("explain " + sql)) {
+            for (int i = 1; i <= ps.getParameterMetaData().getParameterCount(); i++) {
+                ps.setString(i, "name");
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+}
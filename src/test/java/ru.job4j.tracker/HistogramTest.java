@@ -0,0 +1,77 @@
+package ru.job4j.tracker;
+
+import org.junit.Test;
+import ru.job4j.tracker.metrics.Histogram;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+/**
+ * Тест класс гистограммы значений Histogram
+ * @see ru.job4j.tracker.metrics.Histogram
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class HistogramTest {
+
+    /**
+     * Выполняем проверку точных процентилей малых значений.
+     */
+    @Test
+    public void whenSmallValuesThenExactPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        assertThat(histogram.getCount(), is(10L));
+        assertThat(histogram.getPercentile(50), is(5L));
+        assertThat(histogram.getPercentile(100), is(10L));
+        assertThat(histogram.getMax(), is(10L));
+        assertThat(histogram.getMean(), is(5.5));
+    }
+
+    /**
+     * Выполняем проверку, что процентили случайных значений разного
+     * порядка отличаются от точных не больше чем на 1/16.
+     */
+    @Test
+    public void whenRandomValuesThenPercentilesWithinPrecision() {
+        Histogram histogram = new Histogram();
+        Random random = new Random(21);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] {50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = histogram.getPercentile(percentile);
+            assertTrue(percentile + ": " + exact + " vs " + actual,
+                    actual >= exact && actual <= exact + exact / Histogram.SUB_BUCKETS);
+        }
+        assertThat(histogram.getMax(), is(values[values.length - 1]));
+    }
+
+    /**
+     * Выполняем проверку пустой гистограммы и сброса.
+     */
+    @Test
+    public void whenEmptyOrResetThenZero() {
+        Histogram histogram = new Histogram();
+        assertThat(histogram.getPercentile(99), is(0L));
+
+        histogram.record(Long.MAX_VALUE);
+        assertThat(histogram.getPercentile(99), is(Long.MAX_VALUE));
+        histogram.reset();
+
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getPercentile(99), is(0L));
+        assertThat(histogram.getMax(), is(0L));
+    }
+}
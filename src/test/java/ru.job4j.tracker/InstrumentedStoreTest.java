@@ -0,0 +1,143 @@
+package ru.job4j.tracker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.job4j.tracker.metrics.OperationMetrics;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.InstrumentedStore;
+import ru.job4j.tracker.store.MemoryStore;
+import ru.job4j.tracker.store.Store;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тест класс хранилища заявок с измерением операций InstrumentedStore
+ * @see ru.job4j.tracker.store.InstrumentedStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class InstrumentedStoreTest {
+
+    /**
+     * Проверяемое хранилище
+     */
+    private InstrumentedStore tracker;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @Before
+    public void setUp() {
+        tracker = new InstrumentedStore(new MemoryStore(), "test");
+    }
+
+    /**
+     * Закрывает хранилище после каждого теста.
+     */
+    @After
+    public void tearDown() throws Exception {
+        tracker.close();
+    }
+
+    /**
+     * Выполняем проверку подсчета вызовов, задержек и размеров результатов.
+     */
+    @Test
+    public void whenOperationsThenCountsLatenciesAndSizesRecorded() {
+        for (int i = 0; i < 10; i++) {
+            tracker.add(new Item("name"));
+        }
+        tracker.findByName("name");
+        tracker.findByName("other");
+        tracker.findById(1);
+        tracker.forEach(item -> { });
+
+        assertThat(tracker.getMetrics("add").getCount(), is(10L));
+        OperationMetrics findByName = tracker.getMetrics("findByName");
+        assertThat(findByName.getCount(), is(2L));
+        assertThat(findByName.getErrors(), is(0L));
+        assertThat(findByName.getResultSizeMax(), is(10L));
+        assertThat(findByName.getResultSizeMean(), is(5.0));
+        assertTrue(findByName.getLatencyMaxMicros() > 0);
+        assertTrue(findByName.getLatencyP999Micros() >= findByName.getLatencyP50Micros());
+        assertThat(tracker.getMetrics("findById").getCount(), is(1L));
+        assertThat(tracker.getMetrics("forEach").getResultSizeMax(), is(10L));
+        assertThat(tracker.getMetrics("findAll").getCount(), is(0L));
+    }
+
+    /**
+     * Выполняем проверку подсчета ошибок: исключение хранилища
+     * передается вызывающему и учитывается.
+     */
+    @Test
+    public void whenStoreThrowsThenErrorCounted() throws Exception {
+        Store failing = mock(Store.class);
+        when(failing.findByName(anyString())).thenThrow(new IllegalStateException("down"));
+        try (InstrumentedStore instrumented = new InstrumentedStore(failing, "failing")) {
+            try {
+                instrumented.findByName("name");
+                fail();
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("down"));
+            }
+            assertThat(instrumented.getMetrics("findByName").getErrors(), is(1L));
+            assertThat(instrumented.getMetrics("findByName").getCount(), is(1L));
+        }
+    }
+
+    /**
+     * Выполняем проверку публикации показателей в JMX
+     * и их удаления при закрытии хранилища.
+     */
+    @Test
+    public void whenRegisteredThenMetricsReadableOverJmx() throws Exception {
+        tracker.add(new Item("name"));
+        tracker.findAll();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(
+                "ru.job4j.tracker:type=Store,backend=\"test\",operation=findAll");
+
+        assertThat(server.getAttribute(name, "Count"), is(1L));
+        assertThat(server.getAttribute(name, "ResultSizeMax"), is(1L));
+        server.invoke(name, "reset", null, null);
+        assertThat(server.getAttribute(name, "Count"), is(0L));
+
+        try {
+            new InstrumentedStore(new MemoryStore(), "test");
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(server.isRegistered(name));
+        }
+        tracker.close();
+        assertFalse(server.isRegistered(name));
+        tracker = new InstrumentedStore(new MemoryStore(), "test");
+    }
+
+    /**
+     * Выполняем проверку регистрации показателей хранилища,
+     * наименование которого содержит служебные символы имен JMX.
+     */
+    @Test
+    public void whenBackendNameHasSpecialCharsThenQuoted() throws Exception {
+        String backend = "jdbc:h2:mem:a,b=c";
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("ru.job4j.tracker:type=Store,backend="
+                + ObjectName.quote(backend) + ",operation=add");
+        try (InstrumentedStore instrumented = new InstrumentedStore(new MemoryStore(), backend)) {
+            instrumented.add(new Item("name"));
+
+            assertThat(server.getAttribute(name, "Count"), is(1L));
+            assertThat(ObjectName.unquote(name.getKeyProperty("backend")), is(backend));
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,199 @@
+package ru.job4j.tracker;
+
+import org.junit.Before;
+import org.junit.Test;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.IntItemMap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+/**
+ * Тест класс отображения идентификатора заявки на заявку IntItemMap
+ * @see ru.job4j.tracker.store.IntItemMap
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class IntItemMapTest {
+
+    /**
+     * Проверяемое отображение
+     */
+    private IntItemMap map;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @Before
+    public void setUp() {
+        map = new IntItemMap();
+    }
+
+    /**
+     * Выполняем проверку добавления, замены и удаления заявки.
+     */
+    @Test
+    public void whenPutReplaceRemoveSuccess() {
+        Item first = new Item(1, "first");
+        Item second = new Item(1, "second");
+
+        assertNull(map.put(1, first));
+        assertThat(map.put(1, second), is(first));
+        assertThat(map.get(1), is(second));
+        assertThat(map.size(), is(1));
+        assertThat(map.remove(1), is(second));
+        assertNull(map.get(1));
+        assertNull(map.remove(1));
+        assertThat(map.size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку работы с нулевым и отрицательными ключами.
+     */
+    @Test
+    public void whenZeroAndNegativeKeysThenFound() {
+        map.put(0, new Item(0, "zero"));
+        map.put(-1, new Item(-1, "minus"));
+
+        assertThat(map.get(0).getName(), is("zero"));
+        assertThat(map.get(-1).getName(), is("minus"));
+        assertFalse(map.containsKey(1));
+    }
+
+    /**
+     * Выполняем проверку случайной последовательности операций,
+     * результат сравниваем с LinkedHashMap, включая порядок заявок.
+     */
+    @Test
+    public void whenRandomOperationsThenSameAsLinkedHashMap() {
+        Map<Integer, Item> expected = new LinkedHashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000);
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                Item item = new Item(key, "name" + i);
+                assertThat(map.put(key, item), is(expected.put(key, item)));
+            } else if (operation == 1) {
+                assertThat(map.remove(key), is(expected.remove(key)));
+            } else {
+                assertThat(map.get(key), is(expected.get(key)));
+            }
+        }
+
+        assertThat(map.size(), is(expected.size()));
+        assertThat(map.values(), is(new ArrayList<>(expected.values())));
+    }
+
+    /**
+     * Выполняем проверку снимков при случайной последовательности операций,
+     * включая рост и уплотнение. Каждый снимок должен совпадать
+     * с копией заявок, сделанной в момент его создания.
+     */
+    @Test
+    public void whenSnapshotsTakenThenLaterWritesInvisible() {
+        Random random = new Random(7);
+        List<List<Item>> snapshots = new ArrayList<>();
+        List<List<Item>> copies = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(3_000);
+            if (random.nextBoolean()) {
+                map.put(key, new Item(key, "name" + i));
+            } else {
+                map.remove(key);
+            }
+            if (i % 5_000 == 0) {
+                snapshots.add(map.snapshot());
+                copies.add(map.values());
+            }
+        }
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertThat(new ArrayList<>(snapshots.get(i)), is(copies.get(i)));
+            assertThat(snapshots.get(i).size(), is(copies.get(i).size()));
+        }
+    }
+
+    /**
+     * Выполняем проверку неизменяемости снимка.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void whenModifySnapshotThenException() {
+        map.put(1, new Item(1, "name"));
+
+        map.snapshot().add(new Item(2, "name"));
+    }
+
+    /**
+     * Выполняем проверку доступа по номеру и двунаправленного итератора
+     * снимка с удаленными заявками в нескольких блоках: результаты
+     * должны совпадать с копией заявок в порядке добавления.
+     */
+    @Test
+    public void whenSnapshotWithDeletedThenIndexAndListIteratorMatchCopy() {
+        for (int i = 0; i < 5_000; i++) {
+            map.put(i, new Item(i, "name" + i));
+        }
+        for (int i = 0; i < 5_000; i += 3) {
+            map.remove(i);
+        }
+        for (int i = 1_000; i < 2_100; i++) {
+            map.remove(i);
+        }
+        List<Item> snapshot = map.snapshot();
+        List<Item> copy = map.values();
+        map.remove(4_999);
+        map.put(5_000, new Item(5_000, "name"));
+
+        List<Item> byIndex = new ArrayList<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            byIndex.add(snapshot.get(i));
+        }
+        assertThat(byIndex, is(copy));
+        ListIterator<Item> it = snapshot.listIterator(snapshot.size());
+        for (int i = copy.size() - 1; i >= 0; i--) {
+            assertThat(it.previousIndex(), is(i));
+            assertThat(it.previous(), is(copy.get(i)));
+        }
+        assertThat(it.hasPrevious(), is(false));
+        assertThat(it.next(), is(copy.get(0)));
+        assertThat(snapshot.subList(700, 1_500), is(copy.subList(700, 1_500)));
+        assertThat(snapshot.listIterator(1_234).next(), is(copy.get(1_234)));
+        assertThat(snapshot.equals(copy), is(true));
+        assertThat(snapshot.hashCode(), is(copy.hashCode()));
+    }
+
+    /**
+     * Выполняем проверку подготовки места под новые заявки.
+     * Содержимое и порядок заявок должны сохраниться,
+     * удаленные заявки не должны вернуться.
+     */
+    @Test
+    public void whenEnsureCapacityThenContentPreserved() {
+        for (int i = 1; i <= 3000; i++) {
+            map.put(i, new Item(i, "name" + i));
+        }
+        for (int i = 1; i <= 3000; i += 3) {
+            map.remove(i);
+        }
+        List<Item> before = map.values();
+
+        map.ensureCapacity(100_000);
+
+        assertThat(map.values(), is(before));
+        assertNull(map.get(1));
+        assertThat(map.get(2).getName(), is("name2"));
+        for (int i = 3001; i <= 103_000; i++) {
+            map.put(i, new Item(i, "name" + i));
+        }
+        assertThat(map.size(), is(before.size() + 100_000));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.job4j.tracker;
+
+import org.junit.Test;
+import ru.job4j.tracker.io.ItemFormat;
+import ru.job4j.tracker.model.Item;
+
+import java.sql.Timestamp;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Тест класс форматирования заявки ItemFormat
+ * @see ru.job4j.tracker.io.ItemFormat
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class ItemFormatTest {
+
+    /**
+     * Выполняем проверку, что заявка форматируется так же, как
+     * Item.toString, при разных долях секунды и пустых полях.
+     */
+    @Test
+    public void whenFormatThenSameAsToString() {
+        ItemFormat format = new ItemFormat();
+        int[] nanos = {0, 5, 100_000_000, 123_000_000, 123_456_789, 999_999_999, 10};
+        long[] times = {1_700_000_000_000L, 1_700_000_000_999L, 1_700_000_001_000L, -1_500L};
+        int id = 0;
+        for (long time : times) {
+            for (int nano : nanos) {
+                Item item = new Item(++id, "name" + id);
+                item.setDescription(id % 2 == 0 ? null : "description");
+                Timestamp created = new Timestamp(time);
+                created.setNanos(nano);
+                item.setCreated(created);
+
+                assertThat(format.format(item, new StringBuilder()).toString(),
+                        is(item.toString()));
+            }
+        }
+        Item empty = new Item();
+        empty.setCreated(null);
+        assertThat(format.format(empty, new StringBuilder()).toString(), is(empty.toString()));
+    }
+
+    /**
+     * Выполняем проверку, что заявки добавляются к содержимому буфера.
+     */
+    @Test
+    public void whenFormatThenAppended() {
+        Item item = new Item(1, "name");
+        StringBuilder buffer = new StringBuilder("> ");
+
+        new ItemFormat().format(item, buffer);
+
+        assertThat(buffer.toString(), is("> " + item));
+    }
+}
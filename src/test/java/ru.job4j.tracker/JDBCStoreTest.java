@@ -2,16 +2,22 @@ package ru.job4j.tracker;
 
 import org.junit.*;
 import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.ConnectionPool;
 import ru.job4j.tracker.store.JDBCStore;
 import ru.job4j.tracker.store.Store;
+import ru.job4j.tracker.store.TextIndex;
 
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import java.util.Properties;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -25,9 +31,9 @@ import static org.junit.Assert.*;
 public class JDBCStoreTest {
 
     /**
-     * Соединение с базой данных
+     * Пул соединений с базой данных
      */
-    private static Connection connection;
+    private static ConnectionPool pool;
 
     /**
      * Объект доступа к хранилищу
@@ -49,13 +55,7 @@ public class JDBCStoreTest {
                 .getResourceAsStream("test.properties")) {
             Properties config = new Properties();
             config.load(in);
-            Class.forName(config.getProperty("driver-class-name"));
-            connection = DriverManager.getConnection(
-                    config.getProperty("url"),
-                    config.getProperty("username"),
-                    config.getProperty("password")
-
-            );
+            pool = new ConnectionPool(config);
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
@@ -67,7 +67,7 @@ public class JDBCStoreTest {
      */
     @Before
     public void setUp() {
-        tracker = new JDBCStore(connection);
+        tracker = new JDBCStore(pool);
         item = new Item("name", "description");
     }
 
@@ -75,8 +75,8 @@ public class JDBCStoreTest {
      * Закрывает ресурсы после работы всех тестов.
      */
     @AfterClass
-    public static void closeConnection() throws SQLException {
-        connection.close();
+    public static void closeConnection() {
+        pool.close();
     }
 
     /**
@@ -84,7 +84,8 @@ public class JDBCStoreTest {
      */
     @After
     public void wipeStore() throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement("delete from items")) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("delete from items")) {
             statement.execute();
         }
     }
@@ -253,4 +254,298 @@ public class JDBCStoreTest {
 
         assertThat(expected.size(), is(0));
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняем проверку пакетного добавления заявок.
+     * Количество заявок превышает размер пакета, все заявки
+     * должны получить разные сгенерированные идентификаторы,
+     * по которым находятся в хранилище.
+     */
+    @Test
+    public void whenAddAllThenGeneratedIdsAssigned() {
+        List<Item> batch = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            batch.add(new Item("name" + i));
+        }
+
+        List<Item> result = tracker.addAll(batch);
+
+        Set<Integer> ids = new HashSet<>();
+        for (Item added : result) {
+            assertTrue(ids.add(added.getId()));
+            assertEquals(added.getName(), tracker.findById(added.getId()).getName());
+        }
+        assertEquals(2500, tracker.findAll().size());
+    }
+
+    /**
+     * Выполняем проверку, что ошибка пакетного добавления
+     * передается вызывающему коду исключением.
+     */
+    @Test
+    public void whenAddAllFailsThenException() throws Exception {
+        Properties config = new Properties();
+        try (InputStream in = JDBCStore.class.getClassLoader()
+                .getResourceAsStream("test.properties")) {
+            config.load(in);
+        }
+        ConnectionPool closed = new ConnectionPool(config);
+        closed.close();
+
+        assertThrows(IllegalStateException.class,
+                () -> new JDBCStore(closed).addAll(List.of(new Item("name"))));
+    }
+
+    /**
+     * Выполняем проверку повторного использования подготовленных
+     * запросов при повторных операциях хранилища.
+     */
+    @Test
+    public void whenFindByIdRepeatedThenStatementReused() {
+        int id = tracker.add(item).getId();
+        tracker.findById(id);
+        long hits = pool.getStatementCacheHits();
+        long misses = pool.getStatementCacheMisses();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(item.getName(), tracker.findById(id).getName());
+        }
+
+        assertEquals(hits + 10, pool.getStatementCacheHits());
+        assertEquals(misses, pool.getStatementCacheMisses());
+    }
+
+    /**
+     * Выполняем проверку потокового обхода заявок, количество
+     * которых превышает размер порции чтения.
+     */
+    @Test
+    public void whenForEachThenAllItemsVisited() {
+        List<Item> batch = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            batch.add(new Item("name" + i));
+        }
+        tracker.addAll(batch);
+        List<Item> visited = new ArrayList<>();
+
+        new JDBCStore(pool, 10).forEach(visited::add);
+
+        assertEquals(25, visited.size());
+        Set<Integer> ids = new HashSet<>();
+        for (Item added : batch) {
+            ids.add(added.getId());
+        }
+        for (Item current : visited) {
+            assertTrue(ids.remove(current.getId()));
+        }
+    }
+
+    /**
+     * Выполняем проверку постраничного чтения с удалением и добавлением
+     * заявок между запросами страниц. Удаленные заявки не должны
+     * попасть в следующие страницы, остальные заявки должны быть
+     * прочитаны ровно один раз в порядке возрастания идентификатора.
+     */
+    @Test
+    public void whenDeleteBetweenPagesThenNoSkipsOrRepeats() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(tracker.add(new Item("name" + i)).getId());
+        }
+
+        List<Item> first = tracker.findPage(0, 3);
+        tracker.delete(ids.get(2));
+        tracker.delete(ids.get(3));
+        ids.add(tracker.add(new Item("added")).getId());
+        List<Integer> read = new ArrayList<>();
+        first.forEach(item -> read.add(item.getId()));
+        int after = first.get(first.size() - 1).getId();
+        List<Item> page = tracker.findPage(after, 3);
+        while (!page.isEmpty()) {
+            page.forEach(item -> read.add(item.getId()));
+            page = tracker.findPage(page.get(page.size() - 1).getId(), 3);
+        }
+
+        ids.remove(3);
+        assertEquals(ids, read);
+    }
+
+    /**
+     * Выполняем проверку поиска по началу наименования.
+     * Символы % и _ в начале наименования ищутся как обычные символы.
+     */
+    @Test
+    public void whenFindByNamePrefixThenOnlyMatchingItems() {
+        tracker.add(new Item("apple", "description"));
+        tracker.add(new Item("application", "description"));
+        tracker.add(new Item("banana", "description"));
+        tracker.add(new Item("50%_off", "description"));
+        tracker.add(new Item("50 percent", "description"));
+
+        assertThat(tracker.findByNamePrefix("app").size(), is(2));
+        assertThat(tracker.findByNamePrefix("ban").get(0).getName(), is("banana"));
+        assertThat(tracker.findByNamePrefix("50%").get(0).getName(), is("50%_off"));
+        assertThat(tracker.findByNamePrefix("50%").size(), is(1));
+        assertThat(tracker.findByNamePrefix("cherry").size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку поиска по наименованию без учета регистра.
+     */
+    @Test
+    public void whenFindByNameIgnoreCaseThenAnyCaseMatches() {
+        tracker.add(new Item("Name", "description"));
+        tracker.add(new Item("NAME", "description"));
+        tracker.add(new Item("names", "description"));
+
+        assertThat(tracker.findByNameIgnoreCase("nAmE").size(), is(2));
+        assertThat(tracker.findByNameIgnoreCase("other").size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку выполнения поиска по началу наименования
+     * по индексу items_name_idx.
+     */
+    @Test
+    public void whenFindByNamePrefixThenNameIndexUsed() throws SQLException {
+        tracker.add(item);
+        try (Connection cn = pool.getConnection()) {
+            String plan = plan(cn, () -> tracker.findByNamePrefix("na"), "like");
+
+            assertTrue(plan, plan.contains("ITEMS_NAME_IDX"));
+        }
+    }
+
+    /**
+     * Выполняем проверку выполнения поиска без учета регистра
+     * по индексу items_name_lower_idx.
+     */
+    @Test
+    public void whenFindByNameIgnoreCaseThenLowerCaseIndexUsed() throws SQLException {
+        tracker.add(item);
+        try (Connection cn = pool.getConnection()) {
+            String plan = plan(cn, () -> tracker.findByNameIgnoreCase("NAME"), "name_lower");
+
+            assertTrue(plan, plan.contains("ITEMS_NAME_LOWER_IDX"));
+        }
+    }
+
+    /**
+     * Возвращает план выполнения запроса, выполненного базой данных
+     * во время действия. Запрос находится по фрагменту текста
+     * в статистике запросов H2, параметры плана заполняются строкой.
+     *
+     * @param cn соединение с базой данных
+     * @param action действие, выполняющее запрос
+     * @param fragment фрагмент текста запроса
+     * @return план выполнения
+     */
+    private static String plan(Connection cn, Runnable action, String fragment)
+            throws SQLException {
+        String sql = null;
+        try (Statement statement = cn.createStatement()) {
+            statement.execute("set query_statistics true");
+            try {
+                action.run();
+                try (ResultSet rs = statement.executeQuery(
+                        "select sql_statement from information_schema.query_statistics")) {
+                    while (rs.next()) {
+                        if (rs.getString(1).contains(fragment)) {
+                            sql = rs.getString(1);
+                        }
+                    }
+                }
+            } finally {
+                statement.execute("set query_statistics false");
+            }
+        }
+        assertNotNull("query with " + fragment + " not executed", sql);
+        try (PreparedStatement ps = cn.prepareStatement("explain " + sql)) {
+            for (int i = 1; i <= ps.getParameterMetaData().getParameterCount(); i++) {
+                ps.setString(i, "name");
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    /**
+     * Выполняем проверку полнотекстового поиска: заявки упорядочены
+     * по релевантности, слова наименования весят больше слов описания.
+     */
+    @Test
+    public void whenSearchThenItemsRankedByRelevance() {
+        tracker.add(new Item("printer broken", "paper jam in printer"));
+        tracker.add(new Item("network down", "printer is not reachable over network"));
+        tracker.add(new Item("coffee machine", "no coffee"));
+
+        assertThat(names(tracker.search("Printer", 10)),
+                is(List.of("printer broken", "network down")));
+        assertThat(names(tracker.search("printer", 1)), is(List.of("printer broken")));
+        assertThat(names(tracker.search("coffee, network!", 10)),
+                is(List.of("network down", "coffee machine")));
+        assertThat(tracker.search("tea", 10).size(), is(0));
+        assertThat(tracker.search("", 10).size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку ограничения количества заявок, выбираемых
+     * для ранжирования без полнотекстового индекса. Заявки с найденным
+     * словом в наименовании выбираются раньше заявок, добавленных до них.
+     */
+    @Test
+    public void whenSearchManyMatchesThenCandidatesLimited() throws SQLException {
+        for (int i = 0; i < 30; i++) {
+            tracker.add(new Item("item" + i, "printer"));
+        }
+        tracker.add(new Item("printer broken", "paper jam"));
+        try (Connection cn = pool.getConnection();
+             Statement statement = cn.createStatement()) {
+            statement.execute("set query_statistics true");
+            try {
+                assertThat(names(tracker.search("printer", 1)), is(List.of("printer broken")));
+                try (ResultSet rs = statement.executeQuery("select max_row_count"
+                        + " from information_schema.query_statistics"
+                        + " where sql_statement like '%description%like%'")) {
+                    assertTrue(rs.next());
+                    assertThat(rs.getLong(1), is((long) TextIndex.CANDIDATES_PER_RESULT));
+                }
+            } finally {
+                statement.execute("set query_statistics false");
+            }
+        }
+    }
+
+    /**
+     * Выполняем проверку обновления результатов полнотекстового поиска
+     * при замене и удалении заявок.
+     */
+    @Test
+    public void whenReplaceAndDeleteThenSearchUpdated() {
+        Item printer = tracker.add(new Item("printer broken", "paper jam"));
+        Item network = tracker.add(new Item("network down", "printer is not reachable"));
+
+        tracker.replace(printer.getId(), new Item("scanner broken", "paper jam"));
+        assertThat(names(tracker.search("printer", 10)), is(List.of("network down")));
+        assertThat(names(tracker.search("scanner", 10)), is(List.of("scanner broken")));
+
+        tracker.delete(network.getId());
+        assertThat(tracker.search("printer", 10).size(), is(0));
+    }
+
+    /**
+     * Возвращает наименования заявок в порядке следования.
+     *
+     * @param items заявки
+     * @return наименования заявок
+     */
+    private static List<String> names(List<Item> items) {
+        List<String> rsl = new ArrayList<>();
+        for (Item found : items) {
+            rsl.add(found.getName());
+        }
+        return rsl;
+    }
+}
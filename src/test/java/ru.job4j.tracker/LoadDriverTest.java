@@ -0,0 +1,121 @@
+package ru.job4j.tracker;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.job4j.tracker.benchmark.LoadDriver;
+import ru.job4j.tracker.benchmark.Workload;
+import ru.job4j.tracker.benchmark.Zipf;
+import ru.job4j.tracker.store.ConcurrentMemoryStore;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Тест класс нагрузочного теста хранилища LoadDriver
+ * @see ru.job4j.tracker.benchmark.LoadDriver
+ * @see ru.job4j.tracker.benchmark.Workload
+ * @see ru.job4j.tracker.benchmark.Zipf
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class LoadDriverTest {
+
+    /**
+     * Временный каталог для файла нагрузки
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Выполняем проверку, что распределение Зипфа выбирает номер 0
+     * чаще всего, а при показателе 0 распределение равномерное.
+     */
+    @Test
+    public void whenZipfThenFirstKeysAreHot() {
+        Random random = new Random(1);
+        Zipf skewed = new Zipf(1000, 1);
+        Zipf uniform = new Zipf(10, 0);
+        int[] skewedCounts = new int[1000];
+        int[] uniformCounts = new int[10];
+        for (int i = 0; i < 100_000; i++) {
+            skewedCounts[skewed.next(random)]++;
+            uniformCounts[uniform.next(random)]++;
+        }
+        int top = 0;
+        for (int k = 0; k < 10; k++) {
+            top += skewedCounts[k];
+        }
+
+        assertThat(skewedCounts[0], greaterThan(skewedCounts[1]));
+        assertThat(top, greaterThan(35_000));
+        for (int count : uniformCounts) {
+            assertThat(Math.abs(count - 10_000) < 500, is(true));
+        }
+    }
+
+    /**
+     * Выполняем проверку, что сгенерированная нагрузка поступает
+     * с постоянной частотой, содержит только операции с ненулевым
+     * весом и читается из файла без изменений.
+     */
+    @Test
+    public void whenWorkloadWrittenThenReplayedUnchanged() throws Exception {
+        Map<Workload.Operation, Integer> mix = Workload.parseMix("findById=3,add=1,delete=0");
+        Workload workload = Workload.generate(mix, new Zipf(100, 0.99), new Zipf(10, 0.99),
+                1000, 500, 7);
+        Path file = folder.newFile("workload.txt").toPath();
+        workload.write(file);
+        Workload replay = Workload.read(file);
+
+        assertThat(replay.size(), is(500));
+        assertThat(workload.offset(10), is(10_000_000L));
+        for (int i = 0; i < workload.size(); i++) {
+            assertThat(replay.offset(i), is(workload.offset(i)));
+            assertThat(replay.operation(i), is(workload.operation(i)));
+            assertThat(replay.key(i), is(workload.key(i)));
+            assertThat(workload.operation(i) != Workload.Operation.DELETE, is(true));
+        }
+    }
+
+    /**
+     * Выполняем проверку, что все запросы нагрузки выполнены
+     * и записаны в гистограммы задержек.
+     */
+    @Test
+    public void whenRunThenAllRequestsRecorded() throws Exception {
+        Workload workload = Workload.generate(
+                Workload.parseMix("findById=60,findByName=20,replace=10,add=5,delete=5"),
+                new Zipf(1000, 0.99), new Zipf(100, 0.99), 20_000, 2_000, 42);
+        try (ConcurrentMemoryStore store = new ConcurrentMemoryStore()) {
+            LoadDriver.Report report = new LoadDriver(store, 1000, 100).run(workload, 4);
+
+            assertThat(report.getCount(), is(2_000L));
+            assertThat(report.getErrors(), is(0L));
+            assertThat(report.getThroughput(), greaterThan(0D));
+            long findById = 0;
+            for (int i = 0; i < workload.size(); i++) {
+                if (workload.operation(i) == Workload.Operation.FIND_BY_ID) {
+                    findById++;
+                }
+            }
+            assertThat(report.getLatency(Workload.Operation.FIND_BY_ID).getCount(), is(findById));
+        }
+    }
+
+    /**
+     * Выполняем проверку, что нагрузка с номером заявки вне
+     * добавленных заявок не выполняется.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void whenKeyOutOfRangeThenException() throws Exception {
+        Workload workload = Workload.generate(Workload.parseMix("findById=1"),
+                new Zipf(100, 0), new Zipf(10, 0), 1000, 100, 1);
+        new LoadDriver(new ConcurrentMemoryStore(), 10, 10).run(workload, 1);
+    }
+}
@@ -8,6 +8,7 @@ import ru.job4j.tracker.model.Item;
 import ru.job4j.tracker.store.MemoryStore;
 
 import java.util.List;
+import java.util.ArrayList;
 
 import static org.junit.Assert.*;
 
@@ -211,4 +212,261 @@ public class MemoryStoreTest {
 
         assertThat(expected.size(), Is.is(0));
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняем проверку порядка заявок, возвращаемых методом
+     * {@link MemoryStore#findAll()}. После замены и удаления заявок
+     * оставшиеся заявки должны идти в порядке добавления.
+     */
+    @Test
+    public void whenReplaceAndDeleteThenFindAllKeepsInsertionOrder() {
+        Item first = tracker.add(new Item("first"));
+        Item second = tracker.add(new Item("second"));
+        Item third = tracker.add(new Item("third"));
+
+        tracker.replace(first.getId(), new Item("first2"));
+        tracker.delete(second.getId());
+        List<Item> result = tracker.findAll();
+
+        assertThat(result.size(), Is.is(2));
+        assertThat(result.get(0).getName(), Is.is("first2"));
+        assertThat(result.get(1).getId(), Is.is(third.getId()));
+    }
+
+    /**
+     * Выполняем проверку индекса наименований после замены заявки.
+     * Через вызов метода {@link MemoryStore#findByName(String)}
+     * заявка должна находиться только по новому наименованию.
+     */
+    @Test
+    public void whenReplaceNameThenFindByNewNameOnly() {
+        int id = tracker.add(new Item("old")).getId();
+        tracker.add(new Item("old"));
+
+        tracker.replace(id, new Item("new"));
+
+        assertThat(tracker.findByName("old").size(), Is.is(1));
+        assertThat(tracker.findByName("new").get(0).getId(), Is.is(id));
+    }
+
+    /**
+     * Выполняем проверку изменения наименования в обход хранилища.
+     * Через вызов метода {@link MemoryStore#findByName(String)}
+     * заявка не находится ни по старому, ни по новому наименованию,
+     * поиск не теряет ее в индексе, и после {@link MemoryStore#replace(int, Item)}
+     * заявка находится по новому наименованию.
+     */
+    @Test
+    public void whenRenamedOutsideStoreThenFoundOnlyAfterReplace() {
+        Item renamed = tracker.add(new Item("old"));
+        renamed.setName("new");
+
+        assertThat(tracker.findByName("old").size(), Is.is(0));
+        assertThat(tracker.findByName("new").size(), Is.is(0));
+        renamed.setName("old");
+        assertThat(tracker.findByName("old").get(0).getId(), Is.is(renamed.getId()));
+
+        renamed.setName("new");
+        tracker.replace(renamed.getId(), renamed);
+        assertThat(tracker.findByName("new").get(0).getId(), Is.is(renamed.getId()));
+        assertThat(tracker.findByName("old").size(), Is.is(0));
+    }
+
+    /**
+     * Выполняем проверку индекса наименований после удаления заявки.
+     * Через вызов метода {@link MemoryStore#findByName(String)}
+     * удаленная заявка не должна находиться.
+     */
+    @Test
+    public void whenDeleteThenFindByNameSkipsDeleted() {
+        int first = tracker.add(new Item("name")).getId();
+        int second = tracker.add(new Item("name")).getId();
+
+        tracker.delete(first);
+        List<Item> result = tracker.findByName("name");
+
+        assertThat(result.size(), Is.is(1));
+        assertThat(result.get(0).getId(), Is.is(second));
+    }
+
+    /**
+     * Выполняем проверку снимка, возвращаемого методом
+     * {@link MemoryStore#findAll()}. Изменения хранилища после вызова
+     * не должны быть видны в полученном списке.
+     */
+    @Test
+    public void whenWritesAfterFindAllThenListUnchanged() {
+        Item first = tracker.add(new Item("first"));
+        Item second = tracker.add(new Item("second"));
+        List<Item> snapshot = tracker.findAll();
+
+        tracker.replace(first.getId(), new Item("first2"));
+        tracker.delete(second.getId());
+        tracker.add(new Item("third"));
+
+        assertThat(snapshot.size(), Is.is(2));
+        assertThat(snapshot.get(0).getName(), Is.is("first"));
+        assertThat(snapshot.get(1).getName(), Is.is("second"));
+        assertThat(tracker.findAll().size(), Is.is(2));
+    }
+
+    /**
+     * Выполняем проверку пакетного добавления заявок.
+     * Заявки должны получить идентификаторы подряд
+     * и находиться по идентификатору и наименованию.
+     */
+    @Test
+    public void whenAddAllThenIdsAssignedInOrder() {
+        tracker.add(item);
+        List<Item> batch = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            batch.add(new Item("name" + i % 10));
+        }
+
+        List<Item> result = tracker.addAll(batch);
+
+        assertEquals(batch, result);
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(i + 2, result.get(i).getId());
+            assertSame(result.get(i), tracker.findById(i + 2));
+        }
+        assertEquals(5001, tracker.findAll().size());
+        assertEquals(500, tracker.findByName("name3").size());
+    }
+
+    /**
+     * Выполняем проверку обхода заявок методом {@link MemoryStore#forEach}.
+     * Заявки обходятся в порядке добавления, удаление во время обхода
+     * не влияет на обход.
+     */
+    @Test
+    public void whenForEachThenInsertionOrderAndDeleteAllowed() {
+        Item first = tracker.add(new Item("first"));
+        Item second = tracker.add(new Item("second"));
+        List<Item> visited = new ArrayList<>();
+
+        tracker.forEach(current -> {
+            visited.add(current);
+            tracker.delete(second.getId());
+        });
+
+        assertEquals(List.of(first, second), visited);
+        assertEquals(1, tracker.findAll().size());
+    }
+
+    /**
+     * Выполняем проверку границ страниц при постраничном чтении.
+     */
+    @Test
+    public void whenFindPageThenPageBoundariesRespected() {
+        for (int i = 0; i < 9; i++) {
+            tracker.add(new Item("name" + i));
+        }
+
+        assertEquals(3, tracker.findPage(0, 3).size());
+        assertEquals(1, tracker.findPage(0, 3).get(0).getId());
+        assertEquals(4, tracker.findPage(3, 3).get(0).getId());
+        assertEquals(9, tracker.findPage(6, 3).get(2).getId());
+        assertEquals(0, tracker.findPage(9, 3).size());
+        assertEquals(1, tracker.findPage(8, 3).size());
+        assertEquals(9, tracker.findPage(-5, 100).size());
+        assertEquals(0, tracker.findPage(0, 0).size());
+    }
+
+    /**
+     * Выполняем проверку постраничного чтения с удалением и добавлением
+     * заявок между запросами страниц. Удаленные заявки не должны
+     * попасть в следующие страницы, остальные заявки должны быть
+     * прочитаны ровно один раз в порядке возрастания идентификатора.
+     */
+    @Test
+    public void whenDeleteBetweenPagesThenNoSkipsOrRepeats() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(tracker.add(new Item("name" + i)).getId());
+        }
+
+        List<Item> first = tracker.findPage(0, 3);
+        tracker.delete(ids.get(2));
+        tracker.delete(ids.get(3));
+        ids.add(tracker.add(new Item("added")).getId());
+        List<Integer> read = new ArrayList<>();
+        first.forEach(item -> read.add(item.getId()));
+        int after = first.get(first.size() - 1).getId();
+        List<Item> page = tracker.findPage(after, 3);
+        while (!page.isEmpty()) {
+            page.forEach(item -> read.add(item.getId()));
+            page = tracker.findPage(page.get(page.size() - 1).getId(), 3);
+        }
+
+        ids.remove(3);
+        assertEquals(ids, read);
+    }
+
+    /**
+     * Выполняем проверку поиска по началу наименования
+     * и без учета регистра реализациями по умолчанию.
+     */
+    @Test
+    public void whenFindByNamePrefixAndIgnoreCaseThenMatchingItems() {
+        tracker.add(new Item("apple"));
+        tracker.add(new Item("Application"));
+        tracker.add(new Item("APPLE"));
+        tracker.add(new Item("50%_off"));
+
+        assertThat(tracker.findByNamePrefix("app").size(), Is.is(1));
+        assertThat(tracker.findByNamePrefix("50%").size(), Is.is(1));
+        assertThat(tracker.findByNamePrefix("5%").size(), Is.is(0));
+        assertThat(tracker.findByNameIgnoreCase("Apple").size(), Is.is(2));
+    }
+
+    /**
+     * Выполняем проверку полнотекстового поиска: заявки упорядочены
+     * по релевантности, слова наименования весят больше слов описания.
+     */
+    @Test
+    public void whenSearchThenItemsRankedByRelevance() {
+        tracker.add(new Item("printer broken", "paper jam in printer"));
+        tracker.add(new Item("network down", "printer is not reachable over network"));
+        tracker.add(new Item("coffee machine", "no coffee"));
+
+        assertThat(names(tracker.search("Printer", 10)),
+                Is.is(List.of("printer broken", "network down")));
+        assertThat(names(tracker.search("printer", 1)), Is.is(List.of("printer broken")));
+        assertThat(names(tracker.search("coffee, network!", 10)),
+                Is.is(List.of("network down", "coffee machine")));
+        assertThat(tracker.search("tea", 10).size(), Is.is(0));
+        assertThat(tracker.search("", 10).size(), Is.is(0));
+    }
+
+    /**
+     * Выполняем проверку обновления результатов полнотекстового поиска
+     * при замене и удалении заявок.
+     */
+    @Test
+    public void whenReplaceAndDeleteThenSearchUpdated() {
+        Item printer = tracker.add(new Item("printer broken", "paper jam"));
+        Item network = tracker.add(new Item("network down", "printer is not reachable"));
+
+        tracker.replace(printer.getId(), new Item("scanner broken", "paper jam"));
+        assertThat(names(tracker.search("printer", 10)), Is.is(List.of("network down")));
+        assertThat(names(tracker.search("scanner", 10)), Is.is(List.of("scanner broken")));
+
+        tracker.delete(network.getId());
+        assertThat(tracker.search("printer", 10).size(), Is.is(0));
+    }
+
+    /**
+     * Возвращает наименования заявок в порядке следования.
+     *
+     * @param items заявки
+     * @return наименования заявок
+     */
+    private static List<String> names(List<Item> items) {
+        List<String> rsl = new ArrayList<>();
+        for (Item found : items) {
+            rsl.add(found.getName());
+        }
+        return rsl;
+    }
+}
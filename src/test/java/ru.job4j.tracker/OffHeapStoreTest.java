@@ -0,0 +1,214 @@
+package ru.job4j.tracker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.OffHeapStore;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+/**
+ * Тест класс реализации хранилища заявок с использованием OffHeapStore
+ * @see ru.job4j.tracker.store.OffHeapStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class OffHeapStoreTest {
+
+    /**
+     * Объект доступа к хранилищу
+     */
+    private OffHeapStore tracker;
+
+    /**
+     * Заявка
+     */
+    private Item item;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @Before
+    public void setUp() {
+        tracker = new OffHeapStore();
+        item = new Item("name", "description");
+    }
+
+    /**
+     * Закрывает хранилище после каждого теста.
+     */
+    @After
+    public void closeStore() {
+        tracker.close();
+    }
+
+    /**
+     * Выполняем проверку добавления заявки в хранилище.
+     * Все поля заявки, полученной методом {@link OffHeapStore#findById(int)},
+     * должны совпадать с сохраненными.
+     */
+    @Test
+    public void whenAddThenAllFieldsRestored() {
+        item.setCreated(new Timestamp(1_000_000L));
+        int id = tracker.add(item).getId();
+
+        Item result = tracker.findById(id);
+
+        assertThat(result, is(item));
+    }
+
+    /**
+     * Выполняем проверку сохранения пустых полей и строк
+     * с символами вне ASCII.
+     */
+    @Test
+    public void whenNullAndUnicodeFieldsThenRestored() {
+        Item empty = new Item((String) null);
+        empty.setCreated(null);
+        Item unicode = new Item("Заявка ✓", "Описание");
+
+        Item emptyResult = tracker.findById(tracker.add(empty).getId());
+        Item unicodeResult = tracker.findById(tracker.add(unicode).getId());
+
+        assertNull(emptyResult.getName());
+        assertNull(emptyResult.getDescription());
+        assertNull(emptyResult.getCreated());
+        assertThat(unicodeResult.getName(), is("Заявка ✓"));
+        assertThat(tracker.findByName("Заявка ✓").size(), is(1));
+        assertThat(tracker.findByName(null).size(), is(1));
+    }
+
+    /**
+     * Выполняем проверку замены и удаления заявки.
+     */
+    @Test
+    public void whenReplaceAndDeleteSuccess() {
+        int first = tracker.add(new Item("first")).getId();
+        int second = tracker.add(new Item("second")).getId();
+
+        assertTrue(tracker.replace(first, new Item("first2", "description2")));
+        assertTrue(tracker.delete(second));
+        assertFalse(tracker.delete(second));
+        assertFalse(tracker.replace(second, new Item("second2")));
+        assertNull(tracker.findById(second));
+        assertThat(tracker.findById(first).getDescription(), is("description2"));
+        assertThat(tracker.findByName("first").size(), is(0));
+        assertThat(tracker.findAll().size(), is(1));
+    }
+
+    /**
+     * Выполняем проверку уплотнения области строк.
+     * После многократной замены заявок и удаления части из них
+     * оставшиеся заявки должны читаться без изменений,
+     * а занятая область не должна расти без ограничений.
+     */
+    @Test
+    public void whenManyReplacesThenArenaCompacted() {
+        int size = 1_000;
+        for (int i = 0; i < size; i++) {
+            tracker.add(new Item("name" + i, "description" + i));
+        }
+        for (int round = 0; round < 100; round++) {
+            for (int id = 1; id <= size; id++) {
+                tracker.replace(id, new Item("name" + id, "description" + round));
+            }
+        }
+        for (int id = 1; id <= size; id += 2) {
+            tracker.delete(id);
+        }
+        tracker.add(new Item("last", "description"));
+
+        List<Item> result = tracker.findAll();
+
+        assertThat(result.size(), is(size / 2 + 1));
+        assertThat(result.get(0).getName(), is("name2"));
+        assertThat(result.get(0).getDescription(), is("description99"));
+        assertThat(result.get(size / 2).getName(), is("last"));
+        assertTrue(tracker.offHeapBytes() < 100_000);
+    }
+
+    /**
+     * Выполняем проверку освобождения строк удаленных заявок.
+     * При постоянном добавлении и удалении заявок колонки
+     * не должны расти, а оставшиеся заявки должны находиться
+     * по идентификатору и читаться по страницам в порядке добавления.
+     */
+    @Test
+    public void whenAddAndDeleteRepeatedlyThenRowsReused() {
+        int capacity = tracker.capacity();
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            int id = tracker.add(new Item("name" + i, "description")).getId();
+            if (i % 10_000 == 0) {
+                kept.add(id);
+            } else {
+                tracker.delete(id);
+            }
+        }
+        int last = tracker.add(new Item("last")).getId();
+
+        assertThat(tracker.capacity(), is(capacity));
+        assertThat(last, is(100_001));
+        assertNull(tracker.findById(2));
+        assertThat(tracker.findById(kept.get(5)).getName(), is("name50000"));
+        List<Integer> read = new ArrayList<>();
+        tracker.findPage(kept.get(2), 100).forEach(found -> read.add(found.getId()));
+        kept.add(last);
+        assertThat(read, is(kept.subList(3, kept.size())));
+        assertThat(tracker.findAll().size(), is(kept.size()));
+    }
+
+    /**
+     * Выполняем проверку обхода заявок в порядке добавления
+     * с пропуском удаленных.
+     */
+    @Test
+    public void whenForEachThenLiveItemsInOrder() {
+        Item first = tracker.add(new Item("first"));
+        Item second = tracker.add(new Item("second"));
+        Item third = tracker.add(new Item("third"));
+        tracker.delete(second.getId());
+        List<Integer> ids = new ArrayList<>();
+
+        tracker.forEach(item -> ids.add(item.getId()));
+
+        assertThat(ids, is(List.of(first.getId(), third.getId())));
+    }
+
+    /**
+     * Выполняем проверку постраничного чтения с удалением и добавлением
+     * заявок между запросами страниц. Удаленные заявки не должны
+     * попасть в следующие страницы, остальные заявки должны быть
+     * прочитаны ровно один раз в порядке возрастания идентификатора.
+     */
+    @Test
+    public void whenDeleteBetweenPagesThenNoSkipsOrRepeats() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(tracker.add(new Item("name" + i)).getId());
+        }
+
+        List<Item> first = tracker.findPage(0, 3);
+        tracker.delete(ids.get(2));
+        tracker.delete(ids.get(3));
+        ids.add(tracker.add(new Item("added")).getId());
+        List<Integer> read = new ArrayList<>();
+        first.forEach(item -> read.add(item.getId()));
+        int after = first.get(first.size() - 1).getId();
+        List<Item> page = tracker.findPage(after, 3);
+        while (!page.isEmpty()) {
+            page.forEach(item -> read.add(item.getId()));
+            page = tracker.findPage(page.get(page.size() - 1).getId(), 3);
+        }
+
+        ids.remove(3);
+        assertThat(read, is(ids));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.job4j.tracker;
+
+import org.junit.Test;
+import ru.job4j.tracker.io.ScriptInput;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Тест класс ввода из сценария команд ScriptInput
+ * @see ru.job4j.tracker.io.ScriptInput
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class ScriptInputTest {
+
+    /**
+     * Создает ввод из текста сценария.
+     *
+     * @param script текст сценария
+     * @return ввод
+     */
+    private static ScriptInput input(String script) {
+        return new ScriptInput(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Выполняем проверку чтения строк и чисел с окончаниями \n и \r\n
+     * и последней строки без окончания.
+     */
+    @Test
+    public void whenLinesThenReadInOrder() {
+        ScriptInput in = input("1\r\nзаявка\n\n-42\n2147483647\n-2147483648\nlast");
+
+        assertThat(in.askInt("Select: "), is(1));
+        assertThat(in.askStr("Name: "), is("заявка"));
+        assertThat(in.askStr("Name: "), is(""));
+        assertThat(in.askInt("Id: "), is(-42));
+        assertThat(in.askInt("Id: "), is(Integer.MAX_VALUE));
+        assertThat(in.askInt("Id: "), is(Integer.MIN_VALUE));
+        assertThat(in.hasNext(), is(true));
+        assertThat(in.askStr("Name: "), is("last"));
+        assertThat(in.getLine(), is(7));
+        assertThat(in.hasNext(), is(false));
+    }
+
+    /**
+     * Выполняем проверку, что некорректное число вызывает исключение,
+     * а следующая строка читается.
+     */
+    @Test
+    public void whenNotNumberThenExceptionAndNextLineRead() {
+        ScriptInput in = input("one\n2147483648\n-\n 1\n7\n");
+        for (int i = 0; i < 4; i++) {
+            try {
+                in.askInt("Select: ");
+                throw new AssertionError("NumberFormatException expected");
+            } catch (NumberFormatException e) {
+                assertThat(e.getMessage().startsWith("For input string"), is(true));
+            }
+        }
+
+        assertThat(in.askInt("Select: "), is(7));
+    }
+
+    /**
+     * Выполняем проверку чтения строки длиннее буфера чтения,
+     * когда поток отдает данные малыми порциями.
+     */
+    @Test
+    public void whenLongLineInSmallChunksThenReadWhole() {
+        String name = "x".repeat(200_000);
+        byte[] bytes = (name + "\n5\n").getBytes(StandardCharsets.UTF_8);
+        InputStream chunked = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+        ScriptInput in = new ScriptInput(chunked);
+
+        assertThat(in.askStr("Name: "), is(name));
+        assertThat(in.askInt("Id: "), is(5));
+    }
+
+    /**
+     * Выполняем проверку исключения при чтении после конца сценария.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void whenEndOfScriptThenException() {
+        ScriptInput in = input("1\n");
+        in.askInt("Select: ");
+        in.askStr("Name: ");
+    }
+}
@@ -6,11 +6,14 @@ import org.junit.Test;
 import ru.job4j.tracker.action.*;
 import ru.job4j.tracker.io.Input;
 import ru.job4j.tracker.io.Output;
+import ru.job4j.tracker.io.ScriptInput;
 import ru.job4j.tracker.io.StubInput;
 import ru.job4j.tracker.io.StubOutput;
 import ru.job4j.tracker.model.Item;
 import ru.job4j.tracker.store.MemoryStore;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -112,6 +115,34 @@ public class StartUITest {
         ));
     }
 
+    /**
+     * Выполняем проверку выполнения действия - Show all items,
+     * если в хранилище есть заявки.
+     */
+    @Test
+    public void findAllActionWithItems() {
+        tracker.add(item);
+        Item other = tracker.add(new Item("other", "another task"));
+        Input in = new StubInput(
+                new String[] {"0", "1"}
+        );
+        actions.add(new ShowAction(out));
+        actions.add(new Exit());
+        new StartUI(out).init(in, tracker, actions);
+
+        assertThat(out.toString(), is(
+                "Menu." + System.lineSeparator()
+                        + "0. Show all items" + System.lineSeparator()
+                        + "1. Exit" + System.lineSeparator()
+                        + System.lineSeparator() + "=== Show Items ====" + System.lineSeparator()
+                        + item + System.lineSeparator()
+                        + other + System.lineSeparator()
+                        + "Menu." + System.lineSeparator()
+                        + "0. Show all items" + System.lineSeparator()
+                        + "1. Exit" + System.lineSeparator()
+        ));
+    }
+
     /**
      * Выполняем проверку выполнения действия - Edit item,
      * если выполнение успешно.
@@ -332,6 +363,62 @@ public class StartUITest {
         ));
     }
 
+    /**
+     * Выполняем проверку выполнения действия - Search items by text,
+     * если выполнение успешно.
+     */
+    @Test
+    public void searchActionSuccess() {
+        Item other = new Item("other", "another task");
+        tracker.add(other);
+        tracker.add(item);
+        Input in = new StubInput(
+                new String[] {"0", "Name description", "1"}
+        );
+        actions.add(new SearchAction(out));
+        actions.add(new Exit());
+        new StartUI(out).init(in, tracker, actions);
+
+        assertThat(out.toString(), is(
+                "Menu." + System.lineSeparator()
+                        + "0. Search items by text" + System.lineSeparator()
+                        + "1. Exit" + System.lineSeparator()
+                        + System.lineSeparator() + "=== Search Items by text ===="
+                        + System.lineSeparator()
+                        + item + System.lineSeparator()
+                        + "Menu." + System.lineSeparator()
+                        + "0. Search items by text" + System.lineSeparator()
+                        + "1. Exit" + System.lineSeparator()
+        ));
+    }
+
+    /**
+     * Выполняем проверку выполнения действия - Search items by text,
+     * если выполнение неуспешно.
+     */
+    @Test
+    public void searchActionFail() {
+        tracker.add(item);
+        Input in = new StubInput(
+                new String[] {"0", "missing", "1"}
+        );
+        actions.add(new SearchAction(out));
+        actions.add(new Exit());
+        new StartUI(out).init(in, tracker, actions);
+
+        assertThat(out.toString(), is(
+                "Menu." + System.lineSeparator()
+                        + "0. Search items by text" + System.lineSeparator()
+                        + "1. Exit" + System.lineSeparator()
+                        + System.lineSeparator() + "=== Search Items by text ===="
+                        + System.lineSeparator()
+                        + "No items matching the words were found" + System.lineSeparator()
+                        + "Menu." + System.lineSeparator()
+                        + "0. Search items by text" + System.lineSeparator()
+                        + "1. Exit" + System.lineSeparator()
+        ));
+    }
+
     /**
      * Выполняем проверку выполнения действия - Exit,
      * если выполнение успешно.
@@ -370,4 +457,71 @@ public class StartUITest {
                                 + "0. Exit" + System.lineSeparator()
         ));
     }
+
+    /**
+     * Выполняем проверку выполнения сценария команд без вывода меню,
+     * с пропуском некорректного ввода и выводом итога.
+     */
+    @Test
+    public void whenBatchThenCommandsRunWithoutMenu() throws Exception {
+        String script = String.join("\n", "0", "first", "desc", "x", "5", "0", "second", "desc",
+                "1", "0", "unreachable", "desc");
+        actions.add(new CreateAction(out));
+        actions.add(new Exit());
+        long commands;
+        try (ScriptInput in = new ScriptInput(
+                new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)))) {
+            commands = new StartUI(out).batch(in, tracker, actions);
+        }
+
+        assertThat(commands, is(3L));
+        assertThat(tracker.findAll().size(), is(2));
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertThat(lines[1], is("=== Create a new Item ===="));
+        assertThat(lines[2], is("Wrong input at line 4: For input string: \"x\""));
+        assertThat(lines[3], is("Wrong input at line 5, you can select: 0 .. 1"));
+        assertThat(lines[5], is("=== Create a new Item ===="));
+        assertThat(lines[6].startsWith("Batch: 3 commands in "), is(true));
+        assertThat(lines.length, is(7));
+    }
+
+    /**
+     * Выполняем проверку завершения сценария, оборванного внутри команды.
+     */
+    @Test
+    public void whenBatchEndsInsideCommandThenStopped() throws Exception {
+        actions.add(new CreateAction(out));
+        long commands;
+        try (ScriptInput in = new ScriptInput(
+                new ByteArrayInputStream("0\nname\n".getBytes(StandardCharsets.UTF_8)))) {
+            commands = new StartUI(out).batch(in, tracker, actions);
+        }
+
+        assertThat(commands, is(0L));
+        assertThat(tracker.findAll().size(), is(0));
+        assertThat(out.toString().contains("Unexpected end of script at line 2"), is(true));
+    }
+
+    /**
+     * Выполняем проверку остановки сценария на некорректном
+     * идентификаторе внутри команды: следующие строки команды
+     * не должны выполняться как номера действий.
+     */
+    @Test
+    public void whenBatchCommandHasWrongIdThenStopped() throws Exception {
+        String script = String.join("\n", "0", "first", "desc", "1", "x", "0", "injected", "desc");
+        actions.add(new CreateAction(out));
+        actions.add(new ReplaceAction(out));
+        long commands;
+        try (ScriptInput in = new ScriptInput(
+                new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)))) {
+            commands = new StartUI(out).batch(in, tracker, actions);
+        }
+
+        assertThat(commands, is(1L));
+        assertThat(tracker.findAll().size(), is(1));
+        assertThat(tracker.findAll().get(0).getName(), is("first"));
+        assertThat(out.toString().contains(
+                "Wrong input at line 5: For input string: \"x\", batch stopped"), is(true));
+    }
 }
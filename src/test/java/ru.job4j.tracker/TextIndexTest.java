@@ -0,0 +1,78 @@
+package ru.job4j.tracker;
+
+import org.junit.Before;
+import org.junit.Test;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.TextIndex;
+
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+/**
+ * Тест класс полнотекстового индекса заявок TextIndex
+ * @see ru.job4j.tracker.store.TextIndex
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class TextIndexTest {
+
+    /**
+     * Проверяемый индекс
+     */
+    private TextIndex index;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @Before
+    public void setUp() {
+        index = new TextIndex();
+    }
+
+    /**
+     * Выполняем проверку разбиения текста на слова в нижнем регистре.
+     */
+    @Test
+    public void whenTokenizeThenLowerCaseWords() {
+        assertThat(TextIndex.tokenize("Принтер, HP-1020: не печатает!"),
+                is(List.of("принтер", "hp", "1020", "не", "печатает")));
+        assertThat(TextIndex.tokenize(null).size(), is(0));
+        assertThat(TextIndex.tokenize(" ,. ").size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку ранжирования: редкое слово весит больше частого.
+     */
+    @Test
+    public void whenSearchThenRareTermRankedHigher() {
+        index.add(new Item(1, "task common"));
+        index.add(new Item(2, "task rare"));
+        index.add(new Item(3, "task common"));
+
+        assertThat(index.search("common rare", 10), is(List.of(2, 1, 3)));
+        assertThat(index.search("common rare", 2), is(List.of(2, 1)));
+        assertThat(index.search("task", 0).size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку удаления заявки и повторного добавления
+     * заявки с тем же идентификатором.
+     */
+    @Test
+    public void whenRemoveAndReAddThenOldWordsNotFound() {
+        index.add(new Item(1, "old"));
+        index.add(new Item(1, "new"));
+
+        assertThat(index.search("old", 10).size(), is(0));
+        assertThat(index.search("new", 10), is(List.of(1)));
+        assertThat(index.size(), is(1));
+
+        index.remove(1);
+        index.remove(1);
+        assertThat(index.search("new", 10).size(), is(0));
+        assertThat(index.size(), is(0));
+    }
+}
@@ -0,0 +1,346 @@
+package ru.job4j.tracker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ru.job4j.tracker.action.CreateAction;
+import ru.job4j.tracker.action.Exit;
+import ru.job4j.tracker.action.UserAction;
+import ru.job4j.tracker.io.StubInput;
+import ru.job4j.tracker.io.StubOutput;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.ConcurrentMemoryStore;
+import ru.job4j.tracker.store.Store;
+import ru.job4j.tracker.store.WriteBehindStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тест класс хранилища заявок с отложенной записью WriteBehindStore
+ * @see ru.job4j.tracker.store.WriteBehindStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class WriteBehindStoreTest {
+
+    /**
+     * Интервал записи, при котором запись по времени не наступает в тесте
+     */
+    private static final long NEVER = 3_600_000;
+
+    /**
+     * Обернутое хранилище
+     */
+    private ConcurrentMemoryStore store;
+
+    /**
+     * Проверяемое хранилище
+     */
+    private WriteBehindStore tracker;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @Before
+    public void setUp() {
+        store = new ConcurrentMemoryStore();
+        tracker = new WriteBehindStore(store, 100, NEVER);
+    }
+
+    /**
+     * Закрывает хранилище после каждого теста.
+     */
+    @After
+    public void tearDown() throws Exception {
+        tracker.close();
+    }
+
+    /**
+     * Ожидает, пока в хранилище не окажется заданное количество заявок.
+     *
+     * @param expected количество заявок
+     */
+    private void awaitSize(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (store.findAll().size() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(store.findAll().size(), is(expected));
+    }
+
+    /**
+     * Выполняем проверку, что добавленная и замененная заявка
+     * видна до записи в хранилище и после нее.
+     */
+    @Test
+    public void whenAddAndReplaceThenReadYourWrites() {
+        Item item = tracker.add(new Item("name", "description"));
+        int tempId = item.getId();
+
+        assertTrue(tempId < 0);
+        assertThat(tracker.findById(tempId), is(item));
+        assertThat(store.findAll().size(), is(0));
+
+        assertTrue(tracker.replace(tempId, new Item("renamed")));
+        assertThat(tracker.findById(tempId).getName(), is("renamed"));
+        assertThat(tracker.findByName("renamed").size(), is(1));
+        assertThat(store.findAll().size(), is(1));
+        int id = store.findAll().get(0).getId();
+        assertThat(tracker.findById(tempId).getId(), is(id));
+        assertThat(tracker.findById(id).getName(), is("renamed"));
+    }
+
+    /**
+     * Выполняем проверку, что удаление заявки до записи отменяет
+     * ее добавление, а удаление после записи выполняется после добавления.
+     */
+    @Test
+    public void whenAddThenDeleteThenItemNeverVisible() {
+        int pendingId = tracker.add(new Item("pending")).getId();
+        assertTrue(tracker.delete(pendingId));
+        assertNull(tracker.findById(pendingId));
+        assertFalse(tracker.delete(pendingId));
+        assertFalse(tracker.replace(pendingId, new Item("other")));
+
+        int flushedId = tracker.add(new Item("flushed")).getId();
+        tracker.flush();
+        assertTrue(tracker.delete(flushedId));
+        assertNull(tracker.findById(flushedId));
+        assertThat(store.findAll().size(), is(1));
+
+        assertThat(tracker.findAll().size(), is(0));
+        assertThat(tracker.getPendingCount(), is(0));
+    }
+
+    /**
+     * Выполняем проверку, что повторные замены заявки до записи
+     * записываются в хранилище одной заменой без чтения заявки
+     * из хранилища.
+     */
+    @Test
+    public void whenReplacedManyTimesThenOneReplaceWritten() throws Exception {
+        Store backend = mock(Store.class);
+        when(backend.replace(eq(5), any(Item.class))).thenReturn(true);
+        try (WriteBehindStore writeBehind = new WriteBehindStore(backend, 100, NEVER)) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(writeBehind.replace(5, new Item("name" + i)));
+            }
+            assertThat(writeBehind.findById(5).getName(), is("name9"));
+            assertThat(writeBehind.getPendingCount(), is(1));
+        }
+
+        verify(backend, times(1)).replace(eq(5), any(Item.class));
+        verify(backend, never()).findById(anyInt());
+        verify(backend).close();
+    }
+
+    /**
+     * Выполняем проверку, что замена и удаление заявки, которой нет
+     * в буфере, принимаются без обращения к хранилищу, а замена
+     * отсутствующей в хранилище заявки при записи не выполняется.
+     */
+    @Test
+    public void whenReplaceOrDeleteNotBufferedThenCheckedOnFlush() {
+        int id = tracker.add(new Item("name")).getId();
+        tracker.flush();
+        int stored = store.findAll().get(0).getId();
+
+        assertTrue(tracker.replace(stored + 100, new Item("missing")));
+        assertTrue(tracker.delete(stored + 200));
+        assertTrue(tracker.delete(stored));
+        assertFalse(tracker.replace(-1_000, new Item("unknown")));
+        assertThat(tracker.getPendingCount(), is(3));
+
+        tracker.flush();
+        assertThat(store.findAll().size(), is(0));
+        assertNull(tracker.findById(stored + 100));
+        assertNull(tracker.findById(id));
+    }
+
+    /**
+     * Выполняем проверку, что ошибка добавления в хранилище
+     * не связывает временный идентификатор с идентификатором 0.
+     */
+    @Test
+    public void whenStoreReturnsItemsWithoutIdThenFlushFails() throws Exception {
+        Store backend = mock(Store.class);
+        when(backend.addAll(any())).thenAnswer(invocation -> new ArrayList<Item>(
+                invocation.getArgument(0)));
+        try (WriteBehindStore writeBehind = new WriteBehindStore(backend, 100, NEVER)) {
+            int tempId = writeBehind.add(new Item("name")).getId();
+
+            assertThrows(IllegalStateException.class, writeBehind::flush);
+            assertNull(writeBehind.findById(tempId));
+            assertFalse(writeBehind.replace(tempId, new Item("other")));
+            assertThat(writeBehind.getPendingCount(), is(0));
+        }
+        verify(backend, never()).replace(anyInt(), any(Item.class));
+    }
+
+    /**
+     * Выполняем проверку, что хранилище закрывается,
+     * даже если запись буфера при закрытии завершилась ошибкой.
+     */
+    @Test
+    public void whenFlushFailsOnCloseThenStoreClosed() throws Exception {
+        Store backend = mock(Store.class);
+        when(backend.addAll(any())).thenThrow(new IllegalStateException("Batch insert failed"));
+        WriteBehindStore writeBehind = new WriteBehindStore(backend, 100, NEVER);
+        writeBehind.add(new Item("name"));
+
+        assertThrows(IllegalStateException.class, writeBehind::close);
+        verify(backend).close();
+    }
+
+    /**
+     * Выполняем проверку записи буфера при достижении размера пакета.
+     */
+    @Test
+    public void whenBatchSizeReachedThenFlushed() throws Exception {
+        tracker.close();
+        tracker = new WriteBehindStore(store, 10, NEVER);
+        for (int i = 0; i < 10; i++) {
+            tracker.add(new Item("name" + i));
+        }
+
+        awaitSize(10);
+    }
+
+    /**
+     * Выполняем проверку записи буфера по истечении интервала.
+     */
+    @Test
+    public void whenIntervalElapsedThenFlushed() throws Exception {
+        tracker.close();
+        tracker = new WriteBehindStore(store, 100, 20);
+        tracker.add(new Item("name"));
+
+        awaitSize(1);
+    }
+
+    /**
+     * Выполняем проверку, что после выхода из программы и закрытия
+     * хранилища все добавленные заявки записаны.
+     */
+    @Test
+    public void whenExitAndCloseThenNothingLost() throws Exception {
+        List<UserAction> actions = List.of(new CreateAction(new StubOutput()), new Exit());
+        new StartUI(new StubOutput()).init(
+                new StubInput(new String[] {"0", "first", "desc", "0", "second", "desc", "1"}),
+                tracker, actions);
+        assertThat(store.findAll().size(), is(0));
+
+        tracker.close();
+
+        assertThat(store.findAll().size(), is(2));
+        assertThat(store.findByName("second").size(), is(1));
+    }
+
+    /**
+     * Выполняем проверку, что после записи временный идентификатор
+     * и идентификатор хранилища относятся к одной заявке: удаление
+     * по временному идентификатору видно по идентификатору хранилища.
+     */
+    @Test
+    public void whenDeletedByTempIdAfterFlushThenGoneByStoreId() {
+        int tempId = tracker.add(new Item("name")).getId();
+        tracker.flush();
+        int id = store.findAll().get(0).getId();
+
+        assertTrue(tracker.delete(tempId));
+        assertNull(tracker.findById(id));
+        assertNull(tracker.findById(tempId));
+        assertFalse(tracker.replace(id, new Item("other")));
+        assertFalse(tracker.delete(id));
+        assertThat(tracker.getPendingCount(), is(1));
+
+        tracker.flush();
+        assertThat(store.findAll().size(), is(0));
+    }
+
+    /**
+     * Выполняем проверку, что замена по идентификатору хранилища
+     * и по временному идентификатору объединяются в одну замену.
+     */
+    @Test
+    public void whenReplacedByBothIdsThenOneChange() {
+        int tempId = tracker.add(new Item("name")).getId();
+        tracker.flush();
+        int id = store.findAll().get(0).getId();
+
+        assertTrue(tracker.replace(id, new Item("first")));
+        assertTrue(tracker.replace(tempId, new Item("second")));
+        assertThat(tracker.getPendingCount(), is(1));
+        assertThat(tracker.findById(id).getName(), is("second"));
+
+        tracker.flush();
+        assertThat(store.findById(id).getName(), is("second"));
+    }
+
+    /**
+     * Выполняем проверку, что в хранилище записываются копии заявок,
+     * а объект добавленной заявки сохраняет временный идентификатор.
+     */
+    @Test
+    public void whenFlushedThenCallerItemNotChanged() {
+        Item item = tracker.add(new Item("name", "description"));
+        int tempId = item.getId();
+        tracker.flush();
+
+        Item stored = store.findAll().get(0);
+        assertThat(item.getId(), is(tempId));
+        assertTrue(stored != item);
+        assertThat(stored.getName(), is("name"));
+        assertThat(stored.getDescription(), is("description"));
+        assertThat(stored.getCreated(), is(item.getCreated()));
+    }
+
+    /**
+     * Выполняем проверку, что хранится не больше MAX_RESOLVED
+     * соответствий временных идентификаторов.
+     */
+    @Test
+    public void whenManyAddedThenOldestTempIdsForgotten() {
+        int first = tracker.add(new Item("first")).getId();
+        int last = 0;
+        for (int i = 0; i < WriteBehindStore.MAX_RESOLVED; i++) {
+            last = tracker.add(new Item("name" + i)).getId();
+            if (i % 99 == 0) {
+                tracker.flush();
+            }
+        }
+        tracker.flush();
+
+        assertNull(tracker.findById(first));
+        assertThat(tracker.findById(last).getName(),
+                is("name" + (WriteBehindStore.MAX_RESOLVED - 1)));
+        assertThat(tracker.findByName("first").size(), is(1));
+    }
+
+    /**
+     * Выполняем проверку, что изменения после закрытия хранилища
+     * не принимаются.
+     */
+    @Test
+    public void whenClosedThenWritesRejected() throws Exception {
+        int id = tracker.add(new Item("name")).getId();
+        tracker.close();
+
+        assertThat(store.findAll().size(), is(1));
+        assertThrows(IllegalStateException.class, () -> tracker.add(new Item("late")));
+        assertThrows(IllegalStateException.class,
+                () -> tracker.addAll(List.of(new Item("late"))));
+        assertThrows(IllegalStateException.class, () -> tracker.replace(id, new Item("late")));
+        assertThrows(IllegalStateException.class, () -> tracker.delete(id));
+        assertThat(store.findAll().size(), is(1));
+    }
+}
@@ -0,0 +1,144 @@
+package ru.job4j.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.AsyncStore;
+import ru.job4j.tracker.store.ConnectionPool;
+import ru.job4j.tracker.store.JDBCStore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк времени выполнения {@link #CALLS} одновременно запущенных
+ * поисков заявок по идентификатору через {@link AsyncStore} поверх
+ * {@link JDBCStore} на базе данных H2 в памяти в зависимости
+ * от количества потоков фасада. Размер пула соединений равен
+ * количеству потоков. Для сравнения те же поиски выполняются
+ * последовательно в вызывающем потоке.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=AsyncStoreFanOutBenchmark
+ * @see ru.job4j.tracker.store.AsyncStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncStoreFanOutBenchmark {
+
+    /**
+     * Количество заявок в хранилище
+     */
+    private static final int SIZE = 10_000;
+
+    /**
+     * Количество поисков за один вызов
+     */
+    private static final int CALLS = 1000;
+
+    /**
+     * Количество потоков фасада и соединений пула
+     */
+    @Param({"1", "4", "16"})
+    private int concurrency;
+
+    /**
+     * Пул соединений
+     */
+    private ConnectionPool pool;
+
+    /**
+     * Хранилище
+     */
+    private JDBCStore store;
+
+    /**
+     * Асинхронный фасад хранилища
+     */
+    private AsyncStore async;
+
+    /**
+     * Идентификаторы искомых заявок
+     */
+    private int[] ids;
+
+    /**
+     * Создает таблицу заявок в базе данных в памяти и заполняет ее.
+     */
+    @Setup
+    public void setUp() throws SQLException {
+        Properties config = new Properties();
+        config.setProperty("url", "jdbc:h2:mem:fanout" + concurrency + ";DB_CLOSE_DELAY=-1");
+        config.setProperty("username", "");
+        config.setProperty("password", "");
+        config.setProperty("driver-class-name", "org.h2.Driver");
+        config.setProperty("pool.max-size", String.valueOf(concurrency));
+        config.setProperty("pool.statement-cache-size", "32");
+        pool = new ConnectionPool(config);
+        try (Connection cn = pool.getConnection();
+             Statement statement = cn.createStatement()) {
+            statement.execute("create table items(id serial primary key, "
+                    + "name text, created timestamp, description text)");
+        }
+        store = new JDBCStore(pool);
+        List<Item> items = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            items.add(new Item("name" + i));
+        }
+        int[] added = store.addAll(items).stream().mapToInt(Item::getId).toArray();
+        ids = new int[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            ids[i] = added[i * (SIZE / CALLS)];
+        }
+        async = new AsyncStore(store, concurrency);
+    }
+
+    /**
+     * Закрывает фасад, хранилище и пул соединений.
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        async.close();
+    }
+
+    /**
+     * Запускает все поиски через фасад и ожидает их завершения.
+     *
+     * @return найденные заявки
+     */
+    @Benchmark
+    public List<Item> fanOut() {
+        List<CompletableFuture<Item>> calls = new ArrayList<>(CALLS);
+        for (int id : ids) {
+            calls.add(async.findById(id));
+        }
+        List<Item> rsl = new ArrayList<>(CALLS);
+        for (CompletableFuture<Item> call : calls) {
+            rsl.add(call.join());
+        }
+        return rsl;
+    }
+
+    /**
+     * Выполняет все поиски последовательно в вызывающем потоке.
+     *
+     * @return найденные заявки
+     */
+    @Benchmark
+    public List<Item> sequential() {
+        List<Item> rsl = new ArrayList<>(CALLS);
+        for (int id : ids) {
+            rsl.add(store.findById(id));
+        }
+        return rsl;
+    }
+}
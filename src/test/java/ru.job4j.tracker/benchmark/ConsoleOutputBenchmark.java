@@ -0,0 +1,90 @@
+package ru.job4j.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.tracker.io.ConsoleOutput;
+import ru.job4j.tracker.model.Item;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк вывода списка заявок. Сравнивает вывод каждой заявки
+ * через PrintStream.println и Item.toString, как System.out,
+ * с ConsoleOutput.printItem, буферизующим вывод и форматирующим
+ * заявки в повторно используемый буфер. Вывод идет в пустой поток,
+ * поэтому измеряются форматирование и работа потоков вывода.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=ConsoleOutputBenchmark
+ * @see ru.job4j.tracker.io.ConsoleOutput
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleOutputBenchmark {
+
+    /**
+     * Количество заявок в списке
+     */
+    @Param({"10000"})
+    private int size;
+
+    /**
+     * Выводимые заявки
+     */
+    private List<Item> items;
+
+    /**
+     * Вывод через PrintStream с автоматической записью строк
+     */
+    private PrintStream printStream;
+
+    /**
+     * Буферизованный вывод
+     */
+    private ConsoleOutput output;
+
+    /**
+     * Создает заявки и потоки вывода.
+     */
+    @Setup
+    public void setUp() {
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(i, "name" + i));
+        }
+        printStream = new PrintStream(OutputStream.nullOutputStream(), true,
+                StandardCharsets.UTF_8);
+        output = new ConsoleOutput(new OutputStreamWriter(OutputStream.nullOutputStream(),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Вывод заявок через PrintStream.println.
+     */
+    @Benchmark
+    public void printStream() {
+        for (Item item : items) {
+            printStream.println(item);
+        }
+    }
+
+    /**
+     * Вывод заявок через ConsoleOutput.printItem.
+     */
+    @Benchmark
+    public void consoleOutput() {
+        for (Item item : items) {
+            output.printItem(item);
+        }
+        output.flush();
+    }
+}
@@ -0,0 +1,117 @@
+package ru.job4j.tracker.benchmark;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.tracker.model.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк параллельного поиска заявок по идентификатору через Hibernate
+ * в зависимости от поставщика соединений: встроенного пула Hibernate
+ * или пула {@link ru.job4j.tracker.store.PooledConnectionProvider}.
+ * Размер обоих пулов равен {@link #POOL_SIZE}: встроенный пул
+ * с одним соединением, как было в hibernate.cfg.xml, при параллельных
+ * сессиях не ждет соединения, а завершает сессию ошибкой.
+ * Кеш второго уровня и статистика отключены, чтобы каждый поиск
+ * обращался к базе данных H2.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=HibernateFindByIdBenchmark
+ * @see ru.job4j.tracker.store.HibernateStore#findById(int)
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class HibernateFindByIdBenchmark {
+
+    /**
+     * Количество заявок в хранилище
+     */
+    private static final int SIZE = 1000;
+
+    /**
+     * Максимальное количество соединений обоих пулов
+     */
+    private static final String POOL_SIZE = "4";
+
+    /**
+     * Поставщик соединений: builtin или pooled
+     */
+    @Param({"builtin", "pooled"})
+    private String provider;
+
+    /**
+     * Фабрика сессий
+     */
+    private SessionFactory sf;
+
+    /**
+     * Идентификаторы добавленных заявок
+     */
+    private final List<Integer> ids = new ArrayList<>();
+
+    /**
+     * Создает фабрику сессий с выбранным поставщиком соединений
+     * и добавляет заявки.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Configuration configuration = new Configuration().configure()
+                .setProperty("hibernate.cache.use_second_level_cache", "false")
+                .setProperty("hibernate.cache.use_query_cache", "false")
+                .setProperty("hibernate.generate_statistics", "false")
+                .setProperty("hibernate.connection.pool.max-size", POOL_SIZE);
+        if ("builtin".equals(provider)) {
+            configuration.setProperty("hibernate.connection.provider_class",
+                    "org.hibernate.engine.jdbc.connections.internal"
+                            + ".DriverManagerConnectionProviderImpl")
+                    .setProperty("hibernate.connection.pool_size", POOL_SIZE);
+        }
+        sf = configuration.buildSessionFactory();
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < SIZE; i++) {
+                Item item = new Item("name" + i, "description" + i);
+                session.save(item);
+                ids.add(item.getId());
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    /**
+     * Закрывает фабрику сессий.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sf.close();
+    }
+
+    /**
+     * Поиск случайной заявки по идентификатору в отдельной сессии
+     * и транзакции, как в {@link ru.job4j.tracker.store.HibernateStore#findById(int)}.
+     *
+     * @return заявка
+     */
+    @Benchmark
+    public Item findById() {
+        int id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        Item result;
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            result = session.get(Item.class, id);
+            session.getTransaction().commit();
+        }
+        return result;
+    }
+}
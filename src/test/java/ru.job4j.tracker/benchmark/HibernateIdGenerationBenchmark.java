@@ -0,0 +1,155 @@
+package ru.job4j.tracker.benchmark;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.tracker.model.Item;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк скорости добавления заявок через Hibernate в зависимости
+ * от способа генерации идентификаторов. Заявки с идентификатором
+ * IDENTITY вставляются по одной, так как идентификатор известен только
+ * после вставки, заявки {@link Item} получают идентификаторы диапазонами
+ * из последовательности и вставляются пакетами.
+ * Кеш второго уровня и статистика отключены, чтобы сравнивались только вставки.
+ * Результат - количество вставок в секунду в базу данных H2.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=HibernateIdGenerationBenchmark
+ * @see ru.job4j.tracker.store.HibernateStore#addAll(java.util.Collection)
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HibernateIdGenerationBenchmark {
+
+    /**
+     * Количество заявок, добавляемых за один вызов
+     */
+    private static final int SIZE = 1000;
+
+    /**
+     * Способ генерации идентификаторов: identity или sequence
+     */
+    @Param({"identity", "sequence"})
+    private String generator;
+
+    /**
+     * Фабрика сессий с обеими сущностями
+     */
+    private SessionFactory sf;
+
+    /**
+     * Заявка с идентификатором, который генерирует база данных при вставке.
+     */
+    @Entity
+    @Table(name = "identity_items")
+    @Data
+    @NoArgsConstructor
+    public static class IdentityItem {
+
+        /**
+         * Идентификатор заявки
+         */
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private int id;
+
+        /**
+         * Наименование заявки
+         */
+        private String name;
+
+        /**
+         * Время создание заявки
+         */
+        private Timestamp created = new Timestamp(System.currentTimeMillis());
+
+        /**
+         * Описание заявки
+         */
+        private String description;
+
+        /**
+         * Конструктор.
+         *
+         * @param name наименование заявки
+         * @param description описание заявки
+         */
+        public IdentityItem(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+    }
+
+    /**
+     * Создает фабрику сессий по тестовой конфигурации
+     * с отключенными кешем второго уровня и сбором статистики.
+     */
+    @Setup(Level.Trial)
+    public void setUpSessionFactory() {
+        sf = new Configuration().configure()
+                .addAnnotatedClass(IdentityItem.class)
+                .setProperty("hibernate.cache.use_second_level_cache", "false")
+                .setProperty("hibernate.cache.use_query_cache", "false")
+                .setProperty("hibernate.generate_statistics", "false")
+                .buildSessionFactory();
+    }
+
+    /**
+     * Очищает таблицы перед каждым вызовом,
+     * чтобы все вызовы добавляли заявки в пустую таблицу.
+     */
+    @Setup(Level.Invocation)
+    public void wipe() {
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            session.createNativeQuery("truncate table items").executeUpdate();
+            session.createNativeQuery("truncate table identity_items").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    /**
+     * Закрывает фабрику сессий.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sf.close();
+    }
+
+    /**
+     * Добавление заявок в одной сессии и одной транзакции.
+     *
+     * @return количество добавленных заявок
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int insert() {
+        boolean identity = "identity".equals(generator);
+        try (Session session = sf.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < SIZE; i++) {
+                session.save(identity
+                        ? new IdentityItem("name" + i, "description")
+                        : new Item("name" + i, "description"));
+            }
+            session.getTransaction().commit();
+        }
+        return SIZE;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.job4j.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.InstrumentedStore;
+import ru.job4j.tracker.store.MemoryStore;
+import ru.job4j.tracker.store.Store;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк затрат на измерение операций: поиск заявки по идентификатору
+ * в {@link MemoryStore} напрямую и через {@link InstrumentedStore}.
+ * Поиск в памяти занимает десятки наносекунд, поэтому разница
+ * показывает затраты измерения одного вызова.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=InstrumentedStoreBenchmark
+ * @see ru.job4j.tracker.store.InstrumentedStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentedStoreBenchmark {
+
+    /**
+     * Количество заявок в хранилище
+     */
+    private static final int SIZE = 10_000;
+
+    /**
+     * Хранилище: plain или instrumented
+     */
+    @Param({"plain", "instrumented"})
+    private String mode;
+
+    /**
+     * Проверяемое хранилище
+     */
+    private Store store;
+
+    /**
+     * Заполняет хранилище.
+     */
+    @Setup
+    public void setUp() {
+        MemoryStore memory = new MemoryStore();
+        for (int i = 0; i < SIZE; i++) {
+            memory.add(new Item("name" + i));
+        }
+        store = "plain".equals(mode) ? memory : new InstrumentedStore(memory, "benchmark");
+    }
+
+    /**
+     * Закрывает хранилище и удаляет показатели из JMX.
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        store.close();
+    }
+
+    /**
+     * Поиск случайной заявки по идентификатору.
+     *
+     * @return заявка
+     */
+    @Benchmark
+    public Item findById() {
+        return store.findById(ThreadLocalRandom.current().nextInt(SIZE) + 1);
+    }
+}
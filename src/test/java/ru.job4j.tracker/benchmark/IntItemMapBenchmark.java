@@ -0,0 +1,167 @@
+package ru.job4j.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.IntItemMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк отображения идентификатора заявки на заявку.
+ * Сравнивает IntItemMap с HashMap с ключами Integer
+ * на поиске, замене и удалении заявки.
+ * Для вывода скорости выделения памяти (gc.alloc.rate.norm, байт на операцию)
+ * запуск: mvn -Pbenchmark test -Djmh.include=IntItemMapBenchmark -Djmh.args="-prof gc"
+ * @see ru.job4j.tracker.store.IntItemMap
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntItemMapBenchmark {
+
+    /**
+     * Смещение идентификаторов, чтобы ключи HashMap
+     * не попадали в кеш Integer.valueOf
+     */
+    private static final int OFFSET = 1_000;
+
+    /**
+     * Количество заявок
+     */
+    @Param({"100000", "1000000"})
+    private int size;
+
+    /**
+     * Проверяемое отображение
+     */
+    private IntItemMap primitive;
+
+    /**
+     * Базовое отображение
+     */
+    private Map<Integer, Item> boxed;
+
+    /**
+     * Заявка для замены
+     */
+    private Item replacement;
+
+    /**
+     * Идентификаторы заявок в случайном порядке
+     */
+    private int[] order;
+
+    /**
+     * Номер очередной заявки
+     */
+    private int cursor;
+
+    /**
+     * Заполняет отображения одинаковыми заявками.
+     */
+    @Setup
+    public void setUp() {
+        primitive = new IntItemMap();
+        boxed = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Item item = new Item(OFFSET + i, "name");
+            primitive.put(item.getId(), item);
+            boxed.put(item.getId(), item);
+        }
+        replacement = new Item("replacement");
+        order = new int[size];
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = OFFSET + i;
+        }
+    }
+
+    /**
+     * Возвращает идентификатор следующей заявки
+     * в случайном порядке по кругу.
+     *
+     * @return идентификатор заявки
+     */
+    private int nextId() {
+        cursor = cursor + 1 == size ? 0 : cursor + 1;
+        return order[cursor];
+    }
+
+    /**
+     * Поиск заявки в IntItemMap.
+     *
+     * @return заявка
+     */
+    @Benchmark
+    public Item findByIdPrimitive() {
+        return primitive.get(nextId());
+    }
+
+    /**
+     * Поиск заявки в HashMap.
+     *
+     * @return заявка
+     */
+    @Benchmark
+    public Item findByIdBoxed() {
+        return boxed.get(nextId());
+    }
+
+    /**
+     * Замена заявки в IntItemMap.
+     *
+     * @return предыдущая заявка
+     */
+    @Benchmark
+    public Item replacePrimitive() {
+        return primitive.put(nextId(), replacement);
+    }
+
+    /**
+     * Замена заявки в HashMap.
+     *
+     * @return предыдущая заявка
+     */
+    @Benchmark
+    public Item replaceBoxed() {
+        return boxed.put(nextId(), replacement);
+    }
+
+    /**
+     * Удаление заявки из IntItemMap и ее повторное добавление,
+     * чтобы размер отображения не менялся.
+     *
+     * @return удаленная заявка
+     */
+    @Benchmark
+    public Item deletePrimitive() {
+        int id = nextId();
+        Item item = primitive.remove(id);
+        primitive.put(id, item);
+        return item;
+    }
+
+    /**
+     * Удаление заявки из HashMap и ее повторное добавление,
+     * чтобы размер отображения не менялся.
+     *
+     * @return удаленная заявка
+     */
+    @Benchmark
+    public Item deleteBoxed() {
+        int id = nextId();
+        Item item = boxed.remove(id);
+        boxed.put(id, item);
+        return item;
+    }
+}
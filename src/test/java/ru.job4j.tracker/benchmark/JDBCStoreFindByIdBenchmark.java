@@ -0,0 +1,102 @@
+package ru.job4j.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.ConnectionPool;
+import ru.job4j.tracker.store.JDBCStore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк поиска заявки по идентификатору в JDBCStore
+ * на базе данных H2 в памяти. Сравнивает работу без кеша
+ * подготовленных запросов и с кешем.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=JDBCStoreFindByIdBenchmark
+ * @see ru.job4j.tracker.store.JDBCStore#findById(int)
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JDBCStoreFindByIdBenchmark {
+
+    /**
+     * Количество заявок в хранилище
+     */
+    private static final int SIZE = 10_000;
+
+    /**
+     * Размер кеша подготовленных запросов, 0 отключает кеш
+     */
+    @Param({"0", "32"})
+    private int cacheSize;
+
+    /**
+     * Пул соединений
+     */
+    private ConnectionPool pool;
+
+    /**
+     * Проверяемое хранилище
+     */
+    private JDBCStore store;
+
+    /**
+     * Идентификаторы добавленных заявок
+     */
+    private int[] ids;
+
+    /**
+     * Создает таблицу заявок в базе данных в памяти и заполняет ее.
+     */
+    @Setup
+    public void setUp() throws SQLException {
+        Properties config = new Properties();
+        config.setProperty("url", "jdbc:h2:mem:findbyid" + cacheSize + ";DB_CLOSE_DELAY=-1");
+        config.setProperty("username", "");
+        config.setProperty("password", "");
+        config.setProperty("driver-class-name", "org.h2.Driver");
+        config.setProperty("pool.statement-cache-size", String.valueOf(cacheSize));
+        pool = new ConnectionPool(config);
+        try (Connection cn = pool.getConnection();
+             Statement statement = cn.createStatement()) {
+            statement.execute("create table items(id serial primary key, "
+                    + "name text, created timestamp, description text)");
+        }
+        store = new JDBCStore(pool);
+        List<Item> items = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            items.add(new Item("name" + i));
+        }
+        ids = store.addAll(items).stream().mapToInt(Item::getId).toArray();
+    }
+
+    /**
+     * Закрывает пул соединений.
+     */
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * Поиск случайной заявки по идентификатору.
+     *
+     * @return заявка
+     */
+    @Benchmark
+    public Item findById() {
+        return store.findById(ids[ThreadLocalRandom.current().nextInt(SIZE)]);
+    }
+}
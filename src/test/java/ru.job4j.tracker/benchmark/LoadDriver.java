@@ -0,0 +1,417 @@
+package ru.job4j.tracker.benchmark;
+
+import ru.job4j.tracker.metrics.Histogram;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.Store;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест хранилища заявок смешанной нагрузкой.
+ * Запросы поступают по открытой модели: каждый запрос отправляется
+ * клиентам в назначенное время независимо от того, завершились ли
+ * предыдущие, а задержка считается от назначенного времени, поэтому
+ * ожидание в очереди за медленными запросами входит в задержку
+ * (нет coordinated omission). Отдельно считается время выполнения
+ * самой операции. Задержки записываются в гистограммы по операциям,
+ * в конце выводятся пропускная способность и процентили.
+ * Перед нагрузкой в хранилище добавляются заявки с номерами
+ * от 0 до keys - 1, наименование заявки k - name(k mod names).
+ * Запуск: mvn -Pload test -Dload.args="--store jdbc --rate 2000 --clients 8"
+ * Параметры:
+ * --store хранилище из {@link Stores#NAMES}, по умолчанию concurrent;
+ * --keys количество заявок, 10000; --names количество наименований, 1000;
+ * --zipf показатель распределения Зипфа номеров, 0.99;
+ * --mix веса операций, findById=60,findByName=20,replace=10,add=5,delete=5;
+ * --rate частота запросов в секунду, 1000; --duration длительность в секундах, 10;
+ * --clients количество клиентов, 4; --seed начальное значение генератора, 42;
+ * --record файл для записи сгенерированной нагрузки;
+ * --replay файл нагрузки для воспроизведения вместо генерации.
+ * @see ru.job4j.tracker.benchmark.Workload
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class LoadDriver {
+
+    /**
+     * Процентили в отчете
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    /**
+     * Заголовки процентилей в отчете
+     */
+    private static final String[] LABELS = {"p50", "p90", "p99", "p99.9", "p99.99"};
+
+    /**
+     * Значения параметров по умолчанию
+     */
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "store", "concurrent",
+            "keys", "10000",
+            "names", "1000",
+            "zipf", "0.99",
+            "mix", "findById=60,findByName=20,replace=10,add=5,delete=5",
+            "rate", "1000",
+            "duration", "10",
+            "clients", "4",
+            "seed", "42");
+
+    /**
+     * Хранилище
+     */
+    private final Store store;
+
+    /**
+     * Количество наименований
+     */
+    private final int names;
+
+    /**
+     * Идентификаторы заявок в хранилище по номеру заявки
+     */
+    private final AtomicIntegerArray ids;
+
+    /**
+     * Результаты нагрузки.
+     */
+    public static final class Report {
+
+        /**
+         * Задержки от назначенного времени по операциям, в наносекундах
+         */
+        private final Map<Workload.Operation, Histogram> latency =
+                new EnumMap<>(Workload.Operation.class);
+
+        /**
+         * Время выполнения по операциям, в наносекундах
+         */
+        private final Map<Workload.Operation, Histogram> service =
+                new EnumMap<>(Workload.Operation.class);
+
+        /**
+         * Задержки всех операций
+         */
+        private final Histogram allLatency = new Histogram();
+
+        /**
+         * Время выполнения всех операций
+         */
+        private final Histogram allService = new Histogram();
+
+        /**
+         * Количество запросов, завершившихся исключением
+         */
+        private final LongAdder errors = new LongAdder();
+
+        /**
+         * Время завершения последнего запроса
+         */
+        private final AtomicLong finish = new AtomicLong();
+
+        /**
+         * Длительность нагрузки, в наносекундах
+         */
+        private long elapsed;
+
+        /**
+         * Длительность нагрузки по расписанию, в наносекундах
+         */
+        private long scheduled;
+
+        /**
+         * Конструктор.
+         */
+        private Report() {
+            for (Workload.Operation operation : Workload.Operation.values()) {
+                latency.put(operation, new Histogram());
+                service.put(operation, new Histogram());
+            }
+        }
+
+        /**
+         * Записывает выполненный запрос.
+         *
+         * @param operation операция
+         * @param intended назначенное время
+         * @param start время начала выполнения
+         * @param end время завершения
+         */
+        private void record(Workload.Operation operation, long intended, long start, long end) {
+            latency.get(operation).record(end - intended);
+            service.get(operation).record(end - start);
+            allLatency.record(end - intended);
+            allService.record(end - start);
+            finish.accumulateAndGet(end, Math::max);
+        }
+
+        /**
+         * Возвращает количество выполненных запросов.
+         *
+         * @return количество запросов
+         */
+        public long getCount() {
+            return allLatency.getCount();
+        }
+
+        /**
+         * Возвращает количество запросов, завершившихся исключением.
+         *
+         * @return количество ошибок
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Возвращает пропускную способность.
+         *
+         * @return запросов в секунду
+         */
+        public double getThroughput() {
+            return elapsed == 0 ? 0 : getCount() * 1e9 / elapsed;
+        }
+
+        /**
+         * Возвращает гистограмму задержек операции от назначенного времени.
+         *
+         * @param operation операция или null для всех операций
+         * @return гистограмма задержек в наносекундах
+         */
+        public Histogram getLatency(Workload.Operation operation) {
+            return operation == null ? allLatency : latency.get(operation);
+        }
+
+        /**
+         * Выводит отчет: пропускную способность, задержки от назначенного
+         * времени и время выполнения операций в микросекундах.
+         *
+         * @param out поток вывода
+         */
+        public void print(PrintStream out) {
+            out.printf(Locale.ROOT, "Requests: %d, errors: %d%n", getCount(), getErrors());
+            out.printf(Locale.ROOT, "Elapsed: %.3f s, throughput: %.1f ops/s,"
+                            + " scheduled: %.1f ops/s%n", elapsed / 1e9, getThroughput(),
+                    scheduled == 0 ? 0 : getCount() * 1e9 / scheduled);
+            out.println("Latency from intended start, us:");
+            print(out, allLatency, latency);
+            out.println("Service time, us:");
+            print(out, allService, service);
+        }
+
+        /**
+         * Выводит таблицу процентилей.
+         *
+         * @param out поток вывода
+         * @param all гистограмма всех операций
+         * @param operations гистограммы по операциям
+         */
+        private static void print(PrintStream out, Histogram all,
+                                  Map<Workload.Operation, Histogram> operations) {
+            StringBuilder header = new StringBuilder(String.format("%-12s %9s %9s",
+                    "operation", "count", "mean"));
+            for (String label : LABELS) {
+                header.append(String.format(" %9s", label));
+            }
+            out.println(header.append(String.format(" %9s", "max")));
+            row(out, "all", all);
+            for (Map.Entry<Workload.Operation, Histogram> operation : operations.entrySet()) {
+                if (operation.getValue().getCount() > 0) {
+                    row(out, operation.getKey().title(), operation.getValue());
+                }
+            }
+        }
+
+        /**
+         * Выводит строку процентилей операции.
+         *
+         * @param out поток вывода
+         * @param title наименование операции
+         * @param histogram гистограмма в наносекундах
+         */
+        private static void row(PrintStream out, String title, Histogram histogram) {
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-12s %9d %9.1f",
+                    title, histogram.getCount(), histogram.getMean() / 1000));
+            for (double percentile : PERCENTILES) {
+                line.append(String.format(Locale.ROOT, " %9.1f",
+                        histogram.getPercentile(percentile) / 1000D));
+            }
+            out.println(line.append(String.format(Locale.ROOT, " %9.1f",
+                    histogram.getMax() / 1000D)));
+        }
+    }
+
+    /**
+     * Конструктор. Добавляет в хранилище заявки.
+     *
+     * @param store хранилище
+     * @param keys количество заявок
+     * @param names количество наименований
+     */
+    public LoadDriver(Store store, int keys, int names) {
+        this.store = store;
+        this.names = names;
+        List<Item> items = new ArrayList<>(keys);
+        for (int k = 0; k < keys; k++) {
+            items.add(item(k));
+        }
+        this.ids = new AtomicIntegerArray(
+                store.addAll(items).stream().mapToInt(Item::getId).toArray());
+    }
+
+    /**
+     * Создает заявку с номером.
+     *
+     * @param key номер заявки
+     * @return заявка
+     */
+    private Item item(int key) {
+        return new Item("name" + key % names, "load item " + key);
+    }
+
+    /**
+     * Выполняет нагрузку. Запросы отправляются в назначенное время
+     * из одного потока и выполняются клиентами, ожидающие запросы
+     * стоят в общей очереди.
+     *
+     * @param workload нагрузка
+     * @param clients количество клиентов
+     * @return результаты нагрузки
+     * @throws IllegalArgumentException если номер заявки в нагрузке
+     * не меньше количества заявок
+     */
+    public Report run(Workload workload, int clients) throws InterruptedException {
+        if (workload.maxKey() >= ids.length()) {
+            throw new IllegalArgumentException("Workload key " + workload.maxKey()
+                    + " is out of range, increase --keys to at least " + (workload.maxKey() + 1));
+        }
+        Report report = new Report();
+        ExecutorService executor = Executors.newFixedThreadPool(clients, r -> {
+            Thread thread = new Thread(r, "load-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long begin = System.nanoTime();
+        try {
+            for (int i = 0; i < workload.size(); i++) {
+                long intended = begin + workload.offset(i);
+                long wait = intended - System.nanoTime();
+                while (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    wait = intended - System.nanoTime();
+                }
+                Workload.Operation operation = workload.operation(i);
+                int key = workload.key(i);
+                executor.execute(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        execute(operation, key);
+                    } catch (RuntimeException e) {
+                        report.errors.increment();
+                    }
+                    report.record(operation, intended, start, System.nanoTime());
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        }
+        report.elapsed = Math.max(0, report.finish.get() - begin);
+        report.scheduled = workload.size() == 0 ? 0 : workload.offset(workload.size() - 1);
+        return report;
+    }
+
+    /**
+     * Выполняет операцию над хранилищем.
+     *
+     * @param operation операция
+     * @param key номер заявки или наименования
+     */
+    private void execute(Workload.Operation operation, int key) {
+        switch (operation) {
+            case ADD:
+                ids.set(key, store.add(item(key)).getId());
+                break;
+            case REPLACE:
+                store.replace(ids.get(key), item(key));
+                break;
+            case DELETE:
+                store.delete(ids.get(key));
+                break;
+            case FIND_BY_ID:
+                store.findById(ids.get(key));
+                break;
+            default:
+                store.findByName("name" + key);
+                break;
+        }
+    }
+
+    /**
+     * Разбирает параметры командной строки вида --имя значение.
+     *
+     * @param args аргументы командной строки
+     * @return значения параметров с учетом значений по умолчанию
+     * @throws IllegalArgumentException если параметр неизвестен или без значения
+     */
+    static Map<String, String> options(String[] args) {
+        Map<String, String> rsl = new HashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i += 2) {
+            String name = args[i].startsWith("--") ? args[i].substring(2) : args[i];
+            if (i + 1 >= args.length
+                    || !DEFAULTS.containsKey(name) && !"record".equals(name)
+                    && !"replay".equals(name)) {
+                throw new IllegalArgumentException("Unknown option or missing value: " + args[i]);
+            }
+            rsl.put(name, args[i + 1]);
+        }
+        return rsl;
+    }
+
+    /**
+     * Выполняет нагрузочный тест с параметрами командной строки.
+     *
+     * @param args аргументы командной строки
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        int keys = Integer.parseInt(options.get("keys"));
+        int names = Integer.parseInt(options.get("names"));
+        int clients = Integer.parseInt(options.get("clients"));
+        Workload workload;
+        if (options.containsKey("replay")) {
+            workload = Workload.read(Path.of(options.get("replay")));
+        } else {
+            double rate = Double.parseDouble(options.get("rate"));
+            double exponent = Double.parseDouble(options.get("zipf"));
+            workload = Workload.generate(Workload.parseMix(options.get("mix")),
+                    new Zipf(keys, exponent), new Zipf(names, exponent), rate,
+                    (int) (rate * Double.parseDouble(options.get("duration"))),
+                    Long.parseLong(options.get("seed")));
+        }
+        if (options.containsKey("record")) {
+            workload.write(Path.of(options.get("record")));
+        }
+        String name = options.get("store");
+        try (Store store = Stores.create(name, "load", clients)) {
+            LoadDriver driver = new LoadDriver(store, keys, names);
+            System.out.printf(Locale.ROOT, "Store: %s, keys: %d, names: %d, clients: %d%n",
+                    name, keys, names, clients);
+            driver.run(workload, clients).print(System.out);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.job4j.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.MemoryStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк поиска заявок по наименованию в MemoryStore.
+ * Сравнивает поиск по индексу наименований с полным
+ * перебором списка заявок.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=MemoryStoreFindByNameBenchmark
+ * @see ru.job4j.tracker.store.MemoryStore#findByName(String)
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryStoreFindByNameBenchmark {
+
+    /**
+     * Количество заявок с одинаковым наименованием
+     */
+    private static final int MATCHES = 10;
+
+    /**
+     * Количество заявок в хранилище
+     */
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    /**
+     * Хранилище с индексом наименований
+     */
+    private MemoryStore store;
+
+    /**
+     * Те же заявки в списке для поиска перебором
+     */
+    private List<Item> items;
+
+    /**
+     * Заполняет хранилище и список одинаковыми заявками.
+     */
+    @Setup
+    public void setUp() {
+        store = new MemoryStore();
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(store.add(new Item("name" + i / MATCHES, "description")));
+        }
+    }
+
+    /**
+     * Возвращает случайное существующее наименование.
+     *
+     * @return наименование заявки
+     */
+    private String randomName() {
+        return "name" + ThreadLocalRandom.current().nextInt(size / MATCHES);
+    }
+
+    /**
+     * Поиск по индексу наименований.
+     *
+     * @return список найденных заявок
+     */
+    @Benchmark
+    public List<Item> indexed() {
+        return store.findByName(randomName());
+    }
+
+    /**
+     * Поиск полным перебором списка заявок.
+     *
+     * @return список найденных заявок
+     */
+    @Benchmark
+    public List<Item> scan() {
+        String key = randomName();
+        List<Item> rslItems = new ArrayList<>();
+        for (Item item : items) {
+            if (item.getName().equals(key)) {
+                rslItems.add(item);
+            }
+        }
+        return rslItems;
+    }
+}
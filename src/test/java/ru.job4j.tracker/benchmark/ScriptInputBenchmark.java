@@ -0,0 +1,79 @@
+package ru.job4j.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.job4j.tracker.io.ScriptInput;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк чтения сценария команд. Сравнивает ScriptInput
+ * со Scanner.nextLine и Integer.parseInt, как в ConsoleInput,
+ * на сценарии из команд поиска по идентификатору: номер действия
+ * и идентификатор заявки. Результат - время чтения всего сценария.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=ScriptInputBenchmark
+ * @see ru.job4j.tracker.io.ScriptInput
+ * @see ru.job4j.tracker.io.ConsoleInput
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptInputBenchmark {
+
+    /**
+     * Количество команд в сценарии
+     */
+    @Param({"10000"})
+    private int commands;
+
+    /**
+     * Байты сценария
+     */
+    private byte[] script;
+
+    /**
+     * Создает сценарий.
+     */
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < commands; i++) {
+            text.append("4\n").append(i + 1).append('\n');
+        }
+        script = text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Чтение сценария через Scanner.
+     *
+     * @param blackhole потребитель ответов
+     */
+    @Benchmark
+    public void scanner(Blackhole blackhole) {
+        Scanner scanner = new Scanner(new ByteArrayInputStream(script));
+        while (scanner.hasNextLine()) {
+            blackhole.consume(Integer.parseInt(scanner.nextLine()));
+        }
+    }
+
+    /**
+     * Чтение сценария через ScriptInput.
+     *
+     * @param blackhole потребитель ответов
+     */
+    @Benchmark
+    public void scriptInput(Blackhole blackhole) {
+        ScriptInput input = new ScriptInput(new ByteArrayInputStream(script));
+        while (input.hasNext()) {
+            blackhole.consume(input.askInt("Select: "));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ru.job4j.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.ConnectionPool;
+import ru.job4j.tracker.store.HibernateStore;
+import ru.job4j.tracker.store.JDBCStore;
+import ru.job4j.tracker.store.MemoryStore;
+import ru.job4j.tracker.store.Store;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк пакетного добавления заявок.
+ * Сравнивает {@link Store#addAll(java.util.Collection)} с добавлением
+ * заявок по одной в цикле для хранилищ в памяти и в базе данных H2.
+ * Перед каждым вызовом хранилище очищается.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=StoreAddAllBenchmark
+ * @see ru.job4j.tracker.store.Store#addAll(java.util.Collection)
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreAddAllBenchmark {
+
+    /**
+     * Тип хранилища
+     */
+    @Param({"memory", "jdbc", "hibernate"})
+    private String store;
+
+    /**
+     * Количество заявок, добавляемых за один вызов
+     */
+    @Param({"1000", "10000"})
+    private int size;
+
+    /**
+     * Пул соединений для хранилища JDBC
+     */
+    private ConnectionPool pool;
+
+    /**
+     * Соединение с базой данных проверяемого хранилища для очистки таблицы
+     */
+    private Connection cn;
+
+    /**
+     * Проверяемое хранилище
+     */
+    private Store tracker;
+
+    /**
+     * Создает хранилище. Для JDBC создается пул соединений с базой
+     * данных в памяти и таблица заявок, Hibernate использует базу
+     * данных в памяти из тестовой конфигурации.
+     */
+    @Setup(Level.Trial)
+    public void setUpStore() throws SQLException {
+        if ("jdbc".equals(store)) {
+            Properties config = new Properties();
+            config.setProperty("url", "jdbc:h2:mem:addall;DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+            config.setProperty("username", "");
+            config.setProperty("password", "");
+            config.setProperty("driver-class-name", "org.h2.Driver");
+            pool = new ConnectionPool(config);
+            tracker = new JDBCStore(pool);
+            cn = pool.getConnection();
+            try (Statement statement = cn.createStatement()) {
+                statement.execute("create table items(id serial primary key, "
+                        + "name text, created timestamp, description text)");
+            }
+        } else if ("hibernate".equals(store)) {
+            tracker = new HibernateStore();
+            cn = DriverManager.getConnection("jdbc:h2:mem:cars", "test", "");
+        }
+    }
+
+    /**
+     * Очищает хранилище перед каждым вызовом,
+     * чтобы все вызовы добавляли заявки в пустую таблицу.
+     */
+    @Setup(Level.Invocation)
+    public void wipe() throws SQLException {
+        if (cn == null) {
+            tracker = new MemoryStore();
+        } else {
+            try (Statement statement = cn.createStatement()) {
+                statement.execute("truncate table items");
+            }
+        }
+    }
+
+    /**
+     * Закрывает хранилище и соединения с базой данных.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (cn != null) {
+            cn.close();
+        }
+        tracker.close();
+    }
+
+    /**
+     * Создает пакет новых заявок.
+     *
+     * @return заявки
+     */
+    private List<Item> batch() {
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item("name" + i, "description"));
+        }
+        return items;
+    }
+
+    /**
+     * Добавление заявок по одной.
+     *
+     * @return последняя добавленная заявка
+     */
+    @Benchmark
+    public Item loopAdd() {
+        Item last = null;
+        for (Item item : batch()) {
+            last = tracker.add(item);
+        }
+        return last;
+    }
+
+    /**
+     * Пакетное добавление заявок.
+     *
+     * @return добавленные заявки
+     */
+    @Benchmark
+    public List<Item> addAll() {
+        return tracker.addAll(batch());
+    }
+}
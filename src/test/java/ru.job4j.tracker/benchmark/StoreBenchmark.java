@@ -0,0 +1,235 @@
+package ru.job4j.tracker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.Store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк всех операций {@link Store} для хранилищ в памяти, JDBC
+ * и Hibernate при разном количестве заявок. Хранилища в базе данных
+ * работают с базой данных H2 в памяти, см. {@link Stores}.
+ * Каждое наименование повторяется у 10 заявок, описание содержит слово
+ * для полнотекстового поиска, также повторяющееся у 10 заявок.
+ * Замена записывает заявке те же данные, добавление парно с удалением,
+ * поэтому количество заявок не меняется. Пакетное добавление
+ * измеряет {@link StoreAddAllBenchmark}.
+ * Профиль benchmark запускает бенчмарки с профилировщиком gc, который
+ * добавляет скорость выделения памяти, и записывает результаты в
+ * target/jmh-result.json, файл задается свойством jmh.result.
+ * Запуск: mvn -Pbenchmark test -Djmh.include=StoreBenchmark
+ * Выборочный запуск: -Djmh.args="-p store=jdbc -p size=1000 -bm avgt"
+ * @see ru.job4j.tracker.store.Store
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class StoreBenchmark {
+
+    /**
+     * Количество заявок с одинаковым наименованием и словом описания
+     */
+    private static final int DUPLICATES = 10;
+
+    /**
+     * Размер страницы и количество результатов поиска
+     */
+    private static final int LIMIT = 20;
+
+    /**
+     * Тип хранилища
+     */
+    @Param({"memory", "jdbc", "hibernate"})
+    private String store;
+
+    /**
+     * Количество заявок в хранилище
+     */
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    /**
+     * Проверяемое хранилище
+     */
+    private Store tracker;
+
+    /**
+     * Идентификаторы заявок
+     */
+    private int[] ids;
+
+    /**
+     * Наименования заявок по номеру заявки
+     */
+    private String[] names;
+
+    /**
+     * Наименования заявок в верхнем регистре
+     */
+    private String[] upperNames;
+
+    /**
+     * Слова описаний заявок
+     */
+    private String[] words;
+
+    /**
+     * Создает хранилище и добавляет заявки.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        tracker = Stores.create(store, store + size, 10);
+        int groups = Math.max(1, size / DUPLICATES);
+        names = new String[size];
+        upperNames = new String[size];
+        words = new String[size];
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            names[i] = "name" + i % groups;
+            upperNames[i] = names[i].toUpperCase(Locale.ROOT);
+            words[i] = "word" + i % groups;
+            items.add(new Item(names[i], description(i)));
+        }
+        ids = tracker.addAll(items).stream().mapToInt(Item::getId).toArray();
+    }
+
+    /**
+     * Возвращает описание заявки.
+     *
+     * @param index номер заявки
+     * @return описание
+     */
+    private String description(int index) {
+        return "task " + index + " about " + words[index];
+    }
+
+    /**
+     * Закрывает хранилище.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        tracker.close();
+    }
+
+    /**
+     * Возвращает случайный номер заявки.
+     *
+     * @return номер заявки
+     */
+    private int random() {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+
+    /**
+     * Добавление заявки и ее удаление.
+     *
+     * @return результат удаления
+     */
+    @Benchmark
+    public boolean addAndDelete() {
+        Item item = tracker.add(new Item("extra", "extra"));
+        return tracker.delete(item.getId());
+    }
+
+    /**
+     * Замена случайной заявки теми же данными.
+     *
+     * @return результат замены
+     */
+    @Benchmark
+    public boolean replace() {
+        int index = random();
+        return tracker.replace(ids[index], new Item(names[index], description(index)));
+    }
+
+    /**
+     * Поиск случайной заявки по идентификатору.
+     *
+     * @return заявка
+     */
+    @Benchmark
+    public Item findById() {
+        return tracker.findById(ids[random()]);
+    }
+
+    /**
+     * Выбор всех заявок.
+     *
+     * @return список заявок
+     */
+    @Benchmark
+    public List<Item> findAll() {
+        return tracker.findAll();
+    }
+
+    /**
+     * Обход всех заявок.
+     *
+     * @param blackhole потребитель заявок
+     */
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        tracker.forEach(blackhole::consume);
+    }
+
+    /**
+     * Выбор страницы заявок после случайной заявки.
+     *
+     * @return список заявок
+     */
+    @Benchmark
+    public List<Item> findPage() {
+        return tracker.findPage(ids[random()], LIMIT);
+    }
+
+    /**
+     * Поиск заявок по наименованию.
+     *
+     * @return список заявок
+     */
+    @Benchmark
+    public List<Item> findByName() {
+        return tracker.findByName(names[random()]);
+    }
+
+    /**
+     * Поиск заявок по началу наименования.
+     *
+     * @return список заявок
+     */
+    @Benchmark
+    public List<Item> findByNamePrefix() {
+        return tracker.findByNamePrefix(names[random()]);
+    }
+
+    /**
+     * Поиск заявок по наименованию без учета регистра.
+     *
+     * @return список заявок
+     */
+    @Benchmark
+    public List<Item> findByNameIgnoreCase() {
+        return tracker.findByNameIgnoreCase(upperNames[random()]);
+    }
+
+    /**
+     * Полнотекстовый поиск заявок по слову описания.
+     *
+     * @return список заявок
+     */
+    @Benchmark
+    public List<Item> search() {
+        return tracker.search(words[random()], LIMIT);
+    }
+}
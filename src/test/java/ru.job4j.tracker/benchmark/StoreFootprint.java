@@ -0,0 +1,108 @@
+package ru.job4j.tracker.benchmark;
+
+import ru.job4j.tracker.model.Item;
+import ru.job4j.tracker.store.MemoryStore;
+import ru.job4j.tracker.store.OffHeapStore;
+import ru.job4j.tracker.store.Store;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Замер занимаемой кучи и пауз сборщика мусора при загрузке
+ * большого количества заявок в хранилище в памяти.
+ * Каждое хранилище замеряется в отдельной JVM:
+ * java -Xmx4g -cp target/classes:target/test-classes
+ * ru.job4j.tracker.benchmark.StoreFootprint offheap 5000000
+ * @see ru.job4j.tracker.store.MemoryStore
+ * @see ru.job4j.tracker.store.OffHeapStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class StoreFootprint {
+
+    /**
+     * Количество полных сборок мусора после загрузки
+     */
+    private static final int FULL_GCS = 5;
+
+    /**
+     * Байт в мегабайте
+     */
+    private static final long MB = 1024 * 1024;
+
+    /**
+     * Создает хранилище по имени.
+     *
+     * @param name memory или offheap
+     * @return хранилище
+     */
+    private static Store create(String name) {
+        if ("offheap".equals(name)) {
+            return new OffHeapStore();
+        }
+        if ("memory".equals(name)) {
+            return new MemoryStore();
+        }
+        throw new IllegalArgumentException("Unknown store: " + name);
+    }
+
+    /**
+     * Возвращает суммарное количество сборок мусора.
+     *
+     * @return количество сборок
+     */
+    private static long gcCount() {
+        long rsl = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            rsl += gc.getCollectionCount();
+        }
+        return rsl;
+    }
+
+    /**
+     * Возвращает суммарное время сборок мусора в миллисекундах.
+     *
+     * @return время сборок
+     */
+    private static long gcTime() {
+        long rsl = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            rsl += gc.getCollectionTime();
+        }
+        return rsl;
+    }
+
+    /**
+     * Загружает заявки и выводит занятую кучу, количество и время
+     * сборок мусора при загрузке и среднюю паузу полной сборки.
+     *
+     * @param args имя хранилища и количество заявок
+     */
+    public static void main(String[] args) throws Exception {
+        String name = args.length > 0 ? args[0] : "offheap";
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        try (Store store = create(name)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                store.add(new Item("name" + i % 1_000, "description of ticket " + i));
+            }
+            long loadMillis = (System.nanoTime() - start) / 1_000_000;
+            long loadGcCount = gcCount();
+            long loadGcTime = gcTime();
+            long fullGcStart = System.nanoTime();
+            for (int i = 0; i < FULL_GCS; i++) {
+                System.gc();
+            }
+            long fullGcMillis = (System.nanoTime() - fullGcStart) / 1_000_000 / FULL_GCS;
+            long heap = memory.getHeapMemoryUsage().getUsed() / MB;
+            System.out.printf("store=%s items=%d load=%d ms%n", name, count, loadMillis);
+            System.out.printf("heap used after gc=%d MB%n", heap);
+            System.out.printf("gc during load: count=%d time=%d ms%n", loadGcCount, loadGcTime);
+            System.out.printf("full gc pause avg=%d ms%n", fullGcMillis);
+            System.out.printf("check: id %d found=%b%n", count, store.findById(count) != null);
+        }
+    }
+}
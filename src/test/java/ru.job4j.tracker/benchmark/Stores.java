@@ -0,0 +1,137 @@
+package ru.job4j.tracker.benchmark;
+
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.FileSystemResourceAccessor;
+import ru.job4j.tracker.store.ConcurrentMemoryStore;
+import ru.job4j.tracker.store.ConnectionPool;
+import ru.job4j.tracker.store.HibernateStore;
+import ru.job4j.tracker.store.JDBCStore;
+import ru.job4j.tracker.store.MemoryStore;
+import ru.job4j.tracker.store.OffHeapStore;
+import ru.job4j.tracker.store.Store;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Создание хранилищ заявок по имени для бенчмарков и нагрузочных тестов.
+ * Хранилища jdbc и hibernate работают с базой данных H2 в памяти,
+ * схема которой создается Liquibase из db/dbchangelog.xml, как для
+ * PostgreSQL, поэтому внешняя база данных не нужна. Хранилища
+ * pg-jdbc и pg-hibernate подключаются к базе данных PostgreSQL
+ * из app.properties и hibernate.cfg.xml.
+ * @see ru.job4j.tracker.store.Store
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class Stores {
+
+    /**
+     * Имена хранилищ
+     */
+    public static final List<String> NAMES = List.of(
+            "memory", "concurrent", "offheap", "jdbc", "hibernate", "pg-jdbc", "pg-hibernate");
+
+    /**
+     * Конструктор.
+     */
+    private Stores() {
+    }
+
+    /**
+     * Создает и инициализирует хранилище.
+     *
+     * @param name имя хранилища из {@link #NAMES}
+     * @param database имя базы данных H2 в памяти
+     * @param poolSize наибольшее количество соединений с базой данных
+     * @return хранилище
+     * @throws IllegalArgumentException если хранилище неизвестно
+     */
+    public static Store create(String name, String database, int poolSize) throws Exception {
+        if ("memory".equals(name)) {
+            return new MemoryStore();
+        }
+        if ("concurrent".equals(name)) {
+            return new ConcurrentMemoryStore();
+        }
+        if ("offheap".equals(name)) {
+            return new OffHeapStore();
+        }
+        if ("jdbc".equals(name)) {
+            return new JDBCStore(new ConnectionPool(h2Config(database, poolSize)));
+        }
+        if ("hibernate".equals(name)) {
+            String url = h2Url(database);
+            migrate(url);
+            return new HibernateStore(Map.of(
+                    "hibernate.connection.url", url,
+                    "hibernate.connection.username", "",
+                    "hibernate.connection.pool.max-size", String.valueOf(poolSize),
+                    "hibernate.hbm2ddl.auto", "none",
+                    "hibernate.generate_statistics", "false"));
+        }
+        if ("pg-jdbc".equals(name)) {
+            Store rsl = new JDBCStore(null);
+            rsl.init();
+            return rsl;
+        }
+        if ("pg-hibernate".equals(name)) {
+            return new HibernateStore();
+        }
+        throw new IllegalArgumentException("Unknown store: " + name + ", expected one of " + NAMES);
+    }
+
+    /**
+     * Возвращает адрес базы данных H2 в памяти в режиме PostgreSQL.
+     *
+     * @param database имя базы данных
+     * @return адрес базы данных
+     */
+    public static String h2Url(String database) {
+        return "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1"
+                + ";MODE=PostgreSQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+    }
+
+    /**
+     * Создает схему базы данных H2 и возвращает настройки пула соединений с ней.
+     *
+     * @param database имя базы данных
+     * @param poolSize наибольшее количество соединений
+     * @return настройки пула соединений
+     */
+    private static Properties h2Config(String database, int poolSize) throws Exception {
+        String url = h2Url(database);
+        migrate(url);
+        Properties config = new Properties();
+        config.setProperty("url", url);
+        config.setProperty("username", "");
+        config.setProperty("password", "");
+        config.setProperty("driver-class-name", "org.h2.Driver");
+        config.setProperty("pool.max-size", String.valueOf(poolSize));
+        config.setProperty("pool.statement-cache-size", "32");
+        return config;
+    }
+
+    /**
+     * Применяет изменения Liquibase к базе данных.
+     *
+     * @param url адрес базы данных
+     */
+    public static void migrate(String url) throws Exception {
+        try (Connection cn = DriverManager.getConnection(url, "", "")) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(cn));
+            new Liquibase("db/dbchangelog.xml",
+                    new FileSystemResourceAccessor(new File(".")), database)
+                    .update(new Contexts());
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package ru.job4j.tracker.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Нагрузка на хранилище: последовательность запросов, у каждого запроса
+ * есть время поступления от начала нагрузки, операция и номер заявки,
+ * для поиска по наименованию - номер наименования.
+ * Сгенерированная нагрузка поступает с постоянной частотой,
+ * операции выбираются по весам, номера - по распределению Зипфа.
+ * Нагрузка записывается в текстовый файл и читается из него для
+ * повторного воспроизведения, по запросу в строке:
+ * &lt;время в наносекундах&gt; &lt;операция&gt; &lt;номер&gt;,
+ * строки, начинающиеся с #, пропускаются.
+ * @see ru.job4j.tracker.benchmark.LoadDriver
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class Workload {
+
+    /**
+     * Операция запроса, наименование совпадает с методом {@link ru.job4j.tracker.store.Store}.
+     */
+    public enum Operation {
+        ADD("add"),
+        REPLACE("replace"),
+        DELETE("delete"),
+        FIND_BY_ID("findById"),
+        FIND_BY_NAME("findByName");
+
+        /**
+         * Наименование операции
+         */
+        private final String title;
+
+        /**
+         * Конструктор.
+         *
+         * @param title наименование операции
+         */
+        Operation(String title) {
+            this.title = title;
+        }
+
+        /**
+         * Возвращает наименование операции.
+         *
+         * @return наименование
+         */
+        public String title() {
+            return title;
+        }
+
+        /**
+         * Возвращает операцию по наименованию.
+         *
+         * @param title наименование операции
+         * @return операция
+         * @throws IllegalArgumentException если операция неизвестна
+         */
+        public static Operation of(String title) {
+            for (Operation operation : values()) {
+                if (operation.title.equals(title)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation: " + title);
+        }
+    }
+
+    /**
+     * Времена поступления запросов от начала нагрузки, в наносекундах
+     */
+    private final long[] offsets;
+
+    /**
+     * Операции запросов
+     */
+    private final Operation[] operations;
+
+    /**
+     * Номера заявок или наименований запросов
+     */
+    private final int[] keys;
+
+    /**
+     * Конструктор.
+     *
+     * @param offsets времена поступления запросов
+     * @param operations операции запросов
+     * @param keys номера запросов
+     */
+    private Workload(long[] offsets, Operation[] operations, int[] keys) {
+        this.offsets = offsets;
+        this.operations = operations;
+        this.keys = keys;
+    }
+
+    /**
+     * Разбирает веса операций вида findById=60,findByName=20,replace=20.
+     * Операции, не указанные в строке, не выполняются.
+     *
+     * @param mix веса операций
+     * @return веса по операциям
+     * @throws IllegalArgumentException если строка некорректна
+     */
+    public static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> rsl = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + part);
+            }
+            rsl.put(Operation.of(pair[0].trim()), weight);
+        }
+        if (rsl.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Operation mix is empty: " + mix);
+        }
+        return rsl;
+    }
+
+    /**
+     * Генерирует нагрузку с постоянной частотой запросов.
+     *
+     * @param mix веса операций
+     * @param keys распределение номеров заявок
+     * @param names распределение номеров наименований
+     * @param rate частота запросов в секунду
+     * @param count количество запросов
+     * @param seed начальное значение генератора случайных чисел
+     * @return нагрузка
+     */
+    public static Workload generate(Map<Operation, Integer> mix, Zipf keys, Zipf names,
+                                    double rate, int count, long seed) {
+        Operation[] choices = mix.keySet().toArray(new Operation[0]);
+        int[] bounds = new int[choices.length];
+        int total = 0;
+        for (int i = 0; i < choices.length; i++) {
+            total += mix.get(choices[i]);
+            bounds[i] = total;
+        }
+        Random random = new Random(seed);
+        long[] offsets = new long[count];
+        Operation[] operations = new Operation[count];
+        int[] ranks = new int[count];
+        double interval = 1_000_000_000D / rate;
+        for (int i = 0; i < count; i++) {
+            int choice = random.nextInt(total);
+            int index = 0;
+            while (choice >= bounds[index]) {
+                index++;
+            }
+            offsets[i] = (long) (i * interval);
+            operations[i] = choices[index];
+            ranks[i] = choices[index] == Operation.FIND_BY_NAME
+                    ? names.next(random) : keys.next(random);
+        }
+        return new Workload(offsets, operations, ranks);
+    }
+
+    /**
+     * Читает нагрузку из файла.
+     *
+     * @param file файл нагрузки
+     * @return нагрузка
+     * @throws IllegalArgumentException если строка файла некорректна
+     * или времена поступления убывают
+     */
+    public static Workload read(Path file) throws IOException {
+        List<String[]> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                if (fields.length != 3) {
+                    throw new IllegalArgumentException("Expected offset operation key: " + line);
+                }
+                lines.add(fields);
+            }
+        }
+        long[] offsets = new long[lines.size()];
+        Operation[] operations = new Operation[lines.size()];
+        int[] keys = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            String[] fields = lines.get(i);
+            offsets[i] = Long.parseLong(fields[0]);
+            operations[i] = Operation.of(fields[1]);
+            keys[i] = Integer.parseInt(fields[2]);
+            if (offsets[i] < 0 || i > 0 && offsets[i] < offsets[i - 1] || keys[i] < 0) {
+                throw new IllegalArgumentException("Offsets must not decrease"
+                        + " and keys must not be negative, line " + (i + 1));
+            }
+        }
+        return new Workload(offsets, operations, keys);
+    }
+
+    /**
+     * Записывает нагрузку в файл.
+     *
+     * @param file файл нагрузки
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# offset-nanos operation key");
+            writer.newLine();
+            for (int i = 0; i < offsets.length; i++) {
+                writer.write(offsets[i] + " " + operations[i].title() + " " + keys[i]);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество запросов.
+     *
+     * @return количество запросов
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Возвращает время поступления запроса от начала нагрузки.
+     *
+     * @param index номер запроса
+     * @return время в наносекундах
+     */
+    public long offset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Возвращает операцию запроса.
+     *
+     * @param index номер запроса
+     * @return операция
+     */
+    public Operation operation(int index) {
+        return operations[index];
+    }
+
+    /**
+     * Возвращает номер заявки или наименования запроса.
+     *
+     * @param index номер запроса
+     * @return номер
+     */
+    public int key(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Возвращает наибольший номер заявки в запросах,
+     * кроме поиска по наименованию.
+     *
+     * @return наибольший номер или -1
+     */
+    public int maxKey() {
+        int rsl = -1;
+        for (int i = 0; i < keys.length; i++) {
+            if (operations[i] != Operation.FIND_BY_NAME) {
+                rsl = Math.max(rsl, keys[i]);
+            }
+        }
+        return rsl;
+    }
+}
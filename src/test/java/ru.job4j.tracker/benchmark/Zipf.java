@@ -0,0 +1,65 @@
+package ru.job4j.tracker.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Распределение Зипфа на номерах от 0 до n - 1: вероятность номера k
+ * пропорциональна 1 / (k + 1)^s, поэтому номер 0 самый частый.
+ * При s = 0 распределение равномерное, при s около 1 небольшая доля
+ * номеров получает большую часть обращений, как горячие заявки
+ * в реальной нагрузке. Функция распределения вычисляется один раз,
+ * выбор номера - двоичный поиск по ней.
+ * @see ru.job4j.tracker.benchmark.Workload
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class Zipf {
+
+    /**
+     * Накопленные вероятности номеров
+     */
+    private final double[] cdf;
+
+    /**
+     * Конструктор.
+     *
+     * @param n количество номеров
+     * @param exponent показатель s, не меньше 0
+     */
+    public Zipf(int n, double exponent) {
+        if (n < 1 || exponent < 0) {
+            throw new IllegalArgumentException("n must be positive and exponent not negative");
+        }
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        cdf[n - 1] = 1;
+    }
+
+    /**
+     * Возвращает количество номеров.
+     *
+     * @return количество номеров
+     */
+    public int size() {
+        return cdf.length;
+    }
+
+    /**
+     * Выбирает случайный номер.
+     *
+     * @param random генератор случайных чисел
+     * @return номер от 0 до n - 1
+     */
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return index >= 0 ? index : -index - 1;
+    }
+}
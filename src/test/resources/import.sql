@@ -0,0 +1,4 @@
+-- Индексы поиска по наименованию, как в db/scripts/003_ddl_create_item_name_indexes.sql
+alter table items add column name_lower text generated always as (lower(name));
+create index items_name_idx on items(name);
+create index items_name_lower_idx on items(name_lower);